@@ -0,0 +1,97 @@
+package com.github.mybatis.field.interceptor.benchmark;
+
+import com.github.mybatis.field.interceptor.FieldAccessInterceptor;
+import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 创建基准测试使用的H2内存库和SqlSessionFactory
+ * Created on 2026-10-17
+ */
+public final class BenchmarkDatabase {
+
+    public static final String ENTITY_PACKAGE = "com.github.mybatis.field.interceptor.benchmark.entity";
+
+    private static final String MAPPER_RESOURCE = "com/github/mybatis/field/interceptor/benchmark/BenchmarkMapper.xml";
+
+    private static final int[] FIELD_COUNTS = {1, 4, 16};
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * 创建使用指定handler的拦截器
+     */
+    public static FieldAccessInterceptor newInterceptor(BenchmarkHandler handler) {
+        Map<Class<? extends IFieldAccessHandler>, IFieldAccessHandler> handlerMap = new HashMap<>();
+        handlerMap.put(BenchmarkHandler.class, handler);
+        return new FieldAccessInterceptor(ENTITY_PACKAGE, handlerMap);
+    }
+
+    /**
+     * 创建连接到内存库dbName的SqlSessionFactory，interceptor为null时不安装插件
+     * 同一个dbName的多个SqlSessionFactory访问的是同一份数据
+     */
+    public static SqlSessionFactory createFactory(String dbName, FieldAccessInterceptor interceptor) {
+        PooledDataSource dataSource = new PooledDataSource("org.h2.Driver",
+                "jdbc:h2:mem:" + dbName + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Configuration configuration = new Configuration(
+                new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+        if (interceptor != null) {
+            configuration.addInterceptor(interceptor);
+        }
+        try (InputStream inputStream = Resources.getResourceAsStream(MAPPER_RESOURCE)) {
+            new XMLMapperBuilder(inputStream, configuration, MAPPER_RESOURCE, configuration.getSqlFragments())
+                    .parse();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    /**
+     * 创建row1、row4、row16三张表
+     */
+    public static void createTables(SqlSessionFactory factory) {
+        try (SqlSession session = factory.openSession(true);
+             Statement statement = session.getConnection().createStatement()) {
+            for (int fieldCount : FIELD_COUNTS) {
+                StringBuilder sql = new StringBuilder("create table if not exists row").append(fieldCount)
+                        .append(" (id bigint auto_increment primary key");
+                for (int i = 1; i <= fieldCount; i++) {
+                    sql.append(", c").append(i).append(" varchar(128)");
+                }
+                statement.execute(sql.append(')').toString());
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 删除id大于keepRows的行，用于清理写入基准测试插入的数据
+     */
+    public static void deleteRowsAfter(SqlSessionFactory factory, int fieldCount, int keepRows) {
+        try (SqlSession session = factory.openSession(true);
+             Statement statement = session.getConnection().createStatement()) {
+            statement.execute("delete from row" + fieldCount + " where id > " + keepRows);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
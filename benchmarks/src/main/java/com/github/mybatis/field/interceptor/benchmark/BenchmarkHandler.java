@@ -0,0 +1,113 @@
+package com.github.mybatis.field.interceptor.benchmark;
+
+import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 基准测试使用的handler，通过构造参数选择不同开销的转换逻辑
+ * Created on 2026-10-17
+ */
+public class BenchmarkHandler implements IFieldAccessHandler {
+
+    /**
+     * handler的转换逻辑
+     */
+    public enum Mode {
+        /**
+         * 原样返回
+         */
+        NOOP,
+        /**
+         * 写入时AES加密，读取时AES解密
+         */
+        AES,
+        /**
+         * 写入时原样返回，读取时只保留首尾字符，中间替换为*
+         */
+        MASK
+    }
+
+    private static final SecretKeySpec AES_KEY =
+            new SecretKeySpec("0123456789abcdef".getBytes(StandardCharsets.UTF_8), "AES");
+
+    private static final ThreadLocal<Cipher> ENCRYPT_CIPHER = ThreadLocal.withInitial(() -> newCipher(Cipher.ENCRYPT_MODE));
+    private static final ThreadLocal<Cipher> DECRYPT_CIPHER = ThreadLocal.withInitial(() -> newCipher(Cipher.DECRYPT_MODE));
+
+    private final Mode mode;
+
+    public BenchmarkHandler() {
+        this(Mode.NOOP);
+    }
+
+    public BenchmarkHandler(Mode mode) {
+        this.mode = mode;
+    }
+
+    @Override
+    public boolean allowModifyResult(String fieldName, Object fieldValue, Object resultObj, List<String> handleParams) {
+        return fieldValue != null;
+    }
+
+    @Override
+    public Object modifyResult(String fieldName, Object fieldValue, Object result, List<String> handleParams)
+            throws Exception {
+        switch (mode) {
+            case AES:
+                byte[] encrypted = Base64.getDecoder().decode((String) fieldValue);
+                return new String(DECRYPT_CIPHER.get().doFinal(encrypted), StandardCharsets.UTF_8);
+            case MASK:
+                return mask((String) fieldValue);
+            default:
+                return fieldValue;
+        }
+    }
+
+    @Override
+    public boolean allowModifyParam(String fieldName, Object fieldValue, Object paramObj, List<String> handleParams) {
+        return fieldValue != null;
+    }
+
+    @Override
+    public Object modifyParam(String fieldName, Object fieldValue, Object paramObj, List<String> handleParams)
+            throws Exception {
+        if (mode == Mode.AES) {
+            byte[] plain = ((String) fieldValue).getBytes(StandardCharsets.UTF_8);
+            return Base64.getEncoder().encodeToString(ENCRYPT_CIPHER.get().doFinal(plain));
+        }
+        return fieldValue;
+    }
+
+    /**
+     * 读取时转换需要的值，AES模式下是加密后的值，其它模式下原样返回
+     */
+    public String toStoredValue(String value) throws Exception {
+        return (String) modifyParam(null, value, null, null);
+    }
+
+    private static String mask(String value) {
+        if (value.length() <= 2) {
+            return value;
+        }
+        char[] chars = value.toCharArray();
+        for (int i = 1; i < chars.length - 1; i++) {
+            chars[i] = '*';
+        }
+        return new String(chars);
+    }
+
+    private static Cipher newCipher(int cipherMode) {
+        try {
+            Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
+            cipher.init(cipherMode, AES_KEY);
+            return cipher;
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
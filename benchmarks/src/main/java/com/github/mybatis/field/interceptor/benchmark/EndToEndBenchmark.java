@@ -0,0 +1,124 @@
+package com.github.mybatis.field.interceptor.benchmark;
+
+import com.github.mybatis.field.interceptor.benchmark.entity.BenchmarkRow;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通过MyBatis访问H2内存库的端到端开销，plugin=false的结果作为对照
+ * Created on 2026-10-17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EndToEndBenchmark {
+
+    private static final String PLAIN_VALUE = "13800138000-benchmark";
+
+    @Param({"100", "10000"})
+    private int rowCount;
+
+    @Param({"1", "4", "16"})
+    private int fieldCount;
+
+    @Param({"NOOP", "AES", "MASK"})
+    private BenchmarkHandler.Mode handlerMode;
+
+    @Param({"true", "false"})
+    private boolean plugin;
+
+    private SqlSessionFactory factory;
+    private String selectId;
+    private String selectValuesId;
+    private String insertId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        selectId = "benchmark.selectRow" + fieldCount;
+        selectValuesId = "benchmark.selectValuesRow" + fieldCount;
+        insertId = "benchmark.insertRow" + fieldCount;
+        String dbName = "benchmark_" + System.nanoTime();
+        //初始数据总是通过插件写入，AES模式下库里存的是密文
+        SqlSessionFactory pluginFactory = BenchmarkDatabase.createFactory(dbName,
+                BenchmarkDatabase.newInterceptor(new BenchmarkHandler(handlerMode)));
+        BenchmarkDatabase.createTables(pluginFactory);
+        try (SqlSession session = pluginFactory.openSession(ExecutorType.BATCH)) {
+            for (int i = 0; i < rowCount; i++) {
+                session.insert(insertId, newRow());
+            }
+            session.commit();
+        }
+        factory = plugin ? pluginFactory : BenchmarkDatabase.createFactory(dbName, null);
+    }
+
+    /**
+     * 清理写入基准测试插入的数据，保持每轮查询和写入的表大小一致
+     */
+    @TearDown(Level.Iteration)
+    public void deleteInsertedRows() {
+        BenchmarkDatabase.deleteRowsAfter(factory, fieldCount, rowCount);
+    }
+
+    @Benchmark
+    public List<Object> selectList() {
+        try (SqlSession session = factory.openSession()) {
+            return session.selectList(selectId);
+        }
+    }
+
+    /**
+     * 不查询id，所有行的字段值相同，equals/hashCode按值比较的实体互相相等
+     */
+    @Benchmark
+    public List<Object> selectEqualRows() {
+        try (SqlSession session = factory.openSession()) {
+            return session.selectList(selectValuesId);
+        }
+    }
+
+    @Benchmark
+    public int insert() {
+        try (SqlSession session = factory.openSession(true)) {
+            return session.insert(insertId, newRow());
+        }
+    }
+
+    @Benchmark
+    public void batchInsert() {
+        try (SqlSession session = factory.openSession(ExecutorType.BATCH)) {
+            for (int i = 0; i < rowCount; i++) {
+                session.insert(insertId, newRow());
+            }
+            session.commit();
+        }
+    }
+
+    /**
+     * 插件会修改入参对象上的字段，每次写入都使用新对象
+     */
+    private BenchmarkRow newRow() {
+        BenchmarkRow row = BenchmarkRow.create(fieldCount);
+        row.fill(PLAIN_VALUE);
+        return row;
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.mybatis.field.interceptor.benchmark;
+
+import com.github.mybatis.field.interceptor.FieldAccessInterceptor;
+import com.github.mybatis.field.interceptor.benchmark.entity.BenchmarkRow;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMap;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个对象的拦截开销，不访问数据库
+ * 直接调用拦截器处理一行数据，分数除以fieldCount即为每个字段的开销（包含每次重置字段值的少量开销）
+ * Created on 2026-10-17
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FieldAccessBenchmark {
+
+    private static final String PLAIN_VALUE = "13800138000-benchmark";
+
+    @Param({"1", "4", "16"})
+    private int fieldCount;
+
+    @Param({"NOOP", "AES", "MASK"})
+    private BenchmarkHandler.Mode handlerMode;
+
+    private FieldAccessInterceptor interceptor;
+    private BenchmarkRow row;
+    private String storedValue;
+    private Invocation resultInvocation;
+    private Invocation paramInvocation;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkHandler handler = new BenchmarkHandler(handlerMode);
+        interceptor = BenchmarkDatabase.newInterceptor(handler);
+        row = BenchmarkRow.create(fieldCount);
+        storedValue = handler.toStoredValue(PLAIN_VALUE);
+
+        //不是DefaultResultSetHandler时拦截器不做拦截计划判断，直接处理返回值
+        List<Object> resultList = Collections.singletonList(row);
+        ResultSetHandler resultSetHandler = (ResultSetHandler) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{ResultSetHandler.class}, (proxy, method, args) -> resultList);
+        resultInvocation = new Invocation(resultSetHandler,
+                ResultSetHandler.class.getMethod("handleResultSets", Statement.class), new Object[]{null});
+
+        Executor executor = (Executor) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{Executor.class}, (proxy, method, args) -> 1);
+        Configuration configuration = new Configuration();
+        ParameterMap parameterMap = new ParameterMap.Builder(configuration, "benchmark.insert-Inline", row.getClass(),
+                Collections.emptyList()).build();
+        MappedStatement ms = new MappedStatement.Builder(configuration, "benchmark.insert",
+                new StaticSqlSource(configuration, "insert"), SqlCommandType.INSERT).parameterMap(parameterMap).build();
+        paramInvocation = new Invocation(executor,
+                Executor.class.getMethod("update", MappedStatement.class, Object.class), new Object[]{ms, row});
+    }
+
+    /**
+     * 读取路径，每次先把字段重置为库里存储的值再拦截
+     */
+    @Benchmark
+    public Object modifyResult() throws Throwable {
+        row.fill(storedValue);
+        return interceptor.intercept(resultInvocation);
+    }
+
+    /**
+     * 写入路径，每次先把字段重置为明文再拦截
+     */
+    @Benchmark
+    public Object modifyParam() throws Throwable {
+        row.fill(PLAIN_VALUE);
+        return interceptor.intercept(paramInvocation);
+    }
+}
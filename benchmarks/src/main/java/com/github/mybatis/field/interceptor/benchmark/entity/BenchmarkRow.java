@@ -0,0 +1,39 @@
+package com.github.mybatis.field.interceptor.benchmark.entity;
+
+/**
+ * 基准测试使用的行对象，子类分别有1、4、16个被@FieldAccess标记的字段
+ * Created on 2026-10-17
+ */
+public abstract class BenchmarkRow {
+
+    private Long id;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * 把所有被注解的字段都设置为value
+     */
+    public abstract void fill(String value);
+
+    /**
+     * 根据字段个数创建对应的行对象
+     */
+    public static BenchmarkRow create(int fieldCount) {
+        switch (fieldCount) {
+            case 1:
+                return new Row1();
+            case 4:
+                return new Row4();
+            case 16:
+                return new Row16();
+            default:
+                throw new IllegalArgumentException("unsupported field count " + fieldCount);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.mybatis.field.interceptor.benchmark.entity;
+
+import com.github.mybatis.field.interceptor.annotation.EnableFieldAccessInterceptor;
+import com.github.mybatis.field.interceptor.annotation.FieldAccess;
+import com.github.mybatis.field.interceptor.benchmark.BenchmarkHandler;
+
+import java.util.Objects;
+
+/**
+ * 有1个被注解字段的行对象，equals/hashCode比较全部字段，开销与lombok @Data生成的方法相当
+ * Created on 2026-10-17
+ */
+@EnableFieldAccessInterceptor
+public class Row1 extends BenchmarkRow {
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c1;
+
+    @Override
+    public void fill(String value) {
+        this.c1 = value;
+    }
+
+    public String getC1() {
+        return c1;
+    }
+
+    public void setC1(String c1) {
+        this.c1 = c1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Row1 row = (Row1) o;
+        return Objects.equals(getId(), row.getId())
+                && Objects.equals(c1, row.c1);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getId(), c1);
+    }
+}
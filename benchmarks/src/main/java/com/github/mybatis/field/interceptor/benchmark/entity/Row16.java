@@ -0,0 +1,244 @@
+package com.github.mybatis.field.interceptor.benchmark.entity;
+
+import com.github.mybatis.field.interceptor.annotation.EnableFieldAccessInterceptor;
+import com.github.mybatis.field.interceptor.annotation.FieldAccess;
+import com.github.mybatis.field.interceptor.benchmark.BenchmarkHandler;
+
+import java.util.Objects;
+
+/**
+ * 有16个被注解字段的行对象，equals/hashCode比较全部字段，开销与lombok @Data生成的方法相当
+ * Created on 2026-10-17
+ */
+@EnableFieldAccessInterceptor
+public class Row16 extends BenchmarkRow {
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c1;
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c2;
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c3;
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c4;
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c5;
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c6;
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c7;
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c8;
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c9;
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c10;
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c11;
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c12;
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c13;
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c14;
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c15;
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c16;
+
+    @Override
+    public void fill(String value) {
+        this.c1 = value;
+        this.c2 = value;
+        this.c3 = value;
+        this.c4 = value;
+        this.c5 = value;
+        this.c6 = value;
+        this.c7 = value;
+        this.c8 = value;
+        this.c9 = value;
+        this.c10 = value;
+        this.c11 = value;
+        this.c12 = value;
+        this.c13 = value;
+        this.c14 = value;
+        this.c15 = value;
+        this.c16 = value;
+    }
+
+    public String getC1() {
+        return c1;
+    }
+
+    public void setC1(String c1) {
+        this.c1 = c1;
+    }
+
+    public String getC2() {
+        return c2;
+    }
+
+    public void setC2(String c2) {
+        this.c2 = c2;
+    }
+
+    public String getC3() {
+        return c3;
+    }
+
+    public void setC3(String c3) {
+        this.c3 = c3;
+    }
+
+    public String getC4() {
+        return c4;
+    }
+
+    public void setC4(String c4) {
+        this.c4 = c4;
+    }
+
+    public String getC5() {
+        return c5;
+    }
+
+    public void setC5(String c5) {
+        this.c5 = c5;
+    }
+
+    public String getC6() {
+        return c6;
+    }
+
+    public void setC6(String c6) {
+        this.c6 = c6;
+    }
+
+    public String getC7() {
+        return c7;
+    }
+
+    public void setC7(String c7) {
+        this.c7 = c7;
+    }
+
+    public String getC8() {
+        return c8;
+    }
+
+    public void setC8(String c8) {
+        this.c8 = c8;
+    }
+
+    public String getC9() {
+        return c9;
+    }
+
+    public void setC9(String c9) {
+        this.c9 = c9;
+    }
+
+    public String getC10() {
+        return c10;
+    }
+
+    public void setC10(String c10) {
+        this.c10 = c10;
+    }
+
+    public String getC11() {
+        return c11;
+    }
+
+    public void setC11(String c11) {
+        this.c11 = c11;
+    }
+
+    public String getC12() {
+        return c12;
+    }
+
+    public void setC12(String c12) {
+        this.c12 = c12;
+    }
+
+    public String getC13() {
+        return c13;
+    }
+
+    public void setC13(String c13) {
+        this.c13 = c13;
+    }
+
+    public String getC14() {
+        return c14;
+    }
+
+    public void setC14(String c14) {
+        this.c14 = c14;
+    }
+
+    public String getC15() {
+        return c15;
+    }
+
+    public void setC15(String c15) {
+        this.c15 = c15;
+    }
+
+    public String getC16() {
+        return c16;
+    }
+
+    public void setC16(String c16) {
+        this.c16 = c16;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Row16 row = (Row16) o;
+        return Objects.equals(getId(), row.getId())
+                && Objects.equals(c1, row.c1)
+                && Objects.equals(c2, row.c2)
+                && Objects.equals(c3, row.c3)
+                && Objects.equals(c4, row.c4)
+                && Objects.equals(c5, row.c5)
+                && Objects.equals(c6, row.c6)
+                && Objects.equals(c7, row.c7)
+                && Objects.equals(c8, row.c8)
+                && Objects.equals(c9, row.c9)
+                && Objects.equals(c10, row.c10)
+                && Objects.equals(c11, row.c11)
+                && Objects.equals(c12, row.c12)
+                && Objects.equals(c13, row.c13)
+                && Objects.equals(c14, row.c14)
+                && Objects.equals(c15, row.c15)
+                && Objects.equals(c16, row.c16);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getId(), c1, c2, c3, c4, c5, c6, c7, c8, c9, c10, c11, c12, c13, c14, c15, c16);
+    }
+}
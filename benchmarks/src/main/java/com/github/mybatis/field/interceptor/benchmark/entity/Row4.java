@@ -0,0 +1,88 @@
+package com.github.mybatis.field.interceptor.benchmark.entity;
+
+import com.github.mybatis.field.interceptor.annotation.EnableFieldAccessInterceptor;
+import com.github.mybatis.field.interceptor.annotation.FieldAccess;
+import com.github.mybatis.field.interceptor.benchmark.BenchmarkHandler;
+
+import java.util.Objects;
+
+/**
+ * 有4个被注解字段的行对象，equals/hashCode比较全部字段，开销与lombok @Data生成的方法相当
+ * Created on 2026-10-17
+ */
+@EnableFieldAccessInterceptor
+public class Row4 extends BenchmarkRow {
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c1;
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c2;
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c3;
+
+    @FieldAccess(handler = BenchmarkHandler.class)
+    private String c4;
+
+    @Override
+    public void fill(String value) {
+        this.c1 = value;
+        this.c2 = value;
+        this.c3 = value;
+        this.c4 = value;
+    }
+
+    public String getC1() {
+        return c1;
+    }
+
+    public void setC1(String c1) {
+        this.c1 = c1;
+    }
+
+    public String getC2() {
+        return c2;
+    }
+
+    public void setC2(String c2) {
+        this.c2 = c2;
+    }
+
+    public String getC3() {
+        return c3;
+    }
+
+    public void setC3(String c3) {
+        this.c3 = c3;
+    }
+
+    public String getC4() {
+        return c4;
+    }
+
+    public void setC4(String c4) {
+        this.c4 = c4;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Row4 row = (Row4) o;
+        return Objects.equals(getId(), row.getId())
+                && Objects.equals(c1, row.c1)
+                && Objects.equals(c2, row.c2)
+                && Objects.equals(c3, row.c3)
+                && Objects.equals(c4, row.c4);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getId(), c1, c2, c3, c4);
+    }
+}
@@ -1,14 +1,32 @@
 package com.github.mybatis.field.interceptor;
 
 
+import com.github.mybatis.field.interceptor.FieldAccessors.DependencyInvoker;
+import com.github.mybatis.field.interceptor.annotation.NonConcurrentHandler;
+import com.github.mybatis.field.interceptor.handler.FieldAccessValue;
+import com.github.mybatis.field.interceptor.handler.IAsyncFieldAccessHandler;
+import com.github.mybatis.field.interceptor.handler.IBatchFieldAccessHandler;
+import com.github.mybatis.field.interceptor.handler.IContextFieldAccessHandler;
 import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+import com.github.mybatis.field.interceptor.handler.IIntFieldAccessHandler;
+import com.github.mybatis.field.interceptor.handler.ILongFieldAccessHandler;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 /**
- * 字段元信息Value Object
+ * 字段元信息Value Object，创建后不再修改，预编译的读写方法和缓存名称都在构造时计算
+ * 替换handler或handlerParams时通过copy创建新对象，再整体发布新的FieldAccessRegistry
  * Created on 2021-12-14
  */
 public class AccessFieldMetaVO {
@@ -16,97 +34,305 @@ public class AccessFieldMetaVO {
     /**
      * 字段
      */
-    private Field field;
+    private final Field field;
     /**
      * 字段上的读方法 getXXX()/isXXX()
      */
-    private Method readMethod;
+    private final Method readMethod;
     /**
      * 字段上的写方法 setXXX()
      */
-    private Method writeMethod;
+    private final Method writeMethod;
     /**
      * 修改入参之前的判断方法，可以为null
      */
-    private Method paramDependencyMethod;
+    private final Method paramDependencyMethod;
     /**
      * 修改返回值之前的判断方法，可以为null
      */
-    private Method resultDependencyMethod;
+    private final Method resultDependencyMethod;
     /**
      * 注解上参数对应的handler对象
      */
-    private IFieldAccessHandler handler;
+    private final IFieldAccessHandler handler;
     /**
      * 注解上参数对应的handler对象所需的参数，可以为null
      */
-    private List<String> handlerParams;
+    private final List<String> handlerParams;
+    /**
+     * 是否缓存handler的转换结果
+     */
+    private final boolean cacheable;
+    /**
+     * handler转换结果缓存的名称，由字段的声明类、字段名、handler类名和handlerParams组成，每个字段单独缓存
+     */
+    private final String resultCacheName;
+    private final String paramCacheName;
+    /**
+     * 以下为上面几个方法预编译后的调用对象，拦截时不再走反射
+     */
+    private final Function<Object, Object> getter;
+    private final BiConsumer<Object, Object> setter;
+    private final DependencyInvoker paramDependency;
+    private final DependencyInvoker resultDependency;
+    /**
+     * handler是否可以被多个线程同时调用，没有被@NonConcurrentHandler标记时为true
+     */
+    private final boolean concurrentHandler;
+    /**
+     * handler实现了IContextFieldAccessHandler时为handler本身和prepare返回的上下文对象，否则为null
+     */
+    private final IContextFieldAccessHandler<Object> contextHandler;
+    private final Object handlerContext;
+    /**
+     * 字段类型为long/int且handler实现了ILongFieldAccessHandler/IIntFieldAccessHandler时为对应的handler和原始类型读写方法，
+     * 否则为null；handler同时实现了IContextFieldAccessHandler、IBatchFieldAccessHandler或IAsyncFieldAccessHandler时
+     * 按这些接口处理，也为null
+     */
+    private final ILongFieldAccessHandler longHandler;
+    private final ToLongFunction<Object> longGetter;
+    private final ObjLongConsumer<Object> longSetter;
+    private final IIntFieldAccessHandler intHandler;
+    private final ToIntFunction<Object> intGetter;
+    private final ObjIntConsumer<Object> intSetter;
 
     AccessFieldMetaVO(final Field field, final Method readMethod, final Method writeMethod,
                       final Method paramDependencyMethod, final Method resultDependencyMethod, final IFieldAccessHandler handler,
-                      final List<String> handlerParams) {
+                      final List<String> handlerParams, final boolean cacheable) {
         this.field = field;
         this.readMethod = readMethod;
         this.writeMethod = writeMethod;
         this.paramDependencyMethod = paramDependencyMethod;
         this.resultDependencyMethod = resultDependencyMethod;
         this.handler = handler;
-        this.handlerParams = handlerParams;
+        this.handlerParams = Collections.unmodifiableList(new ArrayList<>(handlerParams));
+        this.cacheable = cacheable;
+
+        this.getter = FieldAccessors.getter(readMethod);
+        this.setter = FieldAccessors.setter(writeMethod);
+        this.paramDependency = FieldAccessors.dependency(paramDependencyMethod);
+        this.resultDependency = FieldAccessors.dependency(resultDependencyMethod);
+        this.concurrentHandler = !handler.getClass().isAnnotationPresent(NonConcurrentHandler.class);
+        String cacheName = field.getDeclaringClass().getName() + "." + field.getName() + ":"
+                + handler.getClass().getName() + this.handlerParams;
+        this.resultCacheName = cacheName + "#result";
+        this.paramCacheName = cacheName + "#param";
+        this.contextHandler = handler instanceof IContextFieldAccessHandler ? castContextHandler(handler) : null;
+        this.handlerContext = contextHandler != null ? prepareHandlerContext(contextHandler, this.handlerParams) : null;
+
+        //字段类型为long/int且handler实现了对应的原始类型接口时按原始类型读写，上下文、批量和异步接口优先
+        Class<?> type = readMethod.getReturnType();
+        boolean primitive = contextHandler == null && !(handler instanceof IBatchFieldAccessHandler)
+                && !(handler instanceof IAsyncFieldAccessHandler) && type == writeMethod.getParameterTypes()[0];
+        if (primitive && type == long.class && handler instanceof ILongFieldAccessHandler) {
+            this.longGetter = FieldAccessors.longGetter(readMethod);
+            this.longSetter = FieldAccessors.longSetter(writeMethod);
+            this.longHandler = (ILongFieldAccessHandler) handler;
+        } else {
+            this.longGetter = null;
+            this.longSetter = null;
+            this.longHandler = null;
+        }
+        if (primitive && type == int.class && handler instanceof IIntFieldAccessHandler) {
+            this.intGetter = FieldAccessors.intGetter(readMethod);
+            this.intSetter = FieldAccessors.intSetter(writeMethod);
+            this.intHandler = (IIntFieldAccessHandler) handler;
+        } else {
+            this.intGetter = null;
+            this.intSetter = null;
+            this.intHandler = null;
+        }
     }
 
-    public Field getField() {
-        return field;
+    /**
+     * 复制一份使用新handler和handlerParams的元信息，原对象可能正在被其它线程使用，替换handler时不能直接修改
+     */
+    AccessFieldMetaVO copy(IFieldAccessHandler handler, List<String> handlerParams) {
+        return new AccessFieldMetaVO(field, readMethod, writeMethod, paramDependencyMethod, resultDependencyMethod,
+                handler, handlerParams, cacheable);
     }
 
-    public void setField(Field field) {
-        this.field = field;
+    /**
+     * 读取对象上该字段的值
+     */
+    Object readValue(Object obj) {
+        return getter.apply(obj);
     }
 
-    public Method getReadMethod() {
-        return readMethod;
+    /**
+     * 把新值写回对象上的该字段
+     */
+    void writeValue(Object obj, Object value) {
+        setter.accept(obj, value);
     }
 
-    public void setReadMethod(Method readMethod) {
-        this.readMethod = readMethod;
+    /**
+     * 新值和旧值是同一个对象时不调用setter
+     */
+    void writeChangedValue(Object obj, Object oldValue, Object newValue) {
+        if (newValue != oldValue) {
+            setter.accept(obj, newValue);
+        }
     }
 
-    public Method getWriteMethod() {
-        return writeMethod;
+    boolean allowModifyResult(String fieldName, Object fieldValue, Object resultObj) throws Exception {
+        return contextHandler != null ? contextHandler.allowModifyResult(fieldName, fieldValue, resultObj, handlerContext)
+                : handler.allowModifyResult(fieldName, fieldValue, resultObj, handlerParams);
     }
 
-    public void setWriteMethod(Method writeMethod) {
-        this.writeMethod = writeMethod;
+    Object modifyResult(String fieldName, Object fieldValue, Object resultObj) throws Exception {
+        return contextHandler != null ? contextHandler.modifyResult(fieldName, fieldValue, resultObj, handlerContext)
+                : handler.modifyResult(fieldName, fieldValue, resultObj, handlerParams);
     }
 
-    public Method getParamDependencyMethod() {
-        return paramDependencyMethod;
+    boolean allowModifyParam(String fieldName, Object fieldValue, Object paramObj) throws Exception {
+        return contextHandler != null ? contextHandler.allowModifyParam(fieldName, fieldValue, paramObj, handlerContext)
+                : handler.allowModifyParam(fieldName, fieldValue, paramObj, handlerParams);
     }
 
-    public void setParamDependencyMethod(Method paramDependencyMethod) {
-        this.paramDependencyMethod = paramDependencyMethod;
+    Object modifyParam(String fieldName, Object fieldValue, Object paramObj) throws Exception {
+        return contextHandler != null ? contextHandler.modifyParam(fieldName, fieldValue, paramObj, handlerContext)
+                : handler.modifyParam(fieldName, fieldValue, paramObj, handlerParams);
+    }
+
+    /**
+     * 是否按原始类型读写字段和调用handler，开启缓存时缓存的key是对象，仍然按Object处理
+     */
+    boolean isPrimitiveAccess() {
+        return (longHandler != null || intHandler != null) && !cacheable;
+    }
+
+    /**
+     * 以下方法只在isPrimitiveAccess()为true时调用，int字段也按long传递，写回时再转换为int
+     */
+    long readPrimitive(Object obj) {
+        return longHandler != null ? longGetter.applyAsLong(obj) : intGetter.applyAsInt(obj);
+    }
+
+    void writePrimitive(Object obj, long value) {
+        if (longHandler != null) {
+            longSetter.accept(obj, value);
+        } else {
+            intSetter.accept(obj, (int) value);
+        }
+    }
+
+    Object boxPrimitive(long value) {
+        return longHandler != null ? (Object) Long.valueOf(value) : (Object) Integer.valueOf((int) value);
+    }
+
+    boolean allowModifyPrimitiveResult(String fieldName, long fieldValue, Object resultObj) throws Exception {
+        return longHandler != null ? longHandler.allowModifyResult(fieldName, fieldValue, resultObj, handlerParams)
+                : intHandler.allowModifyResult(fieldName, (int) fieldValue, resultObj, handlerParams);
+    }
+
+    long modifyPrimitiveResult(String fieldName, long fieldValue, Object resultObj) throws Exception {
+        return longHandler != null ? longHandler.modifyResult(fieldName, fieldValue, resultObj, handlerParams)
+                : intHandler.modifyResult(fieldName, (int) fieldValue, resultObj, handlerParams);
+    }
+
+    boolean allowModifyPrimitiveParam(String fieldName, long fieldValue, Object paramObj) throws Exception {
+        return longHandler != null ? longHandler.allowModifyParam(fieldName, fieldValue, paramObj, handlerParams)
+                : intHandler.allowModifyParam(fieldName, (int) fieldValue, paramObj, handlerParams);
+    }
+
+    long modifyPrimitiveParam(String fieldName, long fieldValue, Object paramObj) throws Exception {
+        return longHandler != null ? longHandler.modifyParam(fieldName, fieldValue, paramObj, handlerParams)
+                : intHandler.modifyParam(fieldName, (int) fieldValue, paramObj, handlerParams);
+    }
+
+    /**
+     * 批量处理时交给handler的待修改字段
+     */
+    FieldAccessValue newFieldAccessValue(String fieldName, Object fieldValue, Object targetObj) {
+        return new FieldAccessValue(fieldName, fieldValue, targetObj, handlerParams, handlerContext);
+    }
+
+    /**
+     * 统计时使用的实体类：被处理对象运行时的类，没有对象或对象是参数Map时为字段所在的类
+     */
+    Class<?> getEntityClz(Object targetObj) {
+        return targetObj == null || targetObj instanceof Map ? field.getDeclaringClass() : targetObj.getClass();
+    }
+
+    boolean hasParamDependency() {
+        return paramDependency != null;
+    }
+
+    boolean hasResultDependency() {
+        return resultDependency != null;
+    }
+
+    /**
+     * 执行修改入参之前的判断方法，没有判断方法时返回true
+     */
+    boolean checkParamDependency(Object obj, String fieldName, Object fieldValue) {
+        return paramDependency == null || paramDependency.test(obj, obj, fieldName, fieldValue);
+    }
+
+    /**
+     * 执行修改返回值之前的判断方法，没有判断方法时返回true
+     */
+    boolean checkResultDependency(Object obj, String fieldName, Object fieldValue) {
+        return resultDependency == null || resultDependency.test(obj, obj, fieldName, fieldValue);
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public Method getReadMethod() {
+        return readMethod;
+    }
+
+    public Method getWriteMethod() {
+        return writeMethod;
+    }
+
+    public Method getParamDependencyMethod() {
+        return paramDependencyMethod;
     }
 
     public Method getResultDependencyMethod() {
         return resultDependencyMethod;
     }
 
-    public void setResultDependencyMethod(Method resultDependencyMethod) {
-        this.resultDependencyMethod = resultDependencyMethod;
+    public boolean isCacheable() {
+        return cacheable;
+    }
+
+    String getResultCacheName() {
+        return resultCacheName;
+    }
+
+    String getParamCacheName() {
+        return paramCacheName;
     }
 
     public IFieldAccessHandler getHandler() {
         return handler;
     }
 
-    public void setHandler(IFieldAccessHandler handler) {
-        this.handler = handler;
+    public boolean isConcurrentHandler() {
+        return concurrentHandler;
     }
 
     public List<String> getHandlerParams() {
         return handlerParams;
     }
 
-    public void setHandlerParams(List<String> handlerParams) {
-        this.handlerParams = handlerParams;
+    @SuppressWarnings("unchecked")
+    private static IContextFieldAccessHandler<Object> castContextHandler(IFieldAccessHandler handler) {
+        return (IContextFieldAccessHandler<Object>) handler;
+    }
+
+    private static Object prepareHandlerContext(IContextFieldAccessHandler<Object> contextHandler,
+                                                List<String> handlerParams) {
+        try {
+            return contextHandler.prepare(handlerParams);
+        } catch (Exception e) {
+            throw new IllegalStateException("prepare handler " + contextHandler.getClass().getName() + " with "
+                    + handlerParams + " failed", e);
+        }
     }
 }
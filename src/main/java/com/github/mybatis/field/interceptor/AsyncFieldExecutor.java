@@ -0,0 +1,264 @@
+package com.github.mybatis.field.interceptor;
+
+import com.github.mybatis.field.interceptor.handler.FieldAccessValue;
+import com.github.mybatis.field.interceptor.handler.IAsyncFieldAccessHandler;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 同时发起一次拦截中所有IAsyncFieldAccessHandler的调用，全部完成后按顺序返回新值
+ * 每个handler同时进行中的调用数用Semaphore限制，达到上限时当前线程等待；任何一个调用失败或者超过期限时cancel其它调用并抛出异常
+ * 调用在虚拟线程（JDK 21及以上）或固定大小的daemon线程池上执行，handler可以直接阻塞等待I/O
+ * Created on 2026-10-17
+ */
+final class AsyncFieldExecutor {
+
+    //  每个handler同时进行中的调用数上限
+    private volatile int maxInFlight = 64;
+
+    //  一次拦截等待所有调用完成的期限，小于等于0表示不限制
+    private volatile long timeoutNanos;
+
+    //  调用handler的线程池，为null时第一次使用时创建默认线程池
+    private volatile Executor executor;
+
+    //  Map<handler,同时进行中的调用数>，修改上限时调整许可数，进行中的调用仍然计入新的上限
+    private final Map<IAsyncFieldAccessHandler, InFlightLimit> inFlightMap = new ConcurrentHashMap<>();
+
+    /**
+     * 并发调用handler，全部完成后返回新值，顺序与fieldValues一致
+     *
+     * @param result true为modifyResultAsync，false为modifyParamAsync
+     */
+    Object[] execute(List<IAsyncFieldAccessHandler> handlers, List<FieldAccessValue> fieldValues, boolean result)
+            throws Exception {
+        int size = fieldValues.size();
+        long timeoutNanos = this.timeoutNanos;
+        long deadline = timeoutNanos > 0 ? System.nanoTime() + timeoutNanos : 0L;
+        Executor executor = getExecutor();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[size];
+        //  第一个失败的调用，用于提前结束等待
+        CompletableFuture<Object> failed = new CompletableFuture<>();
+        try {
+            int dispatched = 0;
+            for (; dispatched < size && !failed.isDone(); dispatched++) {
+                IAsyncFieldAccessHandler handler = handlers.get(dispatched);
+                InFlightLimit inFlight = inFlightMap.computeIfAbsent(handler, h -> new InFlightLimit(maxInFlight));
+                inFlight.resize(maxInFlight);
+                if (deadline == 0L) {
+                    inFlight.acquire();
+                } else if (!inFlight.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    throw timeout(size);
+                }
+                CompletableFuture<Object> future = new CompletableFuture<>();
+                future.whenComplete((value, e) -> {
+                    inFlight.release();
+                    if (e != null) {
+                        failed.completeExceptionally(e);
+                    }
+                });
+                futures[dispatched] = future;
+                FieldAccessValue fieldValue = fieldValues.get(dispatched);
+                try {
+                    executor.execute(() -> start(handler, fieldValue, result, future));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+            if (dispatched < size) {
+                //  已经有调用失败，剩余的调用没有发起，直接抛出失败调用的异常
+                failed.get();
+            }
+            CompletableFuture<Object> all = CompletableFuture.allOf(futures).thenApply(v -> null);
+            CompletableFuture<Object> first = CompletableFuture.anyOf(all, failed);
+            if (deadline == 0L) {
+                first.get();
+            } else {
+                try {
+                    first.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    throw timeout(size);
+                }
+            }
+            Object[] newValues = new Object[size];
+            for (int i = 0; i < size; i++) {
+                newValues[i] = futures[i].join();
+            }
+            return newValues;
+        } catch (ExecutionException | CompletionException e) {
+            cancel(futures);
+            throw unwrap(e);
+        } catch (Exception e) {
+            cancel(futures);
+            throw e;
+        }
+    }
+
+    /**
+     * 在线程池中调用handler，handler返回的Future完成后再完成future；future被cancel时也cancel handler返回的Future
+     */
+    private static void start(IAsyncFieldAccessHandler handler, FieldAccessValue fieldValue, boolean result,
+                              CompletableFuture<Object> future) {
+        if (future.isDone()) {
+            return;
+        }
+        CompletableFuture<Object> handlerFuture;
+        try {
+            handlerFuture = result
+                    ? handler.modifyResultAsync(fieldValue.getFieldName(), fieldValue.getFieldValue(),
+                    fieldValue.getTargetObj(), fieldValue.getHandlerParams())
+                    : handler.modifyParamAsync(fieldValue.getFieldName(), fieldValue.getFieldValue(),
+                    fieldValue.getTargetObj(), fieldValue.getHandlerParams());
+            if (handlerFuture == null) {
+                throw new IllegalStateException(handler.getClass().getName() + " returned null future for field "
+                        + fieldValue.getFieldName());
+            }
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            return;
+        }
+        handlerFuture.whenComplete((value, e) -> {
+            if (e != null) {
+                future.completeExceptionally(e instanceof CompletionException && e.getCause() != null
+                        ? e.getCause() : e);
+            } else {
+                future.complete(value);
+            }
+        });
+        future.whenComplete((value, e) -> {
+            if (e instanceof CancellationException) {
+                handlerFuture.cancel(true);
+            }
+        });
+    }
+
+    private static void cancel(CompletableFuture<?>[] futures) {
+        for (CompletableFuture<?> future : futures) {
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private TimeoutException timeout(int size) {
+        return new TimeoutException("async field handlers did not complete within "
+                + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + "ms for " + size + " fields");
+    }
+
+    private static Exception unwrap(Exception e) {
+        Throwable cause = e.getCause();
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return e;
+    }
+
+    private Executor getExecutor() {
+        Executor executor = this.executor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = this.executor;
+                if (executor == null) {
+                    executor = createDefaultExecutor();
+                    this.executor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * JDK 21及以上每个调用一个虚拟线程，否则使用固定大小的daemon线程池，同时进行的调用数由inFlight限制
+     */
+    private static Executor createDefaultExecutor() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // JDK 21以下没有虚拟线程，JDK 19/20没有开启预览特性时调用会失败
+        }
+        int poolSize = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new DaemonThreadFactory());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+        for (InFlightLimit inFlight : inFlightMap.values()) {
+            inFlight.resize(maxInFlight);
+        }
+    }
+
+    void setTimeout(long duration, TimeUnit unit) {
+        this.timeoutNanos = unit.toNanos(duration);
+    }
+
+    void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 上限可以调整的Semaphore，调小时减少许可数，进行中的调用归还许可后才能发起新的调用，许可数可能暂时为负数
+     */
+    private static final class InFlightLimit extends Semaphore {
+
+        private static final long serialVersionUID = 1L;
+
+        private volatile int limit;
+
+        private InFlightLimit(int limit) {
+            super(limit);
+            this.limit = limit;
+        }
+
+        private void resize(int newLimit) {
+            if (newLimit == limit) {
+                return;
+            }
+            synchronized (this) {
+                int delta = newLimit - limit;
+                if (delta > 0) {
+                    release(delta);
+                } else if (delta < 0) {
+                    reducePermits(-delta);
+                }
+                limit = newLimit;
+            }
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "field-access-async-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.mybatis.field.interceptor;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 一个类上被@FieldAccess注解字段的处理计划，字段名和元信息按相同下标保存在数组中
+ * 每行数据按下标遍历，不创建迭代器，也不再查找HashMap的节点
+ * Created on 2026-10-17
+ */
+final class ClassFieldPlan {
+
+    /**
+     * 不需要处理的类
+     */
+    static final ClassFieldPlan EMPTY = new ClassFieldPlan(Collections.emptyMap());
+
+    private final String[] fieldNames;
+    private final AccessFieldMetaVO[] fieldMetas;
+    //  Map<字段名,字段上的元信息>，只在初始化和创建懒加载代理类时使用
+    private final Map<String, AccessFieldMetaVO> fieldMetaMap;
+
+    ClassFieldPlan(Map<String, AccessFieldMetaVO> fieldMetaMap) {
+        this.fieldMetaMap = Collections.unmodifiableMap(fieldMetaMap);
+        this.fieldNames = new String[fieldMetaMap.size()];
+        this.fieldMetas = new AccessFieldMetaVO[fieldMetaMap.size()];
+        int i = 0;
+        for (Map.Entry<String, AccessFieldMetaVO> entry : fieldMetaMap.entrySet()) {
+            fieldNames[i] = entry.getKey();
+            fieldMetas[i] = entry.getValue();
+            i++;
+        }
+    }
+
+    /**
+     * 只保留fieldNames中的字段，全部保留时返回自身
+     */
+    ClassFieldPlan select(Set<String> fieldNames) {
+        Map<String, AccessFieldMetaVO> selected = new LinkedHashMap<>();
+        for (int i = 0; i < this.fieldNames.length; i++) {
+            if (fieldNames.contains(this.fieldNames[i])) {
+                selected.put(this.fieldNames[i], fieldMetas[i]);
+            }
+        }
+        return selected.size() == this.fieldNames.length ? this : new ClassFieldPlan(selected);
+    }
+
+    boolean isEmpty() {
+        return fieldMetas.length == 0;
+    }
+
+    int size() {
+        return fieldMetas.length;
+    }
+
+    String getFieldName(int index) {
+        return fieldNames[index];
+    }
+
+    AccessFieldMetaVO getFieldMeta(int index) {
+        return fieldMetas[index];
+    }
+
+    Map<String, AccessFieldMetaVO> getFieldMetaMap() {
+        return fieldMetaMap;
+    }
+}
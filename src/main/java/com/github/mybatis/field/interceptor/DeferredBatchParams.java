@@ -0,0 +1,85 @@
+package com.github.mybatis.field.interceptor;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BatchExecutor中还没有绑定到JDBC的参数，每个Executor一个
+ * BatchExecutor执行update时会立即调用StatementHandler的parameterize和batch，开启延迟处理后这两步先记录下来，
+ * 等flushStatements之前一次性修改完所有参数对象，再按原来的顺序重新执行
+ * Created on 2026-10-17
+ */
+final class DeferredBatchParams {
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    void add(MappedStatement ms, Object parameter, StatementHandler handler, Statement statement) {
+        entries.add(new Entry(ms, parameter, handler, statement));
+    }
+
+    List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * 按update的顺序把参数绑定到Statement并加入JDBC批处理
+     */
+    void replay() throws SQLException {
+        for (Entry entry : entries) {
+            entry.handler.parameterize(entry.statement);
+            entry.handler.batch(entry.statement);
+        }
+    }
+
+    static final class Entry {
+
+        private final MappedStatement ms;
+        private final Object parameter;
+        private final StatementHandler handler;
+        private final Statement statement;
+
+        private Entry(MappedStatement ms, Object parameter, StatementHandler handler, Statement statement) {
+            this.ms = ms;
+            this.parameter = parameter;
+            this.handler = handler;
+            this.statement = statement;
+        }
+
+        MappedStatement getMs() {
+            return ms;
+        }
+
+        Object getParameter() {
+            return parameter;
+        }
+    }
+
+    /**
+     * 正在执行的需要延迟处理的update，只在Executor#update执行期间存在于当前线程
+     */
+    static final class PendingUpdate {
+
+        private final DeferredBatchParams deferred;
+        private final MappedStatement ms;
+        private final Object parameter;
+
+        PendingUpdate(DeferredBatchParams deferred, MappedStatement ms, Object parameter) {
+            this.deferred = deferred;
+            this.ms = ms;
+            this.parameter = parameter;
+        }
+
+        MappedStatement getMs() {
+            return ms;
+        }
+
+        void defer(StatementHandler handler, Statement statement) {
+            deferred.add(ms, parameter, handler, statement);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.mybatis.field.interceptor;
+
+import org.apache.ibatis.cursor.Cursor;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * 包装MyBatis返回的Cursor，每取出一行就修改这一行的属性，不需要把所有结果放到内存里
+ * Created on 2026-10-17
+ */
+final class FieldAccessCursor<T> implements Cursor<T> {
+
+    private final Cursor<T> delegate;
+    private final FieldAccessInterceptor interceptor;
+    //  MappedStatement的id，取不到时为null
+    private final String statementId;
+
+    FieldAccessCursor(Cursor<T> delegate, FieldAccessInterceptor interceptor, String statementId) {
+        this.delegate = delegate;
+        this.interceptor = interceptor;
+        this.statementId = statementId;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return delegate.isOpen();
+    }
+
+    @Override
+    public boolean isConsumed() {
+        return delegate.isConsumed();
+    }
+
+    @Override
+    public int getCurrentIndex() {
+        return delegate.getCurrentIndex();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        Iterator<T> iterator = delegate.iterator();
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                T row = interceptor.nextMappedRow(iterator, statementId);
+                try {
+                    return (T) interceptor.modifyResultRow(row, statementId);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,161 @@
+package com.github.mybatis.field.interceptor;
+
+import com.github.mybatis.field.interceptor.annotation.EnableFieldAccessInterceptor;
+import org.reflections.Reflections;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 读取FieldAccessProcessor编译期生成的索引，每个模块（classpath中的一个目录或jar）有自己的索引文件
+ * 有索引的模块只使用索引中的类，scanPath下没有索引的模块（没有开启注解处理、其它工具编译的类）仍然用Reflections扫描，
+ * 同一个package分布在多个模块中时分别处理，不会因为其中一个模块有索引就跳过其它模块
+ * Created on 2026-10-18
+ */
+final class FieldAccessIndex {
+
+    //  Map<类,Map<字段名,索引>>，只包括scanPaths下的类
+    private final Map<Class<?>, Map<String, FieldAccessIndexEntry>> indexedFieldMap;
+
+    //  有索引文件的classpath根目录或jar，与ClasspathHelper.forPackage返回的URL格式一致
+    private final Set<String> indexedRoots;
+
+    private FieldAccessIndex(Map<Class<?>, Map<String, FieldAccessIndexEntry>> indexedFieldMap,
+                             Set<String> indexedRoots) {
+        this.indexedFieldMap = indexedFieldMap;
+        this.indexedRoots = indexedRoots;
+    }
+
+    /**
+     * 读取classLoader中所有模块的索引文件
+     */
+    static FieldAccessIndex load(Collection<String> scanPaths, ClassLoader classLoader) {
+        Map<Class<?>, Map<String, FieldAccessIndexEntry>> indexedFieldMap = new HashMap<>();
+        Set<String> indexedRoots = new HashSet<>();
+        try {
+            Enumeration<URL> urls = classLoader.getResources(FieldAccessIndexEntry.INDEX_RESOURCE);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                String location = url.toExternalForm();
+                indexedRoots.add(location.substring(0, location.length() - FieldAccessIndexEntry.INDEX_RESOURCE.length()));
+                for (FieldAccessIndexEntry entry : readEntries(url)) {
+                    if (scanPaths.stream().noneMatch(scanPath -> isUnderPath(entry.getClassName(), scanPath))) {
+                        continue;
+                    }
+                    Class<?> clz;
+                    try {
+                        clz = Class.forName(entry.getClassName(), false, classLoader);
+                    } catch (ClassNotFoundException e) {
+                        throw new IllegalStateException("FieldAccessInterceptor index " + url + " refers to missing class "
+                                + entry.getClassName(), e);
+                    }
+                    indexedFieldMap.computeIfAbsent(clz, c -> new HashMap<>()).put(entry.getFieldName(), entry);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("can not read " + FieldAccessIndexEntry.INDEX_RESOURCE, e);
+        }
+        return new FieldAccessIndex(indexedFieldMap, indexedRoots);
+    }
+
+    private static List<FieldAccessIndexEntry> readEntries(URL url) throws IOException {
+        List<FieldAccessIndexEntry> entries = new ArrayList<>();
+        URLConnection connection = url.openConnection();
+        //jar文件被替换后不读取缓存中的旧内容
+        connection.setUseCaches(false);
+        try (InputStream in = connection.getInputStream();
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                FieldAccessIndexEntry entry = FieldAccessIndexEntry.parse(line);
+                if (entry == null) {
+                    throw new IllegalStateException("invalid line in FieldAccessInterceptor index " + url + ": " + line);
+                }
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * scanPaths下被@EnableFieldAccessInterceptor标记的类，有索引的模块使用索引中的类，其它模块并行扫描
+     */
+    Set<Class<?>> findAccessClzSet(Collection<String> scanPaths, ClassLoader classLoader) {
+        Set<Class<?>> accessClzSet = new HashSet<>(indexedFieldMap.keySet());
+        List<Set<Class<?>>> scannedClzSets = scanPaths.parallelStream()
+                .map(scanPath -> scanUnindexed(scanPath, classLoader))
+                .collect(Collectors.toList());
+        scannedClzSets.forEach(accessClzSet::addAll);
+        return accessClzSet;
+    }
+
+    /**
+     * 扫描scanPath所在的模块中没有索引的模块
+     */
+    private Set<Class<?>> scanUnindexed(String scanPath, ClassLoader classLoader) {
+        List<URL> unindexedRoots = new ArrayList<>();
+        for (URL root : ClasspathHelper.forPackage(scanPath, classLoader)) {
+            if (!indexedRoots.contains(normalize(root))) {
+                unindexedRoots.add(root);
+            }
+        }
+        if (unindexedRoots.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new Reflections(new ConfigurationBuilder()
+                .setUrls(unindexedRoots)
+                .filterInputsBy(new FilterBuilder().includePackage(scanPath))
+                .setClassLoaders(new ClassLoader[]{classLoader}))
+                .getTypesAnnotatedWith(EnableFieldAccessInterceptor.class);
+    }
+
+    /**
+     * ClasspathHelper对jar中的资源返回jar文件本身的URL，统一为jar:...!/的格式和索引文件所在的根比较
+     */
+    private static String normalize(URL root) {
+        String location = root.toExternalForm();
+        if (location.endsWith(".jar") && !location.startsWith("jar:")) {
+            try {
+                return new URL("jar:" + location + "!/").toExternalForm();
+            } catch (MalformedURLException e) {
+                return location;
+            }
+        }
+        return location;
+    }
+
+    static boolean isUnderPath(String className, String scanPath) {
+        return className.startsWith(scanPath + ".");
+    }
+
+    Map<Class<?>, Map<String, FieldAccessIndexEntry>> getIndexedFieldMap() {
+        return indexedFieldMap;
+    }
+
+    boolean isEmpty() {
+        return indexedRoots.isEmpty();
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.mybatis.field.interceptor;
+
+/**
+ * 编译期索引中的一个被@FieldAccess标记的字段，索引文件中每行一个字段，各项之间用逗号分隔
+ * Created on 2026-10-17
+ */
+public class FieldAccessIndexEntry {
+
+    /**
+     * FieldAccessProcessor在每个模块（classpath中的一个目录或jar）中生成的索引文件
+     */
+    public static final String INDEX_RESOURCE = "META-INF/mybatis-field-interceptor.index";
+
+    /**
+     * 字段所属类的binary name，可以直接用于Class.forName
+     */
+    private final String className;
+    /**
+     * 字段名
+     */
+    private final String fieldName;
+    /**
+     * 字段上的读方法名 getXXX/isXXX
+     */
+    private final String readMethodName;
+    /**
+     * 字段上的写方法名 setXXX
+     */
+    private final String writeMethodName;
+
+    public FieldAccessIndexEntry(String className, String fieldName, String readMethodName, String writeMethodName) {
+        this.className = className;
+        this.fieldName = fieldName;
+        this.readMethodName = readMethodName;
+        this.writeMethodName = writeMethodName;
+    }
+
+    /**
+     * @return 格式不正确时返回null
+     */
+    public static FieldAccessIndexEntry parse(String line) {
+        String[] items = line.split(",");
+        if (items.length != 4) {
+            return null;
+        }
+        return new FieldAccessIndexEntry(items[0].trim(), items[1].trim(), items[2].trim(), items[3].trim());
+    }
+
+    /**
+     * 索引文件中的一行，类名和方法名不会包含逗号
+     */
+    public String toIndexLine() {
+        return className + "," + fieldName + "," + readMethodName + "," + writeMethodName;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public String getReadMethodName() {
+        return readMethodName;
+    }
+
+    public String getWriteMethodName() {
+        return writeMethodName;
+    }
+}
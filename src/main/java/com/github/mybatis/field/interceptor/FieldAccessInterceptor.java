@@ -4,18 +4,45 @@ import com.github.mybatis.field.interceptor.annotation.EnableFieldAccessIntercep
 import com.github.mybatis.field.interceptor.annotation.FieldAccess;
 import com.github.mybatis.field.interceptor.annotation.ModifyParamDependency;
 import com.github.mybatis.field.interceptor.annotation.ModifyResultDependency;
+import com.github.mybatis.field.interceptor.handler.IAsyncFieldAccessHandler;
+import com.github.mybatis.field.interceptor.handler.IBatchFieldAccessHandler;
 import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+import com.github.mybatis.field.interceptor.metrics.FieldAccessPhase;
+import com.github.mybatis.field.interceptor.metrics.IFieldAccessMetrics;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.Lists;
+import com.google.common.primitives.Primitives;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.CachingExecutor;
 import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.statement.BaseStatementHandler;
+import org.apache.ibatis.executor.statement.RoutingStatementHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.plugin.Intercepts;
 import org.apache.ibatis.plugin.Invocation;
 import org.apache.ibatis.plugin.Plugin;
 import org.apache.ibatis.plugin.Signature;
-import org.reflections.Reflections;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,15 +51,29 @@ import java.beans.PropertyDescriptor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 /**
  * 拦截属性读写逻辑
@@ -40,14 +81,116 @@ import java.util.Set;
  */
 @Intercepts({
         @Signature(type = ResultSetHandler.class, method = "handleResultSets", args = {Statement.class}),
-        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+        @Signature(type = ResultSetHandler.class, method = "handleCursorResultSets", args = {Statement.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class,
+                        BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = {MappedStatement.class, Object.class, RowBounds.class}),
+        @Signature(type = Executor.class, method = "flushStatements", args = {}),
+        @Signature(type = Executor.class, method = "commit", args = {boolean.class}),
+        @Signature(type = Executor.class, method = "rollback", args = {boolean.class}),
+        @Signature(type = Executor.class, method = "close", args = {boolean.class}),
+        @Signature(type = StatementHandler.class, method = "parameterize", args = {Statement.class}),
+        @Signature(type = StatementHandler.class, method = "batch", args = {Statement.class}),
+        @Signature(type = ParameterHandler.class, method = "setParameters", args = {PreparedStatement.class})
 })
 public class FieldAccessInterceptor implements Interceptor {
 
     private final Logger log = LoggerFactory.getLogger(this.getClass().getSimpleName());
 
-    //  Map<类名,Map<被@FieldAccess注解的字段名,字段上的元信息>>
-    private final Map<String, Map<String, AccessFieldMetaVO>> accessClzMetaMap = new HashMap<>();
+    //  被注解的类上被@FieldAccess注解字段的元信息，按运行时的类查找，注册信息变化时整体替换
+    private volatile FieldAccessRegistry registry = FieldAccessRegistry.EMPTY;
+
+    //  Map<MappedStatement id,拦截计划>，注册信息变化时整体替换
+    private volatile Map<String, StatementPlan> statementPlanMap = new ConcurrentHashMap<>();
+
+    //  Map<handler类,handler对象>，注册新的类时复用，修改时持有this锁
+    private final Map<Class<? extends IFieldAccessHandler>, IFieldAccessHandler> handlerMap;
+
+    //  Map<handler类,依赖方法>，从所有注册过的类上收集，修改时持有this锁
+    private final Map<Class<? extends IFieldAccessHandler>, Method> modifyParamDependencyMethodMap = new HashMap<>();
+    private final Map<Class<? extends IFieldAccessHandler>, Method> modifyResultDependencyMethodMap = new HashMap<>();
+
+    //  返回值行数达到该阈值时并行处理，小于等于0表示不开启
+    private volatile int parallelThreshold;
+
+    //  并行处理使用的线程池，为null时使用ForkJoinPool.commonPool()
+    private volatile java.util.concurrent.Executor parallelExecutor;
+
+    //  并行处理时每个任务处理的行数
+    private volatile int parallelChunkSize = 1024;
+
+    //  @FieldAccess(cacheable = true)字段的handler转换结果缓存
+    private final FieldValueCache fieldValueCache = new FieldValueCache();
+
+    //  是否开启懒加载模式，返回对象上的字段在第一次调用get方法时才执行handler
+    private volatile boolean lazyResult;
+
+    //  懒加载模式下创建代理对象
+    private final LazyResultProxyFactory lazyResultProxyFactory = new LazyResultProxyFactory(this);
+
+    //  是否已经提示过懒加载模式下没有设置LazyResultObjectFactory
+    private volatile boolean lazyObjectFactoryWarned;
+
+    //  BatchExecutor的参数是否延迟到flushStatements之前统一处理
+    private volatile boolean deferBatchParams;
+
+    //  Map<Executor,还没有绑定到JDBC的参数>，Executor没有close就被丢弃时随GC回收
+    private final Map<Object, DeferredBatchParams> deferredBatchParamsMap =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    //  当前线程正在执行的需要延迟处理的update
+    private static final ThreadLocal<DeferredBatchParams.PendingUpdate> PENDING_UPDATE = new ThreadLocal<>();
+
+    //  是否不修改参数对象，只在绑定JDBC参数时使用新值
+    private volatile boolean nonMutatingParams;
+
+    //  当前线程正在执行的语句中参数字段的新值，只在不修改参数对象模式下存在
+    private static final ThreadLocal<ParamOverlay> CURRENT_PARAM_OVERLAY = new ThreadLocal<>();
+
+    //  TypeHandler模式下当前线程正在映射结果的MappedStatement id，只在开启统计时记录
+    private static final ThreadLocal<String> MAPPING_STATEMENT_ID = new ThreadLocal<>();
+
+    //  是否拦截查询语句的参数
+    private volatile boolean interceptQueryParams;
+
+    //  拦截开销统计，为null时不统计
+    private volatile IFieldAccessMetrics metrics;
+
+    //  并发执行IAsyncFieldAccessHandler
+    private final AsyncFieldExecutor asyncFieldExecutor = new AsyncFieldExecutor();
+
+    //  是否开启TypeHandler模式，返回值在MyBatis映射时转换，入参在绑定JDBC参数时转换
+    private volatile boolean typeHandlerMode;
+
+    //  TypeHandler模式下替换被注解字段的TypeHandler，第一次开启时创建
+    private volatile FieldAccessTypeHandlerInstaller typeHandlerInstaller;
+
+    //  DefaultResultSetHandler上保存MappedStatement的私有字段，找不到时为null
+    private static final Field RESULT_SET_HANDLER_MS_FIELD =
+            findPrivateField(DefaultResultSetHandler.class, "mappedStatement");
+
+    //  RoutingStatementHandler上的delegate和BaseStatementHandler上的mappedStatement，找不到时为null
+    private static final Field ROUTING_STATEMENT_HANDLER_DELEGATE_FIELD =
+            findPrivateField(RoutingStatementHandler.class, "delegate");
+    private static final Field STATEMENT_HANDLER_MS_FIELD =
+            findPrivateField(BaseStatementHandler.class, "mappedStatement");
+
+    //  DefaultParameterHandler上的boundSql和configuration，找不到时为null
+    private static final Field PARAMETER_HANDLER_BOUND_SQL_FIELD =
+            findPrivateField(DefaultParameterHandler.class, "boundSql");
+    private static final Field PARAMETER_HANDLER_CONFIGURATION_FIELD =
+            findPrivateField(DefaultParameterHandler.class, "configuration");
+    private static final Field PARAMETER_HANDLER_MS_FIELD =
+            findPrivateField(DefaultParameterHandler.class, "mappedStatement");
+
+    //  CachingExecutor上的delegate和插件代理Plugin上的target，找不到时为null
+    private static final Field CACHING_EXECUTOR_DELEGATE_FIELD = findPrivateField(CachingExecutor.class, "delegate");
+    private static final Field PLUGIN_TARGET_FIELD = findPrivateField(Plugin.class, "target");
 
     public FieldAccessInterceptor(String scanPath) {
         this(scanPath, new HashMap<>());
@@ -56,65 +199,119 @@ public class FieldAccessInterceptor implements Interceptor {
 
     public FieldAccessInterceptor(String scanPath,
                                   Map<Class<? extends IFieldAccessHandler>, IFieldAccessHandler> handlerMap) {
+        this(Collections.singletonList(scanPath), handlerMap);
+    }
+
+    /**
+     * 同时处理多个包下被@EnableFieldAccessInterceptor标记的类，没有编译期索引的模块并行扫描classpath
+     */
+    public FieldAccessInterceptor(Collection<String> scanPaths,
+                                  Map<Class<? extends IFieldAccessHandler>, IFieldAccessHandler> handlerMap) {
         long startTime = System.currentTimeMillis();
+        this.handlerMap = handlerMap;
+
+        //有编译期索引的模块使用索引，没有索引的模块扫描classpath
+        ClassLoader classLoader = getClassLoader();
+        FieldAccessIndex index = FieldAccessIndex.load(scanPaths, classLoader);
+        Set<Class<?>> accessClzSet = index.findAccessClzSet(scanPaths, classLoader);
+        this.registry = FieldAccessRegistry.EMPTY.register(buildAccessClzMetaMap(accessClzSet,
+                index.getIndexedFieldMap()));
+
+        log.info("init FieldAccessInterceptor success, {} cost{}ms", index.isEmpty() ? "scan classpath" : "use index",
+                System.currentTimeMillis() - startTime);
+    }
+
+    private static ClassLoader getClassLoader() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return classLoader != null ? classLoader : FieldAccessInterceptor.class.getClassLoader();
+    }
 
-        Set<Class<?>> accessClzSet =
-                new Reflections(scanPath).getTypesAnnotatedWith(EnableFieldAccessInterceptor.class);
+    /**
+     * 构造accessClzSet中每个类上被@FieldAccess注解字段的元信息，先收集这些类上的依赖方法
+     *
+     * @return Map<类,Map<字段名,字段上的元信息>>，不包括没有被注解字段的类
+     */
+    private Map<Class<?>, Map<String, AccessFieldMetaVO>> buildAccessClzMetaMap(Set<Class<?>> accessClzSet,
+                                                                             Map<Class<?>, Map<String, FieldAccessIndexEntry>> indexedFieldMap) {
         //保存executor判断方法元信息
-        Map<Class<? extends IFieldAccessHandler>, Method> modifyParamDependencyMethodMap = new HashMap<>();
-        Map<Class<? extends IFieldAccessHandler>, Method> modifyResultDependencyMethodMap = new HashMap<>();
         buildDependencyMethodMap(accessClzSet, modifyParamDependencyMethodMap, modifyResultDependencyMethodMap);
         //缓存字段上的其它元信息
+        Map<Class<?>, Map<String, AccessFieldMetaVO>> accessClzMetaMap = new HashMap<>();
         for (Class<?> clz : accessClzSet) {
             Map<String, AccessFieldMetaVO> fieldMetaMap =
-                    buildFieldMetaMap(clz, handlerMap, modifyParamDependencyMethodMap, modifyResultDependencyMethodMap);
-            String clzName = clz.getName();
+                    buildFieldMetaMap(clz, indexedFieldMap, handlerMap, modifyParamDependencyMethodMap,
+                            modifyResultDependencyMethodMap);
             if (!fieldMetaMap.isEmpty()) {
-                accessClzMetaMap.put(clzName, fieldMetaMap);
+                accessClzMetaMap.put(clz, fieldMetaMap);
             } else {
-                log.warn("class {} marked by @EnableMyBatisFieldInterceptor, but not find marked field", clzName);
+                log.warn("class {} marked by @EnableMyBatisFieldInterceptor, but not find marked field", clz.getName());
             }
         }
-
-        log.info("init FieldAccessInterceptor success, cost{}ms", System.currentTimeMillis() - startTime);
+        return accessClzMetaMap;
     }
 
     /**
-     * 构造同一个类中被注解的属性元信息
+     * 构造同一个类中被注解的属性元信息，包括从父类继承的属性，子类和父类有同名属性时使用子类的
      */
     private Map<String, AccessFieldMetaVO> buildFieldMetaMap(Class<?> clz,
+                                                             Map<Class<?>, Map<String, FieldAccessIndexEntry>> indexedFieldMap,
                                                              Map<Class<? extends IFieldAccessHandler>, IFieldAccessHandler> handlerMap,
                                                              Map<Class<? extends IFieldAccessHandler>, Method> modifyParamDependencyMethodMap,
                                                              Map<Class<? extends IFieldAccessHandler>, Method> modifyResultDependencyMethodMap) {
         Map<String, AccessFieldMetaVO> fieldMetaMap = new HashMap<>();
-        for (Field field : clz.getDeclaredFields()) {
-            FieldAccess annotation = field.getAnnotation(FieldAccess.class);
-            if (annotation == null) {
-                continue;
-            }
-            //只处理被FieldAccess注解的属性
-            String fieldName = field.getName();
-            Class<? extends IFieldAccessHandler> handlerClz = annotation.handler();
-            IFieldAccessHandler handler = handlerMap.get(handlerClz);
-            try {
-                if (handler == null) {
-                    // 没有指定的handler对象，使用反射创建一个
-                    IFieldAccessHandler genHandler = handlerClz.getDeclaredConstructor().newInstance();
-                    handlerMap.put(handlerClz, genHandler);
-                    handler = genHandler;
+        //索引中已经包括了从父类继承的字段
+        Map<String, FieldAccessIndexEntry> indexedFields = indexedFieldMap.get(clz);
+        for (Class<?> declaringClz = clz; declaringClz != null && declaringClz != Object.class;
+             declaringClz = declaringClz.getSuperclass()) {
+            for (Field field : declaringClz.getDeclaredFields()) {
+                FieldAccess annotation = field.getAnnotation(FieldAccess.class);
+                if (annotation == null || fieldMetaMap.containsKey(field.getName())) {
+                    continue;
                 }
-                PropertyDescriptor p = new PropertyDescriptor(fieldName, clz);
-                fieldMetaMap.put(fieldName, new AccessFieldMetaVO(field, p.getReadMethod(), p.getWriteMethod(),
-                        modifyParamDependencyMethodMap.get(handlerClz), modifyResultDependencyMethodMap.get(handlerClz),
-                        handler, Lists.newArrayList(annotation.handlerParams())));
-            } catch (InstantiationException | IntrospectionException | NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-                log.error("FieldAccessInterceptor init failed clz={}, field={}", clz.getName(), fieldName, e);
-                throw new RuntimeException(e);
+                fieldMetaMap.put(field.getName(), buildFieldMeta(clz, field, annotation, indexedFields, handlerMap,
+                        modifyParamDependencyMethodMap, modifyResultDependencyMethodMap));
             }
         }
         return fieldMetaMap;
     }
 
+    private AccessFieldMetaVO buildFieldMeta(Class<?> clz, Field field, FieldAccess annotation,
+                                             Map<String, FieldAccessIndexEntry> indexedFields,
+                                             Map<Class<? extends IFieldAccessHandler>, IFieldAccessHandler> handlerMap,
+                                             Map<Class<? extends IFieldAccessHandler>, Method> modifyParamDependencyMethodMap,
+                                             Map<Class<? extends IFieldAccessHandler>, Method> modifyResultDependencyMethodMap) {
+        //只处理被FieldAccess注解的属性
+        String fieldName = field.getName();
+        Class<? extends IFieldAccessHandler> handlerClz = annotation.handler();
+        IFieldAccessHandler handler = handlerMap.get(handlerClz);
+        try {
+            if (handler == null) {
+                // 没有指定的handler对象，使用反射创建一个
+                IFieldAccessHandler genHandler = handlerClz.getDeclaredConstructor().newInstance();
+                handlerMap.put(handlerClz, genHandler);
+                handler = genHandler;
+            }
+            Method readMethod;
+            Method writeMethod;
+            FieldAccessIndexEntry indexEntry = indexedFields == null ? null : indexedFields.get(fieldName);
+            if (indexEntry != null) {
+                // 索引里已经有读写方法名，不需要再内省
+                readMethod = clz.getMethod(indexEntry.getReadMethodName());
+                writeMethod = clz.getMethod(indexEntry.getWriteMethodName(), field.getType());
+            } else {
+                PropertyDescriptor p = new PropertyDescriptor(fieldName, clz);
+                readMethod = p.getReadMethod();
+                writeMethod = p.getWriteMethod();
+            }
+            return new AccessFieldMetaVO(field, readMethod, writeMethod,
+                    modifyParamDependencyMethodMap.get(handlerClz), modifyResultDependencyMethodMap.get(handlerClz),
+                    handler, Lists.newArrayList(annotation.handlerParams()), annotation.cacheable());
+        } catch (InstantiationException | IntrospectionException | NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            log.error("FieldAccessInterceptor init failed clz={}, field={}", clz.getName(), fieldName, e);
+            throw new RuntimeException(e);
+        }
+    }
+
     private void buildDependencyMethodMap(Set<Class<?>> clzSet,
                                           Map<Class<? extends IFieldAccessHandler>, Method> modifyParamDependencyMethodMap,
                                           Map<Class<? extends IFieldAccessHandler>, Method> modifyResultDependencyMethodMap) {
@@ -155,69 +352,717 @@ public class FieldAccessInterceptor implements Interceptor {
     public Object intercept(Invocation invocation) throws Throwable {
         Object target = invocation.getTarget();
         Object[] args = invocation.getArgs();
+        String methodName = invocation.getMethod().getName();
         if (target instanceof ResultSetHandler && args != null && args.length == 1) {
+            if ("handleCursorResultSets".equals(methodName)) {
+                // 拦截游标读取 ResultSetHandler#handleCursorResultSets
+                return interceptCursorResult(invocation);
+            }
             // 拦截读取 ResultSetHandler#handleResultSets
             return interceptResult(invocation);
         }
-        if (target instanceof Executor && args != null && args.length == 2) {
-            // 拦截写入 Executor#update
-            return interceptParam(invocation);
+        if (target instanceof ParameterHandler) {
+            // 拦截绑定参数 ParameterHandler#setParameters
+            return interceptSetParameters(invocation);
+        }
+        if (target instanceof StatementHandler) {
+            // 拦截BatchExecutor绑定参数 StatementHandler#parameterize/batch
+            return interceptStatementHandler(invocation);
+        }
+        if (target instanceof Executor) {
+            switch (methodName) {
+                case "update":
+                    // 拦截写入 Executor#update
+                    return interceptParam(invocation);
+                case "query":
+                    // 拦截使用ResultHandler的读取和查询参数 Executor#query，BatchExecutor查询前会先执行批处理
+                    flushDeferredBatchParams(target);
+                    wrapResultHandler(invocation);
+                    return interceptQueryParam(invocation);
+                case "queryCursor":
+                    // 拦截查询参数 Executor#queryCursor
+                    flushDeferredBatchParams(target);
+                    return interceptQueryParam(invocation);
+                case "flushStatements":
+                case "commit":
+                    flushDeferredBatchParams(target);
+                    return invocation.proceed();
+                case "rollback":
+                case "close":
+                    deferredBatchParamsMap.remove(target);
+                    return invocation.proceed();
+                default:
+                    break;
+            }
         }
         // 啥也不干
         return invocation.proceed();
     }
 
 
+    /**
+     * 获取MappedStatement对应的拦截计划，每个MappedStatement id只计算一次
+     */
+    private StatementPlan getStatementPlan(MappedStatement ms) {
+        //先读取statementPlanMap再读取registry，替换时顺序相反，新的map中只会有按新registry生成的计划
+        Map<String, StatementPlan> statementPlanMap = this.statementPlanMap;
+        StatementPlan plan = statementPlanMap.get(ms.getId());
+        if (plan == null) {
+            plan = statementPlanMap.computeIfAbsent(ms.getId(),
+                    id -> StatementPlan.build(ms, registry));
+        }
+        return plan;
+    }
+
+    private static Field findPrivateField(Class<?> clz, String fieldName) {
+        try {
+            Field field = clz.getDeclaredField(fieldName);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * target可能是被其它插件包装过的代理对象，取出被包装的原始对象
+     */
+    private static Object unwrapPlugin(Object target) {
+        while (target != null && Proxy.isProxyClass(target.getClass())
+                && Proxy.getInvocationHandler(target) instanceof Plugin) {
+            Object plugin = Proxy.getInvocationHandler(target);
+            target = PLUGIN_TARGET_FIELD != null ? readField(PLUGIN_TARGET_FIELD, plugin)
+                    : SystemMetaObject.forObject(plugin).getValue("target");
+        }
+        return target;
+    }
+
+    private static Object readField(Field field, Object obj) {
+        try {
+            return field.get(obj);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 取出ResultSetHandler正在处理的MappedStatement，取不到时返回null
+     */
+    private MappedStatement resolveMappedStatement(Object target) {
+        if (RESULT_SET_HANDLER_MS_FIELD == null) {
+            return null;
+        }
+        target = unwrapPlugin(target);
+        if (!(target instanceof DefaultResultSetHandler)) {
+            return null;
+        }
+        try {
+            return (MappedStatement) RESULT_SET_HANDLER_MS_FIELD.get(target);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+
     /**
      * 拦截数据库返回值
      * 先正常执行mybatis的handleResultSets方法，再对已经赋值完毕的对象修改属性值
      */
     private Object interceptResult(Invocation invocation) throws Exception {
-        Object result = invocation.proceed();
-        Set<Object> resultObjSet = new HashSet<>();
-        //返回值可能是单个对象，也可能是对象列表，用Set收集起来防止重复拦截
-        if (result instanceof ArrayList) {
-            resultObjSet.addAll((ArrayList) result);
-        } else {
-            resultObjSet.add(result);
-        }
-        //处理具体对象
-        for (Object resultObj : resultObjSet) {
-            String clzName = resultObj.getClass().getName();
-            Map<String, AccessFieldMetaVO> fieldMetaMap = accessClzMetaMap.get(clzName);
-            if (fieldMetaMap == null) {
-                //查不到说明这个对象的类没有被注解标注，不需要修改属性
-                continue;
+        MappedStatement ms = resolveMappedStatement(invocation.getTarget());
+        if (ms != null && !getStatementPlan(ms).isInterceptResult()) {
+            //返回值里不可能出现被注解的类
+            return invocation.proceed();
+        }
+        StatementPlan plan = ms != null ? getStatementPlan(ms) : null;
+        FieldAccessTypeHandlerInstaller installer = ms != null ? installTypeHandlers(ms, invocation.getTarget()) : null;
+        String statementId = ms != null ? ms.getId() : null;
+        if (installer != null && !installer.hasResidualFields(plan.getResultClzSet())) {
+            //所有字段都已经在映射时转换
+            return proceedMapping(invocation, statementId);
+        }
+        boolean lazy = isLazyResult(ms, plan);
+        LazyResultProxyFactory.LazyRows outerLazyRows = lazy ? lazyResultProxyFactory.begin() : null;
+        LazyResultProxyFactory.LazyRows lazyRows = null;
+        boolean mapping = installer != null && this.metrics != null;
+        String outerStatementId = mapping ? beginMapping(statementId) : null;
+        Object result;
+        try {
+            result = invocation.proceed();
+        } finally {
+            if (mapping) {
+                endMapping(outerStatementId);
             }
-            for (Entry<String, AccessFieldMetaVO> entry : fieldMetaMap.entrySet()) {
-                String fieldName = entry.getKey();
-                AccessFieldMetaVO fieldMeta = entry.getValue();
-                modifyResultObjectField(resultObj, fieldName, fieldMeta);
+            if (lazy) {
+                lazyRows = lazyResultProxyFactory.end(outerLazyRows);
             }
         }
+        ResultTraversal traversal = plan != null ? plan.getResultTraversal() : null;
+        Function<Class<?>, ClassFieldPlan> resultPlans;
+        if (installer != null) {
+            //TypeHandler模式下只处理映射时没有转换的字段
+            resultPlans = installer::getResidualPlan;
+        } else {
+            //只处理本次查询实际赋值了的字段，取不到时处理全部字段
+            ResultProjection projection = plan != null ? plan.getResultProjection() : null;
+            ResultProjection.Populated populated = projection != null
+                    ? projection.resolve(unwrapPlugin(invocation.getTarget()), registry) : null;
+            resultPlans = populated != null ? populated::getPlan : null;
+        }
+        IFieldAccessMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0L;
+        if (lazyRows != null) {
+            //MyBatis创建的代理对象在读取字段时才处理，下面只处理不能代理的对象
+            lazyRows.activate(resultPlans);
+        }
+        if (parallelThreshold > 0 && countRows(result) >= parallelThreshold) {
+            List<Object> resultObjs = distinctObjects(result, traversal);
+            modifyResultObjectsParallel(resultObjs, resultPlans, statementId);
+            recordStatement(metrics, ms, FieldAccessPhase.RESULT, resultObjs.size(), start);
+            return result;
+        }
+        //返回值可能是单个对象、对象列表或多个结果集的列表，按对象地址去重防止重复拦截，
+        //IBatchFieldAccessHandler的字段先收集起来最后统一处理
+        FieldBatch batch = newFieldBatch(statementId);
+        int rows;
+        IdentityObjectSet visited = IdentityObjectSet.acquire();
+        try {
+            rows = ObjectGraphWalker.walk(result, visited, traversal,
+                    resultObj -> modifyResultObject(resultObj, HandlerScope.ALL, resultPlans, batch));
+        } finally {
+            visited.release();
+        }
+        batch.flushResults();
+        recordStatement(metrics, ms, FieldAccessPhase.RESULT, rows, start);
         //返回已经修改后的执行结果
         return result;
     }
 
     /**
-     * 修改mybatis返回的的对象属性
+     * 懒加载模式需要Configuration使用本拦截器的LazyResultObjectFactory创建对象；
+     * 语句中有MyBatis延迟加载的嵌套查询时，返回对象是MyBatis自己的代理对象，不使用懒加载
+     */
+    private boolean isLazyResult(MappedStatement ms, StatementPlan plan) {
+        if (!lazyResult || ms == null || plan.isLazyLoading()) {
+            return false;
+        }
+        ObjectFactory objectFactory = ms.getConfiguration().getObjectFactory();
+        if (objectFactory instanceof LazyResultObjectFactory
+                && ((LazyResultObjectFactory) objectFactory).getInterceptor() == this) {
+            return true;
+        }
+        if (!lazyObjectFactoryWarned) {
+            lazyObjectFactoryWarned = true;
+            log.warn("lazyResult is enabled, but objectFactory of configuration is not LazyResultObjectFactory of "
+                    + "this interceptor, results are modified immediately");
+        }
+        return false;
+    }
+
+    /**
+     * 存储过程返回多个结果集时，MyBatis返回由每个结果集的列表组成的列表
      */
-    private void modifyResultObjectField(Object resultObj, String fieldName, AccessFieldMetaVO fieldMeta)
+    private static boolean isMultipleResultSets(List<?> resultList) {
+        if (resultList.isEmpty()) {
+            return false;
+        }
+        for (Object resultSet : resultList) {
+            if (!(resultSet instanceof List)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 返回值的行数，多个结果集时为所有结果集的行数之和
+     */
+    private static int countRows(Object result) {
+        if (!(result instanceof List)) {
+            return 1;
+        }
+        List<?> resultList = (List<?>) result;
+        if (!isMultipleResultSets(resultList)) {
+            return resultList.size();
+        }
+        int rows = 0;
+        for (Object resultSet : resultList) {
+            rows += ((List<?>) resultSet).size();
+        }
+        return rows;
+    }
+
+    /**
+     * 展开返回值中的所有对象，去掉null和重复对象，按对象地址判断是否重复，不调用对象的equals/hashCode
+     * traversal不为null时还包括按遍历计划找到的嵌套对象
+     */
+    private static List<Object> distinctObjects(Object result, ResultTraversal traversal) throws Exception {
+        List<Object> distinctObjs = new ArrayList<>(countRows(result));
+        IdentityObjectSet visited = IdentityObjectSet.acquire();
+        try {
+            ObjectGraphWalker.walk(result, visited, traversal, distinctObjs::add);
+        } finally {
+            visited.release();
+        }
+        return distinctObjs;
+    }
+
+    /**
+     * 拦截游标读取，返回包装后的Cursor，每取出一行再修改这一行
+     */
+    private Object interceptCursorResult(Invocation invocation) throws Exception {
+        MappedStatement ms = resolveMappedStatement(invocation.getTarget());
+        if (ms != null && getStatementPlan(ms).isInterceptResult()) {
+            installTypeHandlers(ms, invocation.getTarget());
+        }
+        Object cursor = invocation.proceed();
+        if (ms != null && !getStatementPlan(ms).isInterceptResult()) {
+            return cursor;
+        }
+        return new FieldAccessCursor<>((Cursor<?>) cursor, this, ms == null ? null : ms.getId());
+    }
+
+    /**
+     * TypeHandler模式下替换ResultMap和本次执行的自动映射中被注解字段的TypeHandler
+     *
+     * @return 没有开启TypeHandler模式或者无法替换时返回null，映射完成后处理全部字段
+     */
+    private FieldAccessTypeHandlerInstaller installTypeHandlers(MappedStatement ms, Object resultSetHandler) {
+        FieldAccessTypeHandlerInstaller installer = typeHandlerMode ? typeHandlerInstaller : null;
+        if (installer == null) {
+            return null;
+        }
+        resultSetHandler = unwrapPlugin(resultSetHandler);
+        if (!(resultSetHandler instanceof DefaultResultSetHandler)) {
+            return null;
+        }
+        installer.install(ms);
+        installer.installAutoMappings(resultSetHandler);
+        return installer;
+    }
+
+    /**
+     * TypeHandler模式下开始映射statement的结果，期间modifyMappedResult按这个statement统计
+     *
+     * @return 外层正在映射的statement（嵌套查询时），结束时交给endMapping
+     */
+    private static String beginMapping(String statementId) {
+        String outerStatementId = MAPPING_STATEMENT_ID.get();
+        MAPPING_STATEMENT_ID.set(statementId);
+        return outerStatementId;
+    }
+
+    /**
+     * TypeHandler模式下执行handleResultSets，开启统计时期间的转换按statementId统计
+     */
+    private Object proceedMapping(Invocation invocation, String statementId) throws Exception {
+        if (metrics == null) {
+            return invocation.proceed();
+        }
+        String outerStatementId = beginMapping(statementId);
+        try {
+            return invocation.proceed();
+        } finally {
+            endMapping(outerStatementId);
+        }
+    }
+
+    private static void endMapping(String outerStatementId) {
+        if (outerStatementId != null) {
+            MAPPING_STATEMENT_ID.set(outerStatementId);
+        } else {
+            MAPPING_STATEMENT_ID.remove();
+        }
+    }
+
+    /**
+     * 游标读取下一行，TypeHandler模式下开启统计时期间的转换按statementId统计
+     */
+    <T> T nextMappedRow(Iterator<T> iterator, String statementId) {
+        if (metrics == null || !typeHandlerMode) {
+            return iterator.next();
+        }
+        String outerStatementId = beginMapping(statementId);
+        try {
+            return iterator.next();
+        } finally {
+            endMapping(outerStatementId);
+        }
+    }
+
+    /**
+     * TypeHandler模式下从ResultSet读出被注解字段的值之后调用，返回转换后的值
+     * 映射时对象还没有创建完，handler收到的resultObj为null，统计时按字段所在ResultMap的类型resultClz统计
+     */
+    Object modifyMappedResult(AccessFieldMetaVO fieldMeta, Class<?> resultClz, String fieldName, Object value)
             throws Exception {
+        IFieldAccessMetrics metrics = this.metrics;
+        IFieldAccessHandler handler = fieldMeta.getHandler();
+        String statementId = metrics != null ? MAPPING_STATEMENT_ID.get() : null;
+        long start = metrics != null ? System.nanoTime() : 0L;
+        boolean allowed = fieldMeta.allowModifyResult(fieldName, value, null);
+        if (metrics != null) {
+            metrics.recordAllow(statementId, resultClz, handler, FieldAccessPhase.RESULT, allowed,
+                    System.nanoTime() - start);
+        }
+        if (!allowed) {
+            return value;
+        }
+        if (fieldMeta.isCacheable()) {
+            Object cachedValue = fieldValueCache.getResult(fieldMeta, value);
+            if (cachedValue != null) {
+                return cachedValue;
+            }
+        }
+        start = metrics != null ? System.nanoTime() : 0L;
+        Object newValue;
+        if (handler instanceof IBatchFieldAccessHandler) {
+            List<Object> newValues = ((IBatchFieldAccessHandler) handler).modifyResults(
+                    Collections.singletonList(fieldMeta.newFieldAccessValue(fieldName, value, null)));
+            if (newValues == null || newValues.size() != 1) {
+                throw new IllegalStateException(handler.getClass().getName() + " returned "
+                        + (newValues == null ? "null" : newValues.size() + " values") + " for 1 fields");
+            }
+            newValue = newValues.get(0);
+        } else {
+            newValue = fieldMeta.modifyResult(fieldName, value, null);
+        }
+        if (metrics != null) {
+            metrics.recordModify(statementId, resultClz, handler, FieldAccessPhase.RESULT, 1,
+                    System.nanoTime() - start);
+        }
+        if (fieldMeta.isCacheable()) {
+            fieldValueCache.putResult(fieldMeta, value, newValue);
+        }
+        return newValue;
+    }
+
+    FieldAccessRegistry getRegistry() {
+        return registry;
+    }
+
+    LazyResultProxyFactory getLazyResultProxyFactory() {
+        return lazyResultProxyFactory;
+    }
+
+    boolean isTypeHandlerMode() {
+        return typeHandlerMode;
+    }
+
+    /**
+     * 调用方传入了ResultHandler时，结果不会出现在handleResultSets的返回值里，需要包装ResultHandler逐行修改
+     */
+    @SuppressWarnings("unchecked")
+    private void wrapResultHandler(Invocation invocation) {
+        Object[] args = invocation.getArgs();
+        MappedStatement ms = (MappedStatement) args[0];
+        ResultHandler<Object> resultHandler = (ResultHandler<Object>) args[3];
+        if (resultHandler != null && !(resultHandler instanceof FieldAccessResultHandler)
+                && getStatementPlan(ms).isInterceptResult()) {
+            args[3] = new FieldAccessResultHandler<>(resultHandler, this, ms.getId());
+        }
+    }
+
+    /**
+     * 拦截查询语句的参数，被注解的参数对象和与返回值类型上被注解字段同名的@Param参数都用handler的modifyParam处理，
+     * 新值只在绑定JDBC参数时使用，不修改调用方传入的对象
+     */
+    private Object interceptQueryParam(Invocation invocation) throws Exception {
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        Object parameter = invocation.getArgs()[1];
+        if (!interceptQueryParams || parameter == null) {
+            return invocation.proceed();
+        }
+        StatementPlan plan = getStatementPlan(ms);
+        if (!plan.isInterceptQueryParam()) {
+            return invocation.proceed();
+        }
+        if (isBindTimeParams(ms)) {
+            ParamOverlayWrapperFactory.install(ms.getConfiguration());
+            return invocation.proceed();
+        }
+        IFieldAccessMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0L;
+        ParamOverlay paramOverlay = new ParamOverlay();
+        FieldBatch batch = newFieldBatch(ms.getId(), paramOverlay);
+        int rows;
+        IdentityObjectSet visited = IdentityObjectSet.acquire();
+        try {
+            rows = plan.isInterceptParam() ? modifyParamObjects(parameter, visited, batch) : 0;
+        } finally {
+            visited.release();
+        }
+        if (parameter instanceof Map && !plan.getQueryParamFieldMap().isEmpty()) {
+            rows += modifyNamedQueryParams((Map<?, ?>) parameter, plan.getQueryParamFieldMap(), batch);
+        }
+        batch.flushParams();
+        if (parameter instanceof Map) {
+            aliasQueryParams((Map<?, ?>) parameter, plan.getQueryParamAliasMap(), paramOverlay);
+        }
+        recordStatement(metrics, ms, FieldAccessPhase.PARAM, rows, start);
+        return proceedWithParamOverlay(invocation, paramOverlay);
+    }
+
+    /**
+     * 处理和返回值类型上被注解字段同名的@Param参数，参数值的类型和字段类型不一致时跳过（比如IN查询传入的列表）
+     *
+     * @return 处理的参数个数
+     */
+    private int modifyNamedQueryParams(Map<?, ?> paramMap, Map<String, AccessFieldMetaVO> queryParamFieldMap,
+                                       FieldBatch batch) throws Exception {
+        int count = 0;
+        for (Entry<?, ?> entry : paramMap.entrySet()) {
+            AccessFieldMetaVO fieldMeta = queryParamFieldMap.get(entry.getKey());
+            Object value = entry.getValue();
+            if (fieldMeta == null || value != null && !Primitives.wrap(fieldMeta.getField().getType()).isInstance(value)) {
+                continue;
+            }
+            modifyParamValue(paramMap, null, (String) entry.getKey(), value, fieldMeta, batch);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * SQL中用param1等通用参数名引用@Param参数时，绑定的也是新值
+     */
+    private static void aliasQueryParams(Map<?, ?> paramMap, Map<String, String> queryParamAliasMap,
+                                         ParamOverlay paramOverlay) {
+        for (Entry<String, String> entry : queryParamAliasMap.entrySet()) {
+            String alias = entry.getKey();
+            if (!alias.equals(resolveQueryParamName(paramMap, alias, queryParamAliasMap))) {
+                paramOverlay.alias(paramMap, alias, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 参数Map中的通用参数名对应的@Param参数名，不是Mapper方法的ParamMap（两个名字的值不是同一个对象）时返回name本身
+     */
+    private static String resolveQueryParamName(Map<?, ?> paramMap, String name,
+                                                Map<String, String> queryParamAliasMap) {
+        String paramName = queryParamAliasMap.get(name);
+        if (paramName == null || !paramMap.containsKey(name) || !paramMap.containsKey(paramName)
+                || paramMap.get(name) != paramMap.get(paramName)) {
+            return name;
+        }
+        return paramName;
+    }
+
+    /**
+     * 修改游标或ResultHandler逐行返回的单个对象
+     */
+    Object modifyResultRow(Object resultObj, String statementId) throws Exception {
+        if (resultObj == null) {
+            return null;
+        }
+        IFieldAccessMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0L;
+        StatementPlan plan = statementId != null ? statementPlanMap.get(statementId) : null;
+        ResultTraversal traversal = plan != null ? plan.getResultTraversal() : null;
+        FieldAccessTypeHandlerInstaller installer = typeHandlerMode ? typeHandlerInstaller : null;
+        Function<Class<?>, ClassFieldPlan> resultPlans = installer != null && statementId != null
+                && installer.isInstalled(statementId) ? installer::getResidualPlan : null;
+        LazyResultProxyFactory.LazyRows lazyRows = lazyResult ? lazyResultProxyFactory.current() : null;
+        if (lazyRows != null) {
+            //ResultHandler逐行返回时这一行的代理对象已经创建好；游标的对象在查询之外创建，没有代理对象，立即处理
+            lazyRows.activate(resultPlans);
+        }
+        FieldBatch batch = newFieldBatch(statementId);
+        IdentityObjectSet visited = IdentityObjectSet.acquire();
+        try {
+            ObjectGraphWalker.walk(resultObj, visited, traversal,
+                    obj -> modifyResultObject(obj, HandlerScope.ALL, resultPlans, batch));
+        } finally {
+            visited.release();
+        }
+        batch.flushResults();
+        if (metrics != null) {
+            metrics.recordStatement(statementId, FieldAccessPhase.RESULT, 1, System.nanoTime() - start);
+        }
+        return resultObj;
+    }
+
+    private FieldBatch newFieldBatch(String statementId) {
+        return newFieldBatch(statementId, null);
+    }
+
+    /**
+     * @param statementId  统计时使用的MappedStatement id，取不到时为null
+     * @param paramOverlay 不为null时入参的新值只记录到paramOverlay，不写回参数对象
+     */
+    private FieldBatch newFieldBatch(String statementId, ParamOverlay paramOverlay) {
+        return new FieldBatch(fieldValueCache, metrics, statementId, paramOverlay, asyncFieldExecutor);
+    }
+
+    private static void recordStatement(IFieldAccessMetrics metrics, MappedStatement ms, FieldAccessPhase phase,
+                                        int rows, long start) {
+        if (metrics != null) {
+            metrics.recordStatement(ms == null ? null : ms.getId(), phase, rows, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 懒加载代理对象第一次读取某个字段时调用
+     */
+    void modifyResultField(Object resultObj, String fieldName, AccessFieldMetaVO fieldMeta) throws Exception {
+        FieldBatch batch = newFieldBatch(null);
+        modifyResultObjectField(resultObj, fieldName, fieldMeta, batch);
+        batch.flushResults();
+    }
+
+    /**
+     * 把返回值分块后交给parallelExecutor并行处理，全部处理完才返回
+     * 被@NonConcurrentHandler标记的handler负责的字段，等并行部分结束后再在当前线程串行处理
+     */
+    private void modifyResultObjectsParallel(List<Object> resultObjs, Function<Class<?>, ClassFieldPlan> resultPlans,
+                                             String statementId) throws Exception {
+        java.util.concurrent.Executor executor = parallelExecutor != null ? parallelExecutor : ForkJoinPool.commonPool();
+        int size = resultObjs.size();
+        List<CompletableFuture<Void>> futures = new ArrayList<>((size + parallelChunkSize - 1) / parallelChunkSize);
+        for (int from = 0; from < size; from += parallelChunkSize) {
+            List<Object> chunk = resultObjs.subList(from, Math.min(from + parallelChunkSize, size));
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    FieldBatch batch = newFieldBatch(statementId);
+                    for (Object resultObj : chunk) {
+                        modifyResultObject(resultObj, HandlerScope.CONCURRENT, resultPlans, batch);
+                    }
+                    batch.flushResults();
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+
+        FieldBatch batch = newFieldBatch(statementId);
+        for (Object resultObj : resultObjs) {
+            modifyResultObject(resultObj, HandlerScope.SERIAL, resultPlans, batch);
+        }
+        batch.flushResults();
+    }
+
+    /**
+     * 修改单个返回对象上scope范围内的被注解字段
+     *
+     * @param resultPlans 按运行时的类查找本次需要处理的字段，为null时处理全部被注解字段
+     */
+    private void modifyResultObject(Object resultObj, HandlerScope scope,
+                                    Function<Class<?>, ClassFieldPlan> resultPlans, FieldBatch batch) throws Exception {
+        if (resultObj instanceof ILazyFieldAccessObject) {
+            //懒加载代理对象在读取字段时才处理
+            return;
+        }
+        ClassFieldPlan plan = resultPlans != null ? resultPlans.apply(resultObj.getClass())
+                : registry.getPlan(resultObj.getClass());
+        //类没有被注解标注时plan为空，不需要修改属性
+        for (int i = 0, size = plan.size(); i < size; i++) {
+            AccessFieldMetaVO fieldMeta = plan.getFieldMeta(i);
+            if (scope.accept(fieldMeta)) {
+                modifyResultObjectField(resultObj, plan.getFieldName(i), fieldMeta, batch);
+            }
+        }
+    }
+
+    /**
+     * 修改mybatis返回的的对象属性
+     */
+    private void modifyResultObjectField(Object resultObj, String fieldName, AccessFieldMetaVO fieldMeta,
+                                         FieldBatch batch) throws Exception {
+        if (fieldMeta.isPrimitiveAccess()) {
+            modifyPrimitiveResultField(resultObj, fieldName, fieldMeta, batch);
+            return;
+        }
+        IFieldAccessMetrics metrics = this.metrics;
         // 1. 先执行被注解属性的前置依赖方法
-        Method dependencyMethod = fieldMeta.getResultDependencyMethod();
-        Object oldValue = fieldMeta.getReadMethod().invoke(resultObj);
-        boolean dependencyResult = true;
-        if (dependencyMethod != null) {
-            dependencyResult = (boolean) dependencyMethod.invoke(resultObj, resultObj, fieldName, oldValue);
+        Object oldValue = fieldMeta.readValue(resultObj);
+        IFieldAccessHandler handler = fieldMeta.getHandler();
+        if (!fieldMeta.checkResultDependency(resultObj, fieldName, oldValue)) {
+            if (metrics != null) {
+                metrics.recordDependencyRejected(batch.getStatementId(), resultObj.getClass(), handler,
+                        FieldAccessPhase.RESULT);
+            }
+            return;
         }
         // 2. 再回调handler的allowRead方法
-        IFieldAccessHandler handler = fieldMeta.getHandler();
-        if (dependencyResult && handler
-                .allowModifyResult(fieldName, oldValue, resultObj, fieldMeta.getHandlerParams())) {
-            // 3. 最后回调handler的read方法
-            Object newValue = handler.modifyResult(fieldName, oldValue, resultObj, fieldMeta.getHandlerParams());
-            fieldMeta.getWriteMethod().invoke(resultObj, newValue);
+        long start = metrics != null ? System.nanoTime() : 0L;
+        boolean allowed = fieldMeta.allowModifyResult(fieldName, oldValue, resultObj);
+        if (metrics != null) {
+            metrics.recordAllow(batch.getStatementId(), resultObj.getClass(), handler, FieldAccessPhase.RESULT,
+                    allowed, System.nanoTime() - start);
+        }
+        if (allowed) {
+            // 3. 最后回调handler的read方法，命中缓存时直接使用缓存的新值，批量handler先收集起来
+            if (fieldMeta.isCacheable()) {
+                Object cachedValue = fieldValueCache.getResult(fieldMeta, oldValue);
+                if (cachedValue != null) {
+                    fieldMeta.writeChangedValue(resultObj, oldValue, cachedValue);
+                    return;
+                }
+            }
+            if (handler instanceof IAsyncFieldAccessHandler) {
+                batch.addAsync((IAsyncFieldAccessHandler) handler, fieldMeta, resultObj,
+                        fieldMeta.newFieldAccessValue(fieldName, oldValue, resultObj));
+                return;
+            }
+            if (handler instanceof IBatchFieldAccessHandler) {
+                batch.add((IBatchFieldAccessHandler) handler, fieldMeta, resultObj,
+                        fieldMeta.newFieldAccessValue(fieldName, oldValue, resultObj));
+                return;
+            }
+            start = metrics != null ? System.nanoTime() : 0L;
+            Object newValue = fieldMeta.modifyResult(fieldName, oldValue, resultObj);
+            if (metrics != null) {
+                metrics.recordModify(batch.getStatementId(), resultObj.getClass(), handler, FieldAccessPhase.RESULT,
+                        1, System.nanoTime() - start);
+            }
+            if (fieldMeta.isCacheable()) {
+                fieldValueCache.putResult(fieldMeta, oldValue, newValue);
+            }
+            fieldMeta.writeChangedValue(resultObj, oldValue, newValue);
+        }
+    }
+
+    /**
+     * 按原始类型修改long/int字段，没有依赖方法时每行数据不装箱
+     */
+    private void modifyPrimitiveResultField(Object resultObj, String fieldName, AccessFieldMetaVO fieldMeta,
+                                            FieldBatch batch) throws Exception {
+        IFieldAccessMetrics metrics = this.metrics;
+        long oldValue = fieldMeta.readPrimitive(resultObj);
+        if (fieldMeta.hasResultDependency()
+                && !fieldMeta.checkResultDependency(resultObj, fieldName, fieldMeta.boxPrimitive(oldValue))) {
+            if (metrics != null) {
+                metrics.recordDependencyRejected(batch.getStatementId(), resultObj.getClass(),
+                        fieldMeta.getHandler(), FieldAccessPhase.RESULT);
+            }
+            return;
+        }
+        long start = metrics != null ? System.nanoTime() : 0L;
+        boolean allowed = fieldMeta.allowModifyPrimitiveResult(fieldName, oldValue, resultObj);
+        if (metrics != null) {
+            metrics.recordAllow(batch.getStatementId(), resultObj.getClass(), fieldMeta.getHandler(),
+                    FieldAccessPhase.RESULT, allowed, System.nanoTime() - start);
+        }
+        if (allowed) {
+            start = metrics != null ? System.nanoTime() : 0L;
+            long newValue = fieldMeta.modifyPrimitiveResult(fieldName, oldValue, resultObj);
+            if (metrics != null) {
+                metrics.recordModify(batch.getStatementId(), resultObj.getClass(), fieldMeta.getHandler(),
+                        FieldAccessPhase.RESULT, 1, System.nanoTime() - start);
+            }
+            if (newValue != oldValue) {
+                fieldMeta.writePrimitive(resultObj, newValue);
+            }
         }
     }
 
@@ -229,68 +1074,732 @@ public class FieldAccessInterceptor implements Interceptor {
         MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
         Object parameter = invocation.getArgs()[1];
 
-        if ((SqlCommandType.INSERT == ms.getSqlCommandType() || SqlCommandType.UPDATE == ms.getSqlCommandType())
-                && parameter != null) {
-            //入参可能是单个对象，也可能是对象列表或Map，用Set收集起来防止重复拦截
-            Set<Object> needHandleParamObject = new HashSet<>();
-            if (parameter instanceof Map) {
-                Map map = (Map) parameter;
-                for (Object obj : map.values()) {
-                    if (obj instanceof List) {
-                        List objList = (List) obj;
-                        needHandleParamObject.addAll(objList);
-                    } else {
-                        needHandleParamObject.add(obj);
-                    }
-                }
-            } else if (parameter instanceof Collection) {
-                needHandleParamObject.addAll((Collection) parameter);
+        if (parameter != null && getStatementPlan(ms).isInterceptParam()) {
+            if (isBindTimeParams(ms)) {
+                //TypeHandler模式下在绑定JDBC参数时处理，需要在创建BoundSql之前安装
+                ParamOverlayWrapperFactory.install(ms.getConfiguration());
+                return invocation.proceed();
+            }
+            if (deferBatchParams && canDeferParams(ms) && isBatchExecutor(invocation.getTarget())) {
+                //BatchExecutor的参数等flushStatements之前再统一处理
+                return proceedDeferred(invocation, ms, parameter);
+            }
+            IFieldAccessMetrics metrics = this.metrics;
+            long start = metrics != null ? System.nanoTime() : 0L;
+            //入参可能是单个对象，也可能是对象列表或Map，按对象地址去重防止重复拦截
+            ParamOverlay paramOverlay = nonMutatingParams ? new ParamOverlay() : null;
+            FieldBatch batch = newFieldBatch(ms.getId(), paramOverlay);
+            int rows;
+            IdentityObjectSet visited = IdentityObjectSet.acquire();
+            try {
+                rows = modifyParamObjects(parameter, visited, batch);
+            } finally {
+                visited.release();
+            }
+            batch.flushParams();
+            recordStatement(metrics, ms, FieldAccessPhase.PARAM, rows, start);
+            if (paramOverlay != null) {
+                return proceedWithParamOverlay(invocation, paramOverlay);
+            }
+        }
+        //最后写入数据库
+        return invocation.proceed();
+    }
+
+    /**
+     * 执行语句，期间绑定JDBC参数时使用paramOverlay中的新值
+     */
+    private Object proceedWithParamOverlay(Invocation invocation, ParamOverlay paramOverlay) throws Exception {
+        if (paramOverlay.isEmpty()) {
+            return invocation.proceed();
+        }
+        ParamOverlayWrapperFactory.install(((MappedStatement) invocation.getArgs()[0]).getConfiguration());
+        ParamOverlay outerOverlay = CURRENT_PARAM_OVERLAY.get();
+        CURRENT_PARAM_OVERLAY.set(paramOverlay);
+        try {
+            return invocation.proceed();
+        } finally {
+            if (outerOverlay != null) {
+                CURRENT_PARAM_OVERLAY.set(outerOverlay);
+            } else {
+                CURRENT_PARAM_OVERLAY.remove();
+            }
+        }
+    }
+
+    /**
+     * 不修改参数对象模式下绑定JDBC参数，仍然由ParameterHandler和其它插件完成绑定，
+     * DefaultParameterHandler通过MetaObject读取被注解字段时得到新值；
+     * 自定义ParameterHandler不一定通过MetaObject读取参数，只能先把新值临时写到参数对象上，绑定完再恢复原值
+     */
+    private Object interceptSetParameters(Invocation invocation) throws Exception {
+        ParamOverlay paramOverlay = CURRENT_PARAM_OVERLAY.get();
+        if (paramOverlay == null) {
+            return typeHandlerMode ? interceptBindTimeParams(invocation) : invocation.proceed();
+        }
+        if (!(unwrapPlugin(invocation.getTarget()) instanceof DefaultParameterHandler)) {
+            Runnable restore = paramOverlay.apply();
+            try {
+                return invocation.proceed();
+            } finally {
+                restore.run();
+            }
+        }
+        return proceedBinding(invocation, paramOverlay);
+    }
+
+    /**
+     * 继续执行setParameters，期间MyBatis读取paramOverlay中对象的字段时使用新值
+     */
+    private static Object proceedBinding(Invocation invocation, ParamOverlay paramOverlay) throws Exception {
+        if (paramOverlay.isEmpty()) {
+            return invocation.proceed();
+        }
+        ParamOverlay outerOverlay = ParamOverlayWrapperFactory.beginBinding(paramOverlay);
+        try {
+            return invocation.proceed();
+        } finally {
+            ParamOverlayWrapperFactory.endBinding(outerOverlay);
+        }
+    }
+
+    /**
+     * TypeHandler模式下PREPARED/CALLABLE语句的参数不提前处理，在DefaultParameterHandler绑定JDBC参数时处理，不修改参数对象
+     * 自定义LanguageDriver创建的ParameterHandler和STATEMENT类型的语句仍然提前处理
+     */
+    private boolean isBindTimeParams(MappedStatement ms) {
+        return typeHandlerMode && ms.getStatementType() != StatementType.STATEMENT
+                && ms.getLang() instanceof XMLLanguageDriver;
+    }
+
+    /**
+     * TypeHandler模式下绑定JDBC参数，先按绑定的参数找到被注解字段的值统一处理，再交给ParameterHandler和其它插件用新值绑定
+     */
+    private Object interceptBindTimeParams(Invocation invocation) throws Exception {
+        Object handler = unwrapPlugin(invocation.getTarget());
+        if (!(handler instanceof DefaultParameterHandler) || PARAMETER_HANDLER_MS_FIELD == null) {
+            return invocation.proceed();
+        }
+        MappedStatement ms = (MappedStatement) readField(PARAMETER_HANDLER_MS_FIELD, handler);
+        if (ms == null || !isBindTimeParams(ms)) {
+            return invocation.proceed();
+        }
+        StatementPlan plan = getStatementPlan(ms);
+        boolean intercept = ms.getSqlCommandType() == SqlCommandType.SELECT
+                ? interceptQueryParams && plan.isInterceptQueryParam() : plan.isInterceptParam();
+        if (!intercept) {
+            return invocation.proceed();
+        }
+        ParamOverlayWrapperFactory.install(ms.getConfiguration());
+        return proceedBinding(invocation, modifyBoundParams((DefaultParameterHandler) handler, ms, plan));
+    }
+
+    /**
+     * 按DefaultParameterHandler查找参数值的顺序读出绑定的参数，处理其中被注解字段的值，只读取不绑定
+     *
+     * @return 新值，不修改参数对象
+     */
+    private ParamOverlay modifyBoundParams(DefaultParameterHandler handler, MappedStatement ms, StatementPlan plan)
+            throws Exception {
+        BoundSql boundSql = (BoundSql) readField(PARAMETER_HANDLER_BOUND_SQL_FIELD, handler);
+        Configuration configuration = (Configuration) readField(PARAMETER_HANDLER_CONFIGURATION_FIELD, handler);
+        Object parameterObject = handler.getParameterObject();
+        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+        if (parameterMappings == null) {
+            return new ParamOverlay();
+        }
+        int size = parameterMappings.size();
+        Object[] values = new Object[size];
+        Object[] owners = new Object[size];
+        String[] fieldNames = new String[size];
+        MetaObject metaObject = null;
+        for (int i = 0; i < size; i++) {
+            ParameterMapping parameterMapping = parameterMappings.get(i);
+            if (parameterMapping.getMode() == ParameterMode.OUT) {
+                continue;
+            }
+            String propertyName = parameterMapping.getProperty();
+            //找到属性所属的对象
+            int lastDot = propertyName.lastIndexOf('.');
+            String ownerName = lastDot < 0 ? null : propertyName.substring(0, lastDot);
+            String fieldName = propertyName.substring(lastDot + 1);
+            Object value;
+            Object owner;
+            if (boundSql.hasAdditionalParameter(propertyName)) {
+                value = boundSql.getAdditionalParameter(propertyName);
+                owner = ownerName == null ? null : boundSql.getAdditionalParameter(ownerName);
+            } else if (parameterObject == null) {
+                value = null;
+                owner = null;
+            } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+                value = parameterObject;
+                owner = null;
             } else {
-                needHandleParamObject.add(parameter);
+                if (metaObject == null) {
+                    metaObject = configuration.newMetaObject(parameterObject);
+                }
+                value = metaObject.getValue(propertyName);
+                owner = ownerName == null ? parameterObject : metaObject.getValue(ownerName);
             }
+            values[i] = value;
+            owners[i] = owner;
+            fieldNames[i] = fieldName;
+        }
+        return modifyBoundParams(ms, plan, owners, fieldNames, values);
+    }
 
-            for (Object obj : needHandleParamObject) {
-                String clzName = obj.getClass().getName();
-                Map<String, AccessFieldMetaVO> fieldMetaMap = accessClzMetaMap.get(clzName);
-                if (fieldMetaMap == null) {
-                    //找不到说明没有被注解标注，不需要修改
+    /**
+     * 处理绑定的参数中被注解字段的值，参数Map中的值按查询参数处理
+     *
+     * @return 新值，不修改参数对象
+     */
+    private ParamOverlay modifyBoundParams(MappedStatement ms, StatementPlan plan, Object[] owners,
+                                           String[] fieldNames, Object[] values) throws Exception {
+        IFieldAccessMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0L;
+        ParamOverlay paramOverlay = new ParamOverlay();
+        FieldBatch batch = newFieldBatch(ms.getId(), paramOverlay);
+        int rows = 0;
+        for (int i = 0; i < owners.length; i++) {
+            Object owner = owners[i];
+            String fieldName = fieldNames[i];
+            Object value = values[i];
+            if (owner == null) {
+                continue;
+            }
+            AccessFieldMetaVO fieldMeta;
+            if (owner instanceof Map) {
+                fieldName = resolveQueryParamName((Map<?, ?>) owner, fieldName, plan.getQueryParamAliasMap());
+                fieldMeta = plan.getQueryParamFieldMap().get(fieldName);
+                if (fieldMeta == null
+                        || value != null && !Primitives.wrap(fieldMeta.getField().getType()).isInstance(value)) {
                     continue;
                 }
-                for (Entry<String, AccessFieldMetaVO> entry : fieldMetaMap.entrySet()) {
-                    String fieldName = entry.getKey();
-                    AccessFieldMetaVO fieldMeta = entry.getValue();
-                    modifyParamObjectField(obj, fieldName, fieldMeta);
+            } else {
+                fieldMeta = registry.getPlan(owner.getClass()).getFieldMetaMap().get(fieldName);
+                if (fieldMeta == null) {
+                    continue;
+                }
+                if (!fieldMeta.checkParamDependency(owner, fieldName, value)) {
+                    if (metrics != null) {
+                        metrics.recordDependencyRejected(ms.getId(), owner.getClass(), fieldMeta.getHandler(),
+                                FieldAccessPhase.PARAM);
+                    }
+                    continue;
                 }
             }
+            //同一个字段被绑定多次时只处理一次
+            if (paramOverlay.get(owner, fieldName) == ParamOverlay.ABSENT) {
+                modifyParamValue(owner, owner instanceof Map ? null : owner, fieldName, value, fieldMeta, batch);
+                rows++;
+            }
+        }
+        batch.flushParams();
+        for (Object owner : owners) {
+            if (owner instanceof Map) {
+                aliasQueryParams((Map<?, ?>) owner, plan.getQueryParamAliasMap(), paramOverlay);
+            }
+        }
+        recordStatement(metrics, ms, FieldAccessPhase.PARAM, rows, start);
+        return paramOverlay;
+    }
+
+    /**
+     * 修改入参中的对象，入参可能是单个对象，也可能是ParamMap、集合、数组以及它们之间的任意嵌套
+     *
+     * @return 处理的对象个数
+     */
+    private int modifyParamObjects(Object parameter, IdentityObjectSet visited, FieldBatch batch) throws Exception {
+        return ObjectGraphWalker.walk(parameter, visited, null, parameterObj -> modifyParamObject(parameterObj, batch));
+    }
+
+    /**
+     * 只有SQL不依赖参数值时才能延迟处理，动态SQL和${}在update时就用参数值生成了SQL，STATEMENT类型没有绑定参数这一步
+     * CALLABLE语句会注册OUT参数并把结果写回参数对象，也不延迟
+     */
+    private static boolean canDeferParams(MappedStatement ms) {
+        return ms.getStatementType() == StatementType.PREPARED && ms.getSqlSource() instanceof RawSqlSource;
+    }
+
+    private boolean isBatchExecutor(Object executor) {
+        if (deferredBatchParamsMap.containsKey(executor)) {
+            return true;
+        }
+        Object target = unwrapPlugin(executor);
+        if (target instanceof CachingExecutor && CACHING_EXECUTOR_DELEGATE_FIELD != null) {
+            target = unwrapPlugin(readField(CACHING_EXECUTOR_DELEGATE_FIELD, target));
+        }
+        return target instanceof BatchExecutor;
+    }
+
+    /**
+     * 执行update，期间StatementHandler的parameterize和batch只记录不执行
+     */
+    private Object proceedDeferred(Invocation invocation, MappedStatement ms, Object parameter) throws Exception {
+        DeferredBatchParams deferred = deferredBatchParamsMap.computeIfAbsent(invocation.getTarget(),
+                executor -> new DeferredBatchParams());
+        if (nonMutatingParams) {
+            //flush时才绑定参数，需要在update创建BoundSql之前安装
+            ParamOverlayWrapperFactory.install(ms.getConfiguration());
+        }
+        PENDING_UPDATE.set(new DeferredBatchParams.PendingUpdate(deferred, ms, parameter));
+        try {
+            return invocation.proceed();
+        } finally {
+            PENDING_UPDATE.remove();
+        }
+    }
+
+    /**
+     * 正在延迟处理的update绑定参数时只记录下来，其它情况（包括同一个update中生成主键的查询）正常执行
+     */
+    private Object interceptStatementHandler(Invocation invocation) throws Exception {
+        DeferredBatchParams.PendingUpdate pendingUpdate = PENDING_UPDATE.get();
+        if (pendingUpdate == null) {
+            return invocation.proceed();
+        }
+        if (resolveStatementHandlerMs(invocation.getTarget()) != pendingUpdate.getMs()) {
+            return invocation.proceed();
+        }
+        if ("parameterize".equals(invocation.getMethod().getName())) {
+            pendingUpdate.defer((StatementHandler) invocation.getTarget(), (Statement) invocation.getArgs()[0]);
+        }
+        //parameterize和batch都是void方法，batch在重新执行时和parameterize一起执行
+        return null;
+    }
+
+    /**
+     * 取出StatementHandler正在处理的MappedStatement，取不到时返回null
+     */
+    private static MappedStatement resolveStatementHandlerMs(Object target) {
+        if (ROUTING_STATEMENT_HANDLER_DELEGATE_FIELD == null || STATEMENT_HANDLER_MS_FIELD == null) {
+            return null;
+        }
+        Object handler = unwrapPlugin(target);
+        if (!(handler instanceof RoutingStatementHandler)) {
+            return null;
+        }
+        Object delegate = readField(ROUTING_STATEMENT_HANDLER_DELEGATE_FIELD, handler);
+        return delegate instanceof BaseStatementHandler
+                ? (MappedStatement) readField(STATEMENT_HANDLER_MS_FIELD, delegate) : null;
+    }
+
+    /**
+     * 执行批处理之前一次性修改Executor中所有延迟处理的参数对象，IBatchFieldAccessHandler只调用一次，
+     * 然后按update的顺序绑定参数并加入JDBC批处理
+     */
+    private void flushDeferredBatchParams(Object executor) throws Exception {
+        if (deferredBatchParamsMap.isEmpty()) {
+            return;
+        }
+        DeferredBatchParams deferred = deferredBatchParamsMap.remove(executor);
+        if (deferred == null) {
+            return;
+        }
+        IFieldAccessMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0L;
+        //只在所有参数都来自同一个MappedStatement时按它统计
+        MappedStatement ms = null;
+        for (DeferredBatchParams.Entry entry : deferred.getEntries()) {
+            if (ms == null) {
+                ms = entry.getMs();
+            } else if (ms != entry.getMs()) {
+                ms = null;
+                break;
+            }
+        }
+        ParamOverlay paramOverlay = nonMutatingParams ? new ParamOverlay() : null;
+        FieldBatch batch = newFieldBatch(ms != null ? ms.getId() : null, paramOverlay);
+        int rows = 0;
+        IdentityObjectSet visited = IdentityObjectSet.acquire();
+        try {
+            for (DeferredBatchParams.Entry entry : deferred.getEntries()) {
+                rows += modifyParamObjects(entry.getParameter(), visited, batch);
+            }
+        } finally {
+            visited.release();
+        }
+        batch.flushParams();
+        recordStatement(metrics, ms, FieldAccessPhase.PARAM, rows, start);
+        if (paramOverlay == null || paramOverlay.isEmpty()) {
+            deferred.replay();
+            return;
+        }
+        CURRENT_PARAM_OVERLAY.set(paramOverlay);
+        try {
+            deferred.replay();
+        } finally {
+            CURRENT_PARAM_OVERLAY.remove();
+        }
+    }
+
+    /**
+     * 修改单个参数对象上的被注解字段
+     */
+    private void modifyParamObject(Object parameterObj, FieldBatch batch) throws Exception {
+        ClassFieldPlan plan = registry.getPlan(parameterObj.getClass());
+        //类没有被注解标注时plan为空，不需要修改
+        for (int i = 0, size = plan.size(); i < size; i++) {
+            modifyParamObjectField(parameterObj, plan.getFieldName(i), plan.getFieldMeta(i), batch);
         }
-        //最后写入数据库
-        return invocation.proceed();
     }
 
     /**
      * 修改传到mybatis的参数对象属性
      */
-    private void modifyParamObjectField(Object parameterObj, String fieldName, AccessFieldMetaVO fieldMeta)
-            throws Exception {
+    private void modifyParamObjectField(Object parameterObj, String fieldName, AccessFieldMetaVO fieldMeta,
+                                        FieldBatch batch) throws Exception {
+        if (fieldMeta.isPrimitiveAccess()) {
+            modifyPrimitiveParamField(parameterObj, fieldName, fieldMeta, batch);
+            return;
+        }
+        Object oldValue = fieldMeta.readValue(parameterObj);
+        if (!fieldMeta.checkParamDependency(parameterObj, fieldName, oldValue)) {
+            IFieldAccessMetrics metrics = this.metrics;
+            if (metrics != null) {
+                metrics.recordDependencyRejected(batch.getStatementId(), parameterObj.getClass(),
+                        fieldMeta.getHandler(), FieldAccessPhase.PARAM);
+            }
+            return;
+        }
+        modifyParamValue(parameterObj, parameterObj, fieldName, oldValue, fieldMeta, batch);
+    }
+
+    /**
+     * 用handler修改参数值
+     *
+     * @param owner    新值写回的对象，查询语句的@Param参数时是参数Map
+     * @param paramObj handler收到的参数对象，查询语句的@Param参数没有所属的对象，为null
+     */
+    private void modifyParamValue(Object owner, Object paramObj, String fieldName, Object oldValue,
+                                  AccessFieldMetaVO fieldMeta, FieldBatch batch) throws Exception {
+        IFieldAccessMetrics metrics = this.metrics;
         IFieldAccessHandler handler = fieldMeta.getHandler();
-        Object oldValue = fieldMeta.getReadMethod().invoke(parameterObj);
-        Method dependencyMethod = fieldMeta.getParamDependencyMethod();
-        boolean dependencyResult = true;
-        if (dependencyMethod != null) {
-            dependencyResult =
-                    (boolean) dependencyMethod.invoke(parameterObj, parameterObj, fieldName, oldValue);
+        long start = metrics != null ? System.nanoTime() : 0L;
+        boolean allowed = fieldMeta.allowModifyParam(fieldName, oldValue, paramObj);
+        if (metrics != null) {
+            metrics.recordAllow(batch.getStatementId(), fieldMeta.getEntityClz(paramObj), handler,
+                    FieldAccessPhase.PARAM, allowed, System.nanoTime() - start);
+        }
+        if (allowed) {
+            if (fieldMeta.isCacheable()) {
+                Object cachedValue = fieldValueCache.getParam(fieldMeta, oldValue);
+                if (cachedValue != null) {
+                    batch.writeParam(fieldMeta, owner, oldValue, cachedValue);
+                    return;
+                }
+            }
+            if (handler instanceof IAsyncFieldAccessHandler) {
+                batch.addAsync((IAsyncFieldAccessHandler) handler, fieldMeta, owner,
+                        fieldMeta.newFieldAccessValue(fieldName, oldValue, paramObj));
+                return;
+            }
+            if (handler instanceof IBatchFieldAccessHandler) {
+                batch.add((IBatchFieldAccessHandler) handler, fieldMeta, owner,
+                        fieldMeta.newFieldAccessValue(fieldName, oldValue, paramObj));
+                return;
+            }
+            start = metrics != null ? System.nanoTime() : 0L;
+            Object newValue = fieldMeta.modifyParam(fieldName, oldValue, paramObj);
+            if (metrics != null) {
+                metrics.recordModify(batch.getStatementId(), fieldMeta.getEntityClz(paramObj), handler,
+                        FieldAccessPhase.PARAM, 1, System.nanoTime() - start);
+            }
+            if (fieldMeta.isCacheable()) {
+                fieldValueCache.putParam(fieldMeta, oldValue, newValue);
+            }
+            batch.writeParam(fieldMeta, owner, oldValue, newValue);
+        }
+    }
+
+    /**
+     * 按原始类型修改参数对象上的long/int字段
+     */
+    private void modifyPrimitiveParamField(Object parameterObj, String fieldName, AccessFieldMetaVO fieldMeta,
+                                           FieldBatch batch) throws Exception {
+        IFieldAccessMetrics metrics = this.metrics;
+        long oldValue = fieldMeta.readPrimitive(parameterObj);
+        if (fieldMeta.hasParamDependency()
+                && !fieldMeta.checkParamDependency(parameterObj, fieldName, fieldMeta.boxPrimitive(oldValue))) {
+            if (metrics != null) {
+                metrics.recordDependencyRejected(batch.getStatementId(), parameterObj.getClass(),
+                        fieldMeta.getHandler(), FieldAccessPhase.PARAM);
+            }
+            return;
+        }
+        long start = metrics != null ? System.nanoTime() : 0L;
+        boolean allowed = fieldMeta.allowModifyPrimitiveParam(fieldName, oldValue, parameterObj);
+        if (metrics != null) {
+            metrics.recordAllow(batch.getStatementId(), parameterObj.getClass(), fieldMeta.getHandler(),
+                    FieldAccessPhase.PARAM, allowed, System.nanoTime() - start);
+        }
+        if (allowed) {
+            start = metrics != null ? System.nanoTime() : 0L;
+            long newValue = fieldMeta.modifyPrimitiveParam(fieldName, oldValue, parameterObj);
+            if (metrics != null) {
+                metrics.recordModify(batch.getStatementId(), parameterObj.getClass(), fieldMeta.getHandler(),
+                        FieldAccessPhase.PARAM, 1, System.nanoTime() - start);
+            }
+            batch.writePrimitiveParam(fieldMeta, parameterObj, oldValue, newValue);
+        }
+    }
+
+
+    /**
+     * 运行时注册被@EnableFieldAccessInterceptor标记的类，例如模块或插件加载之后的实体类
+     * 已经注册过的类按当前注解重新构造，类上的依赖方法之后对使用同一handler的新注册字段生效
+     */
+    public synchronized void register(Class<?>... clzs) {
+        Set<Class<?>> accessClzSet = new HashSet<>();
+        for (Class<?> clz : clzs) {
+            if (!clz.isAnnotationPresent(EnableFieldAccessInterceptor.class)) {
+                throw new IllegalArgumentException("class " + clz.getName()
+                        + " is not marked by @EnableFieldAccessInterceptor");
+            }
+            accessClzSet.add(clz);
+        }
+        publishRegistry(registry.register(buildAccessClzMetaMap(accessClzSet, Collections.emptyMap())));
+    }
+
+    /**
+     * 运行时注册scanPaths下被@EnableFieldAccessInterceptor标记的类，有编译期索引的模块使用索引，其它模块并行扫描
+     */
+    public synchronized void registerPackages(String... scanPaths) {
+        List<String> scanPathList = Arrays.asList(scanPaths);
+        ClassLoader classLoader = getClassLoader();
+        FieldAccessIndex index = FieldAccessIndex.load(scanPathList, classLoader);
+        Set<Class<?>> accessClzSet = index.findAccessClzSet(scanPathList, classLoader);
+        publishRegistry(registry.register(buildAccessClzMetaMap(accessClzSet, index.getIndexedFieldMap())));
+    }
+
+    /**
+     * 注销类，之后开始执行的语句不再处理这些类的对象，正在执行的语句不受影响
+     */
+    public synchronized void unregister(Class<?>... clzs) {
+        publishRegistry(registry.unregister(Arrays.asList(clzs)));
+    }
+
+    /**
+     * 把所有@FieldAccess(handler = handlerClz)字段的handler替换为新的对象，之后注册的类也使用新的对象
+     * 同时清空handler转换结果缓存
+     */
+    public synchronized void replaceHandler(Class<? extends IFieldAccessHandler> handlerClz,
+                                            IFieldAccessHandler handler) {
+        if (!handlerClz.isInstance(handler)) {
+            throw new IllegalArgumentException("handler " + handler.getClass().getName() + " is not instance of "
+                    + handlerClz.getName());
+        }
+        handlerMap.put(handlerClz, handler);
+        publishRegistry(registry.replace(fieldMeta ->
+                fieldMeta.getField().getAnnotation(FieldAccess.class).handler() == handlerClz
+                        ? fieldMeta.copy(handler, fieldMeta.getHandlerParams()) : fieldMeta));
+        fieldValueCache.invalidateAll();
+    }
+
+    /**
+     * 替换clz上（包括从父类继承的）fieldName字段的handlerParams，例如切换当前使用的密钥别名
+     * 继承了该字段的已注册子类同时替换，下次注册时仍然使用注解上的handlerParams
+     */
+    public synchronized void replaceHandlerParams(Class<?> clz, String fieldName, List<String> handlerParams) {
+        Field field = findAccessField(clz, fieldName);
+        if (field == null) {
+            throw new IllegalArgumentException("field " + fieldName + " of class " + clz.getName()
+                    + " is not marked by @FieldAccess");
         }
-        if (dependencyResult && handler
-                .allowModifyParam(fieldName, oldValue, parameterObj, fieldMeta.getHandlerParams())) {
-            fieldMeta.getWriteMethod().invoke(parameterObj,
-                    handler.modifyParam(fieldName, oldValue, parameterObj, fieldMeta.getHandlerParams()));
+        List<String> params = new ArrayList<>(handlerParams);
+        UnaryOperator<AccessFieldMetaVO> replacer = fieldMeta -> field.equals(fieldMeta.getField())
+                ? fieldMeta.copy(fieldMeta.getHandler(), params) : fieldMeta;
+        publishRegistry(registry.replace(replacer));
+    }
+
+    private static Field findAccessField(Class<?> clz, String fieldName) {
+        for (Class<?> declaringClz = clz; declaringClz != null && declaringClz != Object.class;
+             declaringClz = declaringClz.getSuperclass()) {
+            for (Field field : declaringClz.getDeclaredFields()) {
+                if (field.getName().equals(fieldName)) {
+                    return field.isAnnotationPresent(FieldAccess.class) ? field : null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 发布新的注册信息，之后开始执行的语句使用新的注册信息，正在执行的语句继续使用原来的
+     * 语句的拦截计划和TypeHandler模式替换的TypeHandler按新的注册信息重新生成
+     */
+    private void publishRegistry(FieldAccessRegistry registry) {
+        this.registry = registry;
+        this.statementPlanMap = new ConcurrentHashMap<>();
+        if (typeHandlerInstaller != null) {
+            typeHandlerInstaller = typeHandlerInstaller.withRegistry(registry);
         }
     }
 
+    /**
+     * 返回值行数达到该阈值时开启并行处理，小于等于0表示不开启
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * 并行处理使用的线程池，可以是ForkJoinPool或者虚拟线程Executor，不设置时使用ForkJoinPool.commonPool()
+     */
+    public void setParallelExecutor(java.util.concurrent.Executor parallelExecutor) {
+        this.parallelExecutor = parallelExecutor;
+    }
+
+    /**
+     * 并行处理时每个任务处理的行数
+     */
+    public void setParallelChunkSize(int parallelChunkSize) {
+        if (parallelChunkSize <= 0) {
+            throw new IllegalArgumentException("parallelChunkSize must be positive");
+        }
+        this.parallelChunkSize = parallelChunkSize;
+    }
+
+    /**
+     * 开启后查询中由LazyResultObjectFactory直接创建代理子类对象，被@FieldAccess标记的字段在第一次调用get方法时才执行handler并缓存结果
+     * 需要把LazyResultObjectFactory设置为Configuration的ObjectFactory，没有设置、类不能代理或者游标返回的对象仍然立即处理；
+     * 没有读取过的字段仍然是数据库中的值，直接访问字段的toString/equals/hashCode和序列化框架之前需要调用resolveLazyFields()
+     */
+    public void setLazyResult(boolean lazyResult) {
+        this.lazyResult = lazyResult;
+    }
+
+    /**
+     * 开启后使用ExecutorType.BATCH时，参数对象在flushStatements（包括commit和同一个SqlSession中的查询）之前才统一修改，
+     * IBatchFieldAccessHandler一次收到整个批次的值。参数在flush时才绑定到JDBC，insert之后到flush之前不能再修改参数对象；
+     * 动态SQL、${}和STATEMENT类型的语句仍然在update时立即处理
+     */
+    public void setDeferBatchParams(boolean deferBatchParams) {
+        this.deferBatchParams = deferBatchParams;
+    }
+
+    /**
+     * 开启后不再把入参字段的新值写回调用方的参数对象，只在绑定JDBC参数时使用新值，执行完参数对象上仍然是原值
+     * 只替换#{}绑定的参数，${}在生成SQL时仍然使用原值；绑定仍然由ParameterHandler和其它插件执行，
+     * 第一次使用时在Configuration上安装ParamOverlayWrapperFactory，让MyBatis读取参数时得到新值
+     */
+    public void setNonMutatingParams(boolean nonMutatingParams) {
+        this.nonMutatingParams = nonMutatingParams;
+    }
+
+    /**
+     * 开启后查询语句（Executor#query/queryCursor）的参数也会用handler的modifyParam处理，用于按加密或哈希后的值查询：
+     * 参数中被注解的对象按字段处理；@Param参数名和返回值类型上被注解字段同名时按该字段的handler处理，这个参数没有所属的对象，handler收到的paramObj为null。
+     * SQL中用param1等通用参数名引用这个参数时同样使用新值，没有@Param时的arg0等参数名不处理。
+     * 新值只在绑定#{}参数时使用，不修改调用方传入的对象，handler必须对相同的值返回相同的结果
+     */
+    public void setInterceptQueryParams(boolean interceptQueryParams) {
+        this.interceptQueryParams = interceptQueryParams;
+    }
+
+    /**
+     * 开启后被@FieldAccess注解字段的TypeHandler被包装，返回值在MyBatis从ResultSet读出时直接转换，映射完成后不再遍历对象；
+     * 入参不提前处理也不修改参数对象，在绑定JDBC参数时按绑定的参数处理（包括setNonMutatingParams和setInterceptQueryParams的范围），
+     * BatchExecutor的参数不再延迟处理。转换时对象还没有创建完，handler收到的resultObj为null，需要resultObj的handler不能使用该模式；
+     * 有@ModifyResultDependency的字段、&lt;id&gt;/&lt;idArg&gt;映射的字段、使用&lt;constructor&gt;创建和没有无参构造方法的类
+     * 仍然在映射完成后处理。
+     * 开启时会替换Configuration中ResultMapping的TypeHandler，关闭时还原，应在没有语句执行时切换；
+     * ResultMap或MappedStatement被替换（例如热加载Mapper）后，下次执行时重新替换。
+     * 同一个Configuration上只能有一个拦截器开启该模式，否则执行查询时抛出IllegalStateException；
+     * 当前MyBatis版本的内部实现和预期不一致时抛出IllegalStateException
+     */
+    public synchronized void setTypeHandlerMode(boolean typeHandlerMode) {
+        if (typeHandlerMode && typeHandlerInstaller == null) {
+            if (PARAMETER_HANDLER_BOUND_SQL_FIELD == null || PARAMETER_HANDLER_CONFIGURATION_FIELD == null
+                    || PARAMETER_HANDLER_MS_FIELD == null) {
+                throw new IllegalStateException("TypeHandler mode is not supported by this MyBatis version, cannot access "
+                        + DefaultParameterHandler.class.getName() + ".boundSql/configuration/mappedStatement");
+            }
+            typeHandlerInstaller = new FieldAccessTypeHandlerInstaller(this, registry);
+        }
+        this.typeHandlerMode = typeHandlerMode;
+        if (!typeHandlerMode && typeHandlerInstaller != null) {
+            typeHandlerInstaller.uninstall();
+            typeHandlerInstaller = null;
+        }
+    }
+
+    /**
+     * IAsyncFieldAccessHandler每个handler同时进行中的调用数上限，默认64，达到上限时当前线程等待
+     */
+    public void setAsyncMaxInFlight(int asyncMaxInFlight) {
+        if (asyncMaxInFlight <= 0) {
+            throw new IllegalArgumentException("asyncMaxInFlight must be positive");
+        }
+        asyncFieldExecutor.setMaxInFlight(asyncMaxInFlight);
+    }
+
+    /**
+     * 一条语句中所有IAsyncFieldAccessHandler调用完成的期限，超过时cancel还没完成的调用并抛出TimeoutException，
+     * 默认小于等于0不限制
+     */
+    public void setAsyncTimeout(long duration, TimeUnit unit) {
+        asyncFieldExecutor.setTimeout(duration, unit);
+    }
+
+    /**
+     * 调用IAsyncFieldAccessHandler的线程池，不设置时JDK 21及以上使用虚拟线程，否则使用固定大小的daemon线程池
+     */
+    public void setAsyncExecutor(java.util.concurrent.Executor asyncExecutor) {
+        asyncFieldExecutor.setExecutor(asyncExecutor);
+    }
+
+    /**
+     * 设置拦截开销统计，默认为null不统计，可以使用LongAdderFieldAccessMetrics、MicrometerFieldAccessMetrics或JfrFieldAccessMetrics
+     */
+    public void setMetrics(IFieldAccessMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * handler转换结果缓存每个缓存最多保存的条数，默认10000，修改后已有缓存会被清空
+     */
+    public void setHandlerCacheMaximumSize(long maximumSize) {
+        fieldValueCache.setMaximumSize(maximumSize);
+    }
+
+    /**
+     * handler转换结果缓存写入后的过期时间，默认10分钟，修改后已有缓存会被清空
+     */
+    public void setHandlerCacheExpireAfterWrite(long duration, TimeUnit unit) {
+        fieldValueCache.setExpireAfterWrite(duration, unit);
+    }
+
+    /**
+     * handler转换结果缓存的命中统计，key为声明类.字段名:handler类名+handlerParams+#result/#param
+     */
+    public Map<String, CacheStats> getHandlerCacheStats() {
+        return fieldValueCache.stats();
+    }
+
+    /**
+     * 一次处理中要执行的handler范围
+     */
+    private enum HandlerScope {
+        ALL,
+        /**
+         * 只处理线程安全的handler
+         */
+        CONCURRENT,
+        /**
+         * 只处理被@NonConcurrentHandler标记的handler
+         */
+        SERIAL;
+
+        boolean accept(AccessFieldMetaVO fieldMeta) {
+            return this == ALL || fieldMeta.isConcurrentHandler() == (this == CONCURRENT);
+        }
+    }
 
     @Override
     public Object plugin(Object target) {
-        if (target instanceof ResultSetHandler || target instanceof Executor) {
+        if (target instanceof ResultSetHandler || target instanceof Executor || target instanceof StatementHandler
+                || target instanceof ParameterHandler) {
             return Plugin.wrap(target, this);
         }
         return target;
@@ -0,0 +1,115 @@
+package com.github.mybatis.field.interceptor;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * 被@EnableFieldAccessInterceptor标记的类的字段元信息，按运行时的类查找
+ * 运行时的类可能是被注解类的子类，或者MyBatis延迟加载、懒加载模式生成的代理类，沿父类向上找到最近的被注解类
+ * 每个运行时的类只查找一次，结果（包括找不到的情况）缓存在ClassValue里，之后每个对象只需要一次按类的查找
+ * 创建后不再修改，运行时注册、注销类或替换handler时生成新的对象整体替换，读取时不需要加锁
+ * Created on 2026-10-17
+ */
+final class FieldAccessRegistry {
+
+    /**
+     * 没有任何被注解的类，用于创建第一个对象
+     */
+    static final FieldAccessRegistry EMPTY = new FieldAccessRegistry(Collections.emptyMap());
+
+    //  Map<被注解的类,字段处理计划>，字段包括从父类继承的被@FieldAccess注解的字段
+    private final Map<Class<?>, ClassFieldPlan> accessClzPlanMap;
+
+    //  运行时的类对应的字段处理计划，不需要处理的类为ClassFieldPlan.EMPTY
+    private final ClassValue<ClassFieldPlan> resolvedPlan = new ClassValue<ClassFieldPlan>() {
+        @Override
+        protected ClassFieldPlan computeValue(Class<?> type) {
+            return resolve(type);
+        }
+    };
+
+    private FieldAccessRegistry(Map<Class<?>, ClassFieldPlan> accessClzPlanMap) {
+        this.accessClzPlanMap = Collections.unmodifiableMap(accessClzPlanMap);
+    }
+
+    private ClassFieldPlan resolve(Class<?> type) {
+        if (type.isPrimitive() || type.isArray() || type.isInterface()) {
+            return ClassFieldPlan.EMPTY;
+        }
+        for (Class<?> clz = type; clz != null && clz != Object.class; clz = clz.getSuperclass()) {
+            ClassFieldPlan plan = accessClzPlanMap.get(clz);
+            if (plan != null) {
+                return plan;
+            }
+        }
+        return ClassFieldPlan.EMPTY;
+    }
+
+    /**
+     * 查找运行时的类上被注解字段的处理计划，不需要处理的类返回ClassFieldPlan.EMPTY
+     */
+    ClassFieldPlan getPlan(Class<?> clz) {
+        return resolvedPlan.get(clz);
+    }
+
+    /**
+     * 查找运行时的类上被注解字段的元信息
+     *
+     * @return Map<字段名,字段上的元信息>，不需要处理的类返回空Map
+     */
+    Map<String, AccessFieldMetaVO> getFieldMetaMap(Class<?> clz) {
+        return resolvedPlan.get(clz).getFieldMetaMap();
+    }
+
+    /**
+     * 被注解并且有被@FieldAccess注解字段的类
+     */
+    Set<Class<?>> getAccessClzSet() {
+        return accessClzPlanMap.keySet();
+    }
+
+    /**
+     * 增加或覆盖accessClzMetaMap中的类
+     */
+    FieldAccessRegistry register(Map<Class<?>, Map<String, AccessFieldMetaVO>> accessClzMetaMap) {
+        Map<Class<?>, ClassFieldPlan> accessClzPlanMap = new HashMap<>(this.accessClzPlanMap);
+        accessClzMetaMap.forEach((clz, fieldMetaMap) -> accessClzPlanMap.put(clz, new ClassFieldPlan(fieldMetaMap)));
+        return new FieldAccessRegistry(accessClzPlanMap);
+    }
+
+    /**
+     * 去掉clzs中的类，子类不受影响
+     */
+    FieldAccessRegistry unregister(Collection<Class<?>> clzs) {
+        Map<Class<?>, ClassFieldPlan> accessClzPlanMap = new HashMap<>(this.accessClzPlanMap);
+        accessClzPlanMap.keySet().removeAll(clzs);
+        return new FieldAccessRegistry(accessClzPlanMap);
+    }
+
+    /**
+     * 用replacer替换每个字段的元信息，replacer返回原对象时不替换，没有字段被替换的类沿用原来的处理计划
+     */
+    FieldAccessRegistry replace(UnaryOperator<AccessFieldMetaVO> replacer) {
+        Map<Class<?>, ClassFieldPlan> accessClzPlanMap = new HashMap<>(this.accessClzPlanMap);
+        for (Map.Entry<Class<?>, ClassFieldPlan> entry : accessClzPlanMap.entrySet()) {
+            Map<String, AccessFieldMetaVO> fieldMetaMap = new LinkedHashMap<>(entry.getValue().getFieldMetaMap());
+            boolean replaced = false;
+            for (Map.Entry<String, AccessFieldMetaVO> fieldEntry : fieldMetaMap.entrySet()) {
+                AccessFieldMetaVO fieldMeta = replacer.apply(fieldEntry.getValue());
+                if (fieldMeta != fieldEntry.getValue()) {
+                    fieldEntry.setValue(fieldMeta);
+                    replaced = true;
+                }
+            }
+            if (replaced) {
+                entry.setValue(new ClassFieldPlan(fieldMetaMap));
+            }
+        }
+        return new FieldAccessRegistry(accessClzPlanMap);
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.mybatis.field.interceptor;
+
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+
+/**
+ * 包装调用方传入的ResultHandler，每一行交给调用方之前先修改这一行的属性
+ * Created on 2026-10-17
+ */
+final class FieldAccessResultHandler<T> implements ResultHandler<T> {
+
+    private final ResultHandler<T> delegate;
+    private final FieldAccessInterceptor interceptor;
+    //  MappedStatement的id，取不到时为null
+    private final String statementId;
+
+    FieldAccessResultHandler(ResultHandler<T> delegate, FieldAccessInterceptor interceptor, String statementId) {
+        this.delegate = delegate;
+        this.interceptor = interceptor;
+        this.statementId = statementId;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void handleResult(ResultContext<? extends T> resultContext) {
+        T resultObj = resultContext.getResultObject();
+        T newResultObj;
+        try {
+            newResultObj = (T) interceptor.modifyResultRow(resultObj, statementId);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        if (newResultObj == resultObj) {
+            delegate.handleResult(resultContext);
+        } else {
+            //懒加载模式下对象被替换为代理对象
+            delegate.handleResult(new ReplacedResultContext<>(resultContext, newResultObj));
+        }
+    }
+
+    /**
+     * 返回替换后对象的ResultContext，其余方法交给MyBatis原来的ResultContext
+     */
+    private static final class ReplacedResultContext<T> implements ResultContext<T> {
+
+        private final ResultContext<?> delegate;
+        private final T resultObject;
+
+        private ReplacedResultContext(ResultContext<?> delegate, T resultObject) {
+            this.delegate = delegate;
+            this.resultObject = resultObject;
+        }
+
+        @Override
+        public T getResultObject() {
+            return resultObject;
+        }
+
+        @Override
+        public int getResultCount() {
+            return delegate.getResultCount();
+        }
+
+        @Override
+        public boolean isStopped() {
+            return delegate.isStopped();
+        }
+
+        @Override
+        public void stop() {
+            delegate.stop();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.mybatis.field.interceptor;
+
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeException;
+import org.apache.ibatis.type.TypeHandler;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * TypeHandler模式下包装被@FieldAccess注解字段原来的TypeHandler，从ResultSet读出值之后立即用handler的modifyResult转换
+ * 绑定参数仍然交给原来的TypeHandler，入参在FieldAccessInterceptor拦截ParameterHandler#setParameters时处理
+ * Created on 2026-10-17
+ */
+final class FieldAccessTypeHandler implements TypeHandler<Object> {
+
+    private final TypeHandler<Object> delegate;
+    private final FieldAccessInterceptor interceptor;
+    //  字段所在ResultMap的类型，统计时作为实体类
+    private final Class<?> resultClz;
+    private final String fieldName;
+    private final AccessFieldMetaVO fieldMeta;
+
+    @SuppressWarnings("unchecked")
+    FieldAccessTypeHandler(TypeHandler<?> delegate, FieldAccessInterceptor interceptor, Class<?> resultClz,
+                           String fieldName, AccessFieldMetaVO fieldMeta) {
+        this.delegate = (TypeHandler<Object>) delegate;
+        this.interceptor = interceptor;
+        this.resultClz = resultClz;
+        this.fieldName = fieldName;
+        this.fieldMeta = fieldMeta;
+    }
+
+    @Override
+    public void setParameter(PreparedStatement ps, int i, Object parameter, JdbcType jdbcType) throws SQLException {
+        delegate.setParameter(ps, i, parameter, jdbcType);
+    }
+
+    @Override
+    public Object getResult(ResultSet rs, String columnName) throws SQLException {
+        return modifyResult(delegate.getResult(rs, columnName));
+    }
+
+    @Override
+    public Object getResult(ResultSet rs, int columnIndex) throws SQLException {
+        return modifyResult(delegate.getResult(rs, columnIndex));
+    }
+
+    @Override
+    public Object getResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return modifyResult(delegate.getResult(cs, columnIndex));
+    }
+
+    /**
+     * 关闭TypeHandler模式后直接返回原值，由拦截器在映射完成后处理
+     */
+    private Object modifyResult(Object value) throws SQLException {
+        if (!interceptor.isTypeHandlerMode()) {
+            return value;
+        }
+        try {
+            return interceptor.modifyMappedResult(fieldMeta, resultClz, fieldName, value);
+        } catch (SQLException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new TypeException("Could not modify result for field " + fieldMeta.getField() + ". Cause: " + e, e);
+        }
+    }
+
+    TypeHandler<Object> getDelegate() {
+        return delegate;
+    }
+
+    AccessFieldMetaVO getFieldMeta() {
+        return fieldMeta;
+    }
+}
@@ -0,0 +1,473 @@
+package com.github.mybatis.field.interceptor;
+
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.mapping.Discriminator;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandler;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TypeHandler模式下把被@FieldAccess注解字段的TypeHandler替换为FieldAccessTypeHandler
+ * 显式映射的属性在第一次执行statement之前替换ResultMapping上的TypeHandler；自动映射在每次执行时才生成，
+ * 替换DefaultResultSetHandler的autoMappingsCache，生成自动映射时替换其中的TypeHandler
+ * 以下字段仍然在映射完成后处理：有@ModifyResultDependency的字段（依赖方法需要完整的对象），
+ * 没有无参构造方法的类（MyBatis按列顺序调用构造方法，不经过属性映射），
+ * 任意ResultMap中作为&lt;id&gt;/&lt;idArg&gt;映射的字段（MyBatis计算行的key时还会再读取一次），
+ * 任意ResultMap中使用&lt;constructor&gt;创建的类（无法确定构造参数对应哪个字段）
+ * 替换的是Configuration中共享的ResultMapping，注册信息变化后创建的新对象继续记录这些ResultMapping，
+ * 重新替换时先还原之前替换的TypeHandler，关闭TypeHandler模式时全部还原
+ * Configuration中的ResultMap按地址比较，添加或替换（例如热加载Mapper）后重新计算，不再使用的ResultMapping还原；
+ * statement按MappedStatement对象记录，被替换后重新替换新的ResultMap
+ * 同一个Configuration上只能有一个拦截器开启TypeHandler模式，否则执行语句时抛出IllegalStateException
+ * MyBatis内部的类或字段和预期不一致时，开启TypeHandler模式直接失败，不会静默退回映射后处理
+ * Created on 2026-10-17
+ */
+final class FieldAccessTypeHandlerInstaller {
+
+    //  ResultMapping上的TypeHandler、DefaultResultSetHandler上的自动映射缓存，找不到时为null
+    private static final Field RESULT_MAPPING_TYPE_HANDLER_FIELD =
+            findPrivateField(ResultMapping.class, "typeHandler");
+    private static final Field AUTO_MAPPINGS_CACHE_FIELD =
+            findPrivateField(DefaultResultSetHandler.class, "autoMappingsCache");
+
+    //  DefaultResultSetHandler.UnMappedColumnAutoMapping的构造方法和字段，找不到时为null
+    private static final Class<?> AUTO_MAPPING_CLASS =
+            findClass(DefaultResultSetHandler.class.getName() + "$UnMappedColumnAutoMapping");
+    private static final Constructor<?> AUTO_MAPPING_CONSTRUCTOR = findAutoMappingConstructor();
+    private static final Field AUTO_MAPPING_COLUMN_FIELD = findPrivateField(AUTO_MAPPING_CLASS, "column");
+    private static final Field AUTO_MAPPING_PROPERTY_FIELD = findPrivateField(AUTO_MAPPING_CLASS, "property");
+    private static final Field AUTO_MAPPING_TYPE_HANDLER_FIELD = findPrivateField(AUTO_MAPPING_CLASS, "typeHandler");
+    private static final Field AUTO_MAPPING_PRIMITIVE_FIELD = findPrivateField(AUTO_MAPPING_CLASS, "primitive");
+
+    private final FieldAccessInterceptor interceptor;
+    private final FieldAccessRegistry registry;
+
+    //  替换过TypeHandler的ResultMapping，注册信息变化后新旧对象共用，替换和还原时持有它的锁
+    private final Set<ResultMapping> wrappedMappings;
+
+    //  已经替换过TypeHandler的ResultMap，Map<statement id,替换过的MappedStatement>
+    private final Set<ResultMap> installedResultMaps = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<String, MappedStatement> installedStatementMap = new ConcurrentHashMap<>();
+
+    //  Map<ResultMap id,ResultMap的类型>，只包括可以替换TypeHandler的ResultMap，用于匹配autoMappingsCache的key
+    private final Map<String, Class<?>> resultMapTypeMap = new ConcurrentHashMap<>();
+
+    //  不能在映射时转换的被注解字段，根据Configuration中所有的ResultMap计算，ResultMap被添加或替换时重新计算
+    private volatile Set<Field> residualFields = Collections.emptySet();
+    private Set<ResultMap> knownResultMaps;
+
+    //  运行时的类在映射完成后仍然需要处理的字段，residualFields变化后重新创建
+    private volatile ClassValue<ClassFieldPlan> residualPlan = newResidualPlan();
+
+    FieldAccessTypeHandlerInstaller(FieldAccessInterceptor interceptor, FieldAccessRegistry registry) {
+        this(interceptor, registry, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    private FieldAccessTypeHandlerInstaller(FieldAccessInterceptor interceptor, FieldAccessRegistry registry,
+                                            Set<ResultMapping> wrappedMappings) {
+        List<String> missingMembers = findMissingMembers();
+        if (!missingMembers.isEmpty()) {
+            throw new IllegalStateException("TypeHandler mode is not supported by this MyBatis version, cannot access "
+                    + missingMembers);
+        }
+        this.interceptor = interceptor;
+        this.registry = registry;
+        this.wrappedMappings = wrappedMappings;
+    }
+
+    /**
+     * 按新的注册信息替换，之前替换过的ResultMapping仍然由新对象记录
+     */
+    FieldAccessTypeHandlerInstaller withRegistry(FieldAccessRegistry registry) {
+        return new FieldAccessTypeHandlerInstaller(interceptor, registry, wrappedMappings);
+    }
+
+    /**
+     * 需要通过反射访问的MyBatis内部成员中找不到或者类型不一致的部分
+     */
+    private static List<String> findMissingMembers() {
+        List<String> missingMembers = new ArrayList<>();
+        if (RESULT_MAPPING_TYPE_HANDLER_FIELD == null
+                || !RESULT_MAPPING_TYPE_HANDLER_FIELD.getType().isAssignableFrom(FieldAccessTypeHandler.class)) {
+            missingMembers.add("ResultMapping.typeHandler");
+        }
+        if (AUTO_MAPPINGS_CACHE_FIELD == null || !AUTO_MAPPINGS_CACHE_FIELD.getType().isAssignableFrom(HashMap.class)) {
+            missingMembers.add("DefaultResultSetHandler.autoMappingsCache");
+        }
+        if (AUTO_MAPPING_CONSTRUCTOR == null) {
+            missingMembers.add("UnMappedColumnAutoMapping(String, String, TypeHandler, boolean)");
+        }
+        if (AUTO_MAPPING_COLUMN_FIELD == null || AUTO_MAPPING_PROPERTY_FIELD == null
+                || AUTO_MAPPING_TYPE_HANDLER_FIELD == null || AUTO_MAPPING_PRIMITIVE_FIELD == null) {
+            missingMembers.add("UnMappedColumnAutoMapping.column/property/typeHandler/primitive");
+        }
+        return missingMembers;
+    }
+
+    /**
+     * 替换statement的ResultMap（包括嵌套ResultMap和discriminator分支）中被注解字段的TypeHandler，
+     * 每个MappedStatement对象只执行一次
+     */
+    void install(MappedStatement ms) {
+        if (installedStatementMap.get(ms.getId()) == ms) {
+            return;
+        }
+        synchronized (wrappedMappings) {
+            if (installedStatementMap.get(ms.getId()) == ms) {
+                return;
+            }
+            checkSingleInterceptor(ms.getConfiguration());
+            refreshResidualFields(ms.getConfiguration());
+            for (ResultMap resultMap : ms.getResultMaps()) {
+                installResultMap(ms.getConfiguration(), resultMap);
+            }
+            installedStatementMap.put(ms.getId(), ms);
+        }
+    }
+
+    /**
+     * 两个拦截器会互相替换和还原同一批共享的ResultMapping，同一个Configuration上只允许一个拦截器开启TypeHandler模式
+     */
+    private void checkSingleInterceptor(Configuration configuration) {
+        for (Object other : configuration.getInterceptors()) {
+            if (other != interceptor && other instanceof FieldAccessInterceptor
+                    && ((FieldAccessInterceptor) other).isTypeHandlerMode()) {
+                throw new IllegalStateException("TypeHandler mode is enabled on more than one FieldAccessInterceptor "
+                        + "of the same Configuration");
+            }
+        }
+    }
+
+    /**
+     * 还原所有替换过的TypeHandler
+     */
+    void uninstall() {
+        synchronized (wrappedMappings) {
+            for (ResultMapping resultMapping : wrappedMappings) {
+                TypeHandler<?> typeHandler = resultMapping.getTypeHandler();
+                if (typeHandler instanceof FieldAccessTypeHandler) {
+                    writeField(RESULT_MAPPING_TYPE_HANDLER_FIELD, resultMapping,
+                            ((FieldAccessTypeHandler) typeHandler).getDelegate());
+                }
+            }
+            wrappedMappings.clear();
+        }
+    }
+
+    /**
+     * Configuration中的ResultMap和上次计算时不是同一批对象时，重新计算不能在映射时转换的字段；
+     * 新增的字段和已经不在Configuration中的ResultMapping如果之前替换过TypeHandler，先还原
+     */
+    private void refreshResidualFields(Configuration configuration) {
+        Set<ResultMap> resultMaps = findResultMaps(configuration);
+        if (knownResultMaps != null && knownResultMaps.size() == resultMaps.size()
+                && knownResultMaps.containsAll(resultMaps)) {
+            return;
+        }
+        Set<Field> fields = new HashSet<>();
+        Set<ResultMapping> resultMappings = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (ResultMap resultMap : resultMaps) {
+            collectResidualFields(resultMap, fields);
+            resultMappings.addAll(resultMap.getResultMappings());
+        }
+        for (Iterator<ResultMapping> iterator = wrappedMappings.iterator(); iterator.hasNext(); ) {
+            ResultMapping resultMapping = iterator.next();
+            TypeHandler<?> typeHandler = resultMapping.getTypeHandler();
+            if (!(typeHandler instanceof FieldAccessTypeHandler)) {
+                iterator.remove();
+            } else if (!resultMappings.contains(resultMapping)
+                    || fields.contains(((FieldAccessTypeHandler) typeHandler).getFieldMeta().getField())) {
+                writeField(RESULT_MAPPING_TYPE_HANDLER_FIELD, resultMapping,
+                        ((FieldAccessTypeHandler) typeHandler).getDelegate());
+                iterator.remove();
+            }
+        }
+        installedResultMaps.retainAll(resultMaps);
+        knownResultMaps = resultMaps;
+        if (!fields.equals(residualFields)) {
+            residualFields = Collections.unmodifiableSet(fields);
+            residualPlan = newResidualPlan();
+        }
+    }
+
+    /**
+     * Configuration中所有的ResultMap，同一个对象按完整id和短名称各保存一次，短名称重复时保存的是MyBatis的Ambiguity对象
+     */
+    private static Set<ResultMap> findResultMaps(Configuration configuration) {
+        Set<ResultMap> resultMaps = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Object resultMap : configuration.getResultMaps()) {
+            if (resultMap instanceof ResultMap) {
+                resultMaps.add((ResultMap) resultMap);
+            }
+        }
+        return resultMaps;
+    }
+
+    /**
+     * &lt;constructor&gt;创建的类的所有被注解字段，以及&lt;id&gt;映射的被注解字段
+     */
+    private void collectResidualFields(ResultMap resultMap, Set<Field> fields) {
+        ClassFieldPlan plan = registry.getPlan(resultMap.getType());
+        if (plan.isEmpty()) {
+            return;
+        }
+        if (!resultMap.getConstructorResultMappings().isEmpty()) {
+            for (int i = 0; i < plan.size(); i++) {
+                fields.add(plan.getFieldMeta(i).getField());
+            }
+            return;
+        }
+        for (ResultMapping resultMapping : resultMap.getIdResultMappings()) {
+            AccessFieldMetaVO fieldMeta = resultMapping.getProperty() == null ? null
+                    : plan.getFieldMetaMap().get(resultMapping.getProperty());
+            if (fieldMeta != null) {
+                fields.add(fieldMeta.getField());
+            }
+        }
+    }
+
+    private ClassValue<ClassFieldPlan> newResidualPlan() {
+        return new ClassValue<ClassFieldPlan>() {
+            @Override
+            protected ClassFieldPlan computeValue(Class<?> type) {
+                return resolveResidualPlan(type);
+            }
+        };
+    }
+
+    private void installResultMap(Configuration configuration, ResultMap resultMap) {
+        if (!installedResultMaps.add(resultMap)) {
+            return;
+        }
+        ClassFieldPlan plan = isMappedBySetters(configuration, resultMap.getType())
+                ? registry.getPlan(resultMap.getType()) : ClassFieldPlan.EMPTY;
+        if (!plan.isEmpty()) {
+            resultMapTypeMap.put(resultMap.getId(), resultMap.getType());
+        }
+        for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+            String nestedResultMapId = resultMapping.getNestedResultMapId();
+            if (nestedResultMapId != null) {
+                if (configuration.hasResultMap(nestedResultMapId)) {
+                    installResultMap(configuration, configuration.getResultMap(nestedResultMapId));
+                }
+                continue;
+            }
+            AccessFieldMetaVO fieldMeta = resultMapping.getProperty() == null ? null
+                    : plan.getFieldMetaMap().get(resultMapping.getProperty());
+            TypeHandler<?> typeHandler = resultMapping.getTypeHandler();
+            if (typeHandler instanceof FieldAccessTypeHandler) {
+                //按之前的注册信息替换过，使用原来的TypeHandler重新判断
+                typeHandler = ((FieldAccessTypeHandler) typeHandler).getDelegate();
+            }
+            if (fieldMeta != null && isWrappable(fieldMeta) && !resultMapping.getFlags().contains(ResultFlag.ID)
+                    && !resultMapping.getFlags().contains(ResultFlag.CONSTRUCTOR)
+                    && resultMapping.getNestedQueryId() == null && resultMapping.getResultSet() == null
+                    && typeHandler != null) {
+                writeField(RESULT_MAPPING_TYPE_HANDLER_FIELD, resultMapping, new FieldAccessTypeHandler(
+                        typeHandler, interceptor, resultMap.getType(), resultMapping.getProperty(), fieldMeta));
+                wrappedMappings.add(resultMapping);
+            } else if (typeHandler != resultMapping.getTypeHandler()) {
+                writeField(RESULT_MAPPING_TYPE_HANDLER_FIELD, resultMapping, typeHandler);
+                wrappedMappings.remove(resultMapping);
+            }
+        }
+        Discriminator discriminator = resultMap.getDiscriminator();
+        if (discriminator != null) {
+            for (String caseResultMapId : discriminator.getDiscriminatorMap().values()) {
+                if (configuration.hasResultMap(caseResultMapId)) {
+                    installResultMap(configuration, configuration.getResultMap(caseResultMapId));
+                }
+            }
+        }
+    }
+
+    /**
+     * 有@ModifyResultDependency的字段和不能在映射时转换的字段不替换TypeHandler
+     */
+    private boolean isWrappable(AccessFieldMetaVO fieldMeta) {
+        return fieldMeta.getResultDependencyMethod() == null && !residualFields.contains(fieldMeta.getField());
+    }
+
+    /**
+     * 有无参构造方法的类先创建对象再按属性赋值，属性值都经过ResultMapping或自动映射的TypeHandler
+     */
+    private static boolean isMappedBySetters(Configuration configuration, Class<?> type) {
+        return !type.isInterface() && configuration.getReflectorFactory().findForClass(type).hasDefaultConstructor();
+    }
+
+    boolean isInstalled(String statementId) {
+        return installedStatementMap.containsKey(statementId);
+    }
+
+    /**
+     * 返回值中可能出现的类是否有映射完成后仍然需要处理的字段
+     */
+    boolean hasResidualFields(Set<Class<?>> resultClzSet) {
+        for (Class<?> resultClz : resultClzSet) {
+            if (!getResidualPlan(resultClz).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 替换本次执行的自动映射缓存，之后生成的自动映射中被注解字段的TypeHandler会被替换
+     */
+    void installAutoMappings(Object resultSetHandler) {
+        if (resultSetHandler instanceof DefaultResultSetHandler
+                && !(readField(AUTO_MAPPINGS_CACHE_FIELD, resultSetHandler) instanceof AutoMappingCache)) {
+            writeField(AUTO_MAPPINGS_CACHE_FIELD, resultSetHandler, new AutoMappingCache());
+        }
+    }
+
+    /**
+     * 映射完成后仍然需要处理的字段，不需要处理时为ClassFieldPlan.EMPTY
+     */
+    ClassFieldPlan getResidualPlan(Class<?> clz) {
+        return residualPlan.get(clz);
+    }
+
+    private ClassFieldPlan resolveResidualPlan(Class<?> clz) {
+        ClassFieldPlan plan = registry.getPlan(clz);
+        if (plan.isEmpty() || !hasDefaultConstructor(clz)) {
+            return plan;
+        }
+        Set<String> fieldNames = new HashSet<>();
+        for (int i = 0; i < plan.size(); i++) {
+            if (!isWrappable(plan.getFieldMeta(i))) {
+                fieldNames.add(plan.getFieldName(i));
+            }
+        }
+        return fieldNames.isEmpty() ? ClassFieldPlan.EMPTY : plan.select(fieldNames);
+    }
+
+    private static boolean hasDefaultConstructor(Class<?> clz) {
+        try {
+            clz.getDeclaredConstructor();
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 自动映射在每个ResultMap第一次用到时生成并放入缓存，放入之前替换其中被注解字段的TypeHandler
+     * DefaultResultSetHandler在放入后直接使用同一个列表，所以只能原地替换列表中的元素
+     */
+    private final class AutoMappingCache extends HashMap<String, List<Object>> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public List<Object> put(String key, List<Object> autoMappings) {
+            Class<?> type = resolveAutoMappingType(key);
+            ClassFieldPlan plan = type == null ? ClassFieldPlan.EMPTY : registry.getPlan(type);
+            for (int i = 0; i < autoMappings.size() && !plan.isEmpty(); i++) {
+                Object autoMapping = autoMappings.get(i);
+                String property = (String) readField(AUTO_MAPPING_PROPERTY_FIELD, autoMapping);
+                AccessFieldMetaVO fieldMeta = plan.getFieldMetaMap().get(property);
+                TypeHandler<?> typeHandler = (TypeHandler<?>) readField(AUTO_MAPPING_TYPE_HANDLER_FIELD, autoMapping);
+                if (fieldMeta != null && isWrappable(fieldMeta) && !(typeHandler instanceof FieldAccessTypeHandler)) {
+                    autoMappings.set(i, newAutoMapping(autoMapping, property,
+                            new FieldAccessTypeHandler(typeHandler, interceptor, type, property, fieldMeta)));
+                }
+            }
+            return super.put(key, autoMappings);
+        }
+
+        /**
+         * 自动映射所属ResultMap的类型，key为"ResultMap id:列名前缀"，找不到时返回null
+         */
+        private Class<?> resolveAutoMappingType(String key) {
+            int colon = key.lastIndexOf(':');
+            Class<?> type = colon < 0 ? null : resultMapTypeMap.get(key.substring(0, colon));
+            if (type == null) {
+                //  列名前缀中带":"时按前缀匹配
+                for (Map.Entry<String, Class<?>> entry : resultMapTypeMap.entrySet()) {
+                    if (key.startsWith(entry.getKey() + ":")) {
+                        type = entry.getValue();
+                        break;
+                    }
+                }
+            }
+            return type;
+        }
+    }
+
+    private static Object newAutoMapping(Object autoMapping, String property, TypeHandler<?> typeHandler) {
+        try {
+            return AUTO_MAPPING_CONSTRUCTOR.newInstance(readField(AUTO_MAPPING_COLUMN_FIELD, autoMapping), property,
+                    typeHandler, readField(AUTO_MAPPING_PRIMITIVE_FIELD, autoMapping));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Class<?> findClass(String className) {
+        try {
+            return Class.forName(className, false, DefaultResultSetHandler.class.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static Constructor<?> findAutoMappingConstructor() {
+        if (AUTO_MAPPING_CLASS == null) {
+            return null;
+        }
+        try {
+            Constructor<?> constructor = AUTO_MAPPING_CLASS.getDeclaredConstructor(String.class, String.class,
+                    TypeHandler.class, boolean.class);
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Field findPrivateField(Class<?> clz, String fieldName) {
+        if (clz == null) {
+            return null;
+        }
+        try {
+            Field field = clz.getDeclaredField(fieldName);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Object readField(Field field, Object obj) {
+        try {
+            return field.get(obj);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeField(Field field, Object obj, Object value) {
+        try {
+            field.set(obj, value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
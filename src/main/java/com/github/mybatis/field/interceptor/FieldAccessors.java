@@ -0,0 +1,310 @@
+package com.github.mybatis.field.interceptor;
+
+import com.google.common.primitives.Primitives;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * 把字段的读写方法、依赖方法预编译成函数对象，避免每行数据都走Method.invoke
+ * 优先用LambdaMetafactory生成实现类，类不可见或方法不可访问时退化为MethodHandle
+ * Created on 2026-10-17
+ */
+final class FieldAccessors {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private FieldAccessors() {
+    }
+
+    /**
+     * 被@ModifyXXXXDependency标记的方法的调用形式，target是方法所属对象，其余参数与注解方法一致
+     */
+    interface DependencyInvoker {
+
+        boolean test(Object target, Object obj, String fieldName, Object fieldValue);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Function<Object, Object> getter(Method readMethod) {
+        Class<?> clz = readMethod.getDeclaringClass();
+        MethodHandle mh = unreflect(readMethod);
+        if (canSpinLambda(readMethod)) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply",
+                        MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class), mh,
+                        MethodType.methodType(Primitives.wrap(readMethod.getReturnType()), clz));
+                return (Function<Object, Object>) site.getTarget().invokeExact();
+            } catch (Throwable e) {
+                // 生成失败时走下面的MethodHandle
+            }
+        }
+        MethodHandle generic = mh.asType(MethodType.methodType(Object.class, Object.class));
+        return obj -> {
+            try {
+                return generic.invokeExact(obj);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    static BiConsumer<Object, Object> setter(Method writeMethod) {
+        Class<?> clz = writeMethod.getDeclaringClass();
+        MethodHandle mh = unreflect(writeMethod);
+        if (canSpinLambda(writeMethod)) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class), mh,
+                        MethodType.methodType(void.class, clz, Primitives.wrap(writeMethod.getParameterTypes()[0])));
+                return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+            } catch (Throwable e) {
+                // 生成失败时走下面的MethodHandle
+            }
+        }
+        MethodHandle generic = mh.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (obj, value) -> {
+            try {
+                generic.invokeExact(obj, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        };
+    }
+
+    /**
+     * 返回类型为long的get方法，读取时不装箱
+     */
+    @SuppressWarnings("unchecked")
+    static ToLongFunction<Object> longGetter(Method readMethod) {
+        MethodHandle mh = unreflect(readMethod);
+        ToLongFunction<Object> getter = spinLambda(readMethod, mh, ToLongFunction.class, "applyAsLong",
+                MethodType.methodType(long.class, Object.class),
+                MethodType.methodType(long.class, readMethod.getDeclaringClass()));
+        if (getter != null) {
+            return getter;
+        }
+        MethodHandle generic = mh.asType(MethodType.methodType(long.class, Object.class));
+        return obj -> {
+            try {
+                return (long) generic.invokeExact(obj);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        };
+    }
+
+    /**
+     * 参数类型为long的set方法，写入时不装箱
+     */
+    @SuppressWarnings("unchecked")
+    static ObjLongConsumer<Object> longSetter(Method writeMethod) {
+        MethodHandle mh = unreflect(writeMethod);
+        ObjLongConsumer<Object> setter = spinLambda(writeMethod, mh, ObjLongConsumer.class, "accept",
+                MethodType.methodType(void.class, Object.class, long.class),
+                MethodType.methodType(void.class, writeMethod.getDeclaringClass(), long.class));
+        if (setter != null) {
+            return setter;
+        }
+        MethodHandle generic = mh.asType(MethodType.methodType(void.class, Object.class, long.class));
+        return (obj, value) -> {
+            try {
+                generic.invokeExact(obj, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        };
+    }
+
+    /**
+     * 返回类型为int的get方法，读取时不装箱
+     */
+    @SuppressWarnings("unchecked")
+    static ToIntFunction<Object> intGetter(Method readMethod) {
+        MethodHandle mh = unreflect(readMethod);
+        ToIntFunction<Object> getter = spinLambda(readMethod, mh, ToIntFunction.class, "applyAsInt",
+                MethodType.methodType(int.class, Object.class),
+                MethodType.methodType(int.class, readMethod.getDeclaringClass()));
+        if (getter != null) {
+            return getter;
+        }
+        MethodHandle generic = mh.asType(MethodType.methodType(int.class, Object.class));
+        return obj -> {
+            try {
+                return (int) generic.invokeExact(obj);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        };
+    }
+
+    /**
+     * 参数类型为int的set方法，写入时不装箱
+     */
+    @SuppressWarnings("unchecked")
+    static ObjIntConsumer<Object> intSetter(Method writeMethod) {
+        MethodHandle mh = unreflect(writeMethod);
+        ObjIntConsumer<Object> setter = spinLambda(writeMethod, mh, ObjIntConsumer.class, "accept",
+                MethodType.methodType(void.class, Object.class, int.class),
+                MethodType.methodType(void.class, writeMethod.getDeclaringClass(), int.class));
+        if (setter != null) {
+            return setter;
+        }
+        MethodHandle generic = mh.asType(MethodType.methodType(void.class, Object.class, int.class));
+        return (obj, value) -> {
+            try {
+                generic.invokeExact(obj, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        };
+    }
+
+    /**
+     * 用LambdaMetafactory生成interfaceClz的实现类，不能生成时返回null
+     */
+    private static <T> T spinLambda(Method method, MethodHandle mh, Class<T> interfaceClz, String methodName,
+                                    MethodType samType, MethodType instantiatedType) {
+        if (!canSpinLambda(method)) {
+            return null;
+        }
+        try {
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, methodName, MethodType.methodType(interfaceClz),
+                    samType, mh, instantiatedType);
+            return interfaceClz.cast(site.getTarget().invoke());
+        } catch (Throwable e) {
+            // 生成失败时由调用方退化为MethodHandle
+            return null;
+        }
+    }
+
+    /**
+     * 依赖方法为null时返回null
+     */
+    static DependencyInvoker dependency(Method dependencyMethod) {
+        if (dependencyMethod == null) {
+            return null;
+        }
+        Class<?> clz = dependencyMethod.getDeclaringClass();
+        MethodHandle mh = unreflect(dependencyMethod);
+        if (canSpinLambda(dependencyMethod)) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "test",
+                        MethodType.methodType(DependencyInvoker.class),
+                        MethodType.methodType(boolean.class, Object.class, Object.class, String.class, Object.class), mh,
+                        MethodType.methodType(boolean.class, clz, Object.class, String.class, Object.class));
+                return (DependencyInvoker) site.getTarget().invokeExact();
+            } catch (Throwable e) {
+                // 生成失败时走下面的MethodHandle
+            }
+        }
+        MethodHandle generic = mh.asType(
+                MethodType.methodType(boolean.class, Object.class, Object.class, String.class, Object.class));
+        return (target, obj, fieldName, fieldValue) -> {
+            try {
+                return (boolean) generic.invokeExact(target, obj, fieldName, fieldValue);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        };
+    }
+
+    /**
+     * 直接读取字段，不经过get方法，读取MyBatis延迟加载代理对象时不会触发加载
+     */
+    static Function<Object, Object> fieldGetter(Field field) {
+        MethodHandle generic;
+        try {
+            field.setAccessible(true);
+            generic = LOOKUP.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalStateException("can not access field " + field, e);
+        }
+        return obj -> {
+            try {
+                return generic.invokeExact(obj);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        };
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            if (!isAccessible(method)) {
+                method.setAccessible(true);
+            }
+            return LOOKUP.unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("can not access method " + method, e);
+        }
+    }
+
+    /**
+     * 生成的lambda类由本类的ClassLoader定义，方法签名里的类型必须对它可见且可访问
+     */
+    private static boolean canSpinLambda(Method method) {
+        if (!isAccessible(method) || !isVisible(method.getDeclaringClass())) {
+            return false;
+        }
+        if (!isVisible(method.getReturnType())) {
+            return false;
+        }
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            if (!isVisible(parameterType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAccessible(Method method) {
+        return Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(method.getDeclaringClass().getModifiers());
+    }
+
+    private static boolean isVisible(Class<?> clz) {
+        while (clz.isArray()) {
+            clz = clz.getComponentType();
+        }
+        if (clz.isPrimitive()) {
+            return true;
+        }
+        try {
+            return Class.forName(clz.getName(), false, FieldAccessors.class.getClassLoader()) == clz;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.github.mybatis.field.interceptor;
+
+import com.github.mybatis.field.interceptor.handler.FieldAccessValue;
+import com.github.mybatis.field.interceptor.handler.IAsyncFieldAccessHandler;
+import com.github.mybatis.field.interceptor.handler.IBatchFieldAccessHandler;
+import com.github.mybatis.field.interceptor.metrics.FieldAccessPhase;
+import com.github.mybatis.field.interceptor.metrics.IFieldAccessMetrics;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * 一次拦截中收集到的、需要交给IBatchFieldAccessHandler批量处理或IAsyncFieldAccessHandler并发处理的字段
+ * 先按handler分组收集，最后每个批量handler只调用一次、所有异步调用同时发起，再把新值依次写回对象
+ * Created on 2026-10-17
+ */
+final class FieldBatch {
+
+    //  Map<handler,该handler待处理的字段>，第一次收集时才创建
+    private Map<IBatchFieldAccessHandler, Pending> pendingMap;
+
+    //  待异步处理的字段和对应的handler，第一次收集时才创建
+    private Pending asyncPending;
+    private List<IAsyncFieldAccessHandler> asyncHandlers;
+
+    //  批量处理得到的新值也要放进缓存
+    private final FieldValueCache fieldValueCache;
+
+    //  没有开启统计时为null
+    private final IFieldAccessMetrics metrics;
+
+    //  统计时使用的MappedStatement id，取不到时为null
+    private final String statementId;
+
+    //  不修改参数对象模式下入参的新值只记录到这里，为null时直接写回参数对象
+    private final ParamOverlay paramOverlay;
+
+    private final AsyncFieldExecutor asyncFieldExecutor;
+
+    FieldBatch(FieldValueCache fieldValueCache, IFieldAccessMetrics metrics, String statementId,
+               ParamOverlay paramOverlay, AsyncFieldExecutor asyncFieldExecutor) {
+        this.fieldValueCache = fieldValueCache;
+        this.metrics = metrics;
+        this.statementId = statementId;
+        this.paramOverlay = paramOverlay;
+        this.asyncFieldExecutor = asyncFieldExecutor;
+    }
+
+    /**
+     * @param owner 新值写回的对象，按@Param名称处理的查询参数是参数Map，这时fieldValue中的targetObj为null
+     */
+    void add(IBatchFieldAccessHandler handler, AccessFieldMetaVO fieldMeta, Object owner,
+             FieldAccessValue fieldValue) {
+        if (pendingMap == null) {
+            pendingMap = new IdentityHashMap<>();
+        }
+        pendingMap.computeIfAbsent(handler, h -> new Pending()).add(fieldMeta, owner, fieldValue);
+    }
+
+    void addAsync(IAsyncFieldAccessHandler handler, AccessFieldMetaVO fieldMeta, Object owner,
+                  FieldAccessValue fieldValue) {
+        if (asyncPending == null) {
+            asyncPending = new Pending();
+            asyncHandlers = new ArrayList<>();
+        }
+        asyncPending.add(fieldMeta, owner, fieldValue);
+        asyncHandlers.add(handler);
+    }
+
+    /**
+     * 保存入参字段的新值，handler返回原来的对象时不需要保存
+     */
+    void writeParam(AccessFieldMetaVO fieldMeta, Object paramObj, Object oldValue, Object newValue) {
+        if (newValue == oldValue) {
+            return;
+        }
+        if (paramOverlay != null) {
+            paramOverlay.put(paramObj, fieldMeta, newValue);
+        } else {
+            fieldMeta.writeValue(paramObj, newValue);
+        }
+    }
+
+    /**
+     * 原始类型字段的新值，不修改参数对象模式下才装箱
+     */
+    void writePrimitiveParam(AccessFieldMetaVO fieldMeta, Object paramObj, long oldValue, long newValue) {
+        if (newValue == oldValue) {
+            return;
+        }
+        if (paramOverlay != null) {
+            paramOverlay.put(paramObj, fieldMeta, fieldMeta.boxPrimitive(newValue));
+        } else {
+            fieldMeta.writePrimitive(paramObj, newValue);
+        }
+    }
+
+    String getStatementId() {
+        return statementId;
+    }
+
+    boolean isEmpty() {
+        return (pendingMap == null || pendingMap.isEmpty()) && (asyncPending == null || asyncHandlers.isEmpty());
+    }
+
+    /**
+     * 批量修改返回值并写回
+     */
+    void flushResults() throws Exception {
+        flush(true);
+    }
+
+    /**
+     * 批量修改入参并写回
+     */
+    void flushParams() throws Exception {
+        flush(false);
+    }
+
+    private void flush(boolean result) throws Exception {
+        if (isEmpty()) {
+            return;
+        }
+        if (asyncPending != null && !asyncHandlers.isEmpty()) {
+            flushAsync(result);
+        }
+        if (pendingMap == null) {
+            return;
+        }
+        for (Entry<IBatchFieldAccessHandler, Pending> entry : pendingMap.entrySet()) {
+            IBatchFieldAccessHandler handler = entry.getKey();
+            Pending pending = entry.getValue();
+            long start = metrics != null ? System.nanoTime() : 0L;
+            List<Object> newValues = result ? handler.modifyResults(pending.fieldValues)
+                    : handler.modifyParams(pending.fieldValues);
+            if (metrics != null) {
+                metrics.recordModify(statementId, pending.entityClz(), handler,
+                        result ? FieldAccessPhase.RESULT : FieldAccessPhase.PARAM, pending.fieldValues.size(),
+                        System.nanoTime() - start);
+            }
+            if (newValues == null || newValues.size() != pending.fieldValues.size()) {
+                throw new IllegalStateException(handler.getClass().getName() + " returned "
+                        + (newValues == null ? "null" : newValues.size() + " values")
+                        + " for " + pending.fieldValues.size() + " fields");
+            }
+            for (int i = 0; i < newValues.size(); i++) {
+                writeBack(pending.fieldMetas.get(i), pending.owners.get(i), pending.fieldValues.get(i),
+                        newValues.get(i), result);
+            }
+        }
+        pendingMap.clear();
+    }
+
+    /**
+     * 同时发起所有异步调用，全部完成后写回
+     */
+    private void flushAsync(boolean result) throws Exception {
+        long start = metrics != null ? System.nanoTime() : 0L;
+        Object[] newValues = asyncFieldExecutor.execute(asyncHandlers, asyncPending.fieldValues, result);
+        if (metrics != null) {
+            //多个handler的调用同时进行，每个handler都按整体耗时统计
+            long elapsed = System.nanoTime() - start;
+            Map<IAsyncFieldAccessHandler, Integer> countMap = new IdentityHashMap<>();
+            for (IAsyncFieldAccessHandler handler : asyncHandlers) {
+                countMap.merge(handler, 1, Integer::sum);
+            }
+            Class<?> entityClz = asyncPending.entityClz();
+            countMap.forEach((handler, count) -> metrics.recordModify(statementId, entityClz, handler,
+                    result ? FieldAccessPhase.RESULT : FieldAccessPhase.PARAM, count, elapsed));
+        }
+        for (int i = 0; i < newValues.length; i++) {
+            writeBack(asyncPending.fieldMetas.get(i), asyncPending.owners.get(i), asyncPending.fieldValues.get(i),
+                    newValues[i], result);
+        }
+        asyncPending = null;
+        asyncHandlers = null;
+    }
+
+    private void writeBack(AccessFieldMetaVO fieldMeta, Object owner, FieldAccessValue fieldValue, Object newValue,
+                           boolean result) {
+        if (fieldMeta.isCacheable()) {
+            if (result) {
+                fieldValueCache.putResult(fieldMeta, fieldValue.getFieldValue(), newValue);
+            } else {
+                fieldValueCache.putParam(fieldMeta, fieldValue.getFieldValue(), newValue);
+            }
+        }
+        if (result) {
+            fieldMeta.writeChangedValue(owner, fieldValue.getFieldValue(), newValue);
+        } else {
+            writeParam(fieldMeta, owner, fieldValue.getFieldValue(), newValue);
+        }
+    }
+
+    private static final class Pending {
+
+        private final List<AccessFieldMetaVO> fieldMetas = new ArrayList<>();
+        private final List<Object> owners = new ArrayList<>();
+        private final List<FieldAccessValue> fieldValues = new ArrayList<>();
+
+        private void add(AccessFieldMetaVO fieldMeta, Object owner, FieldAccessValue fieldValue) {
+            fieldMetas.add(fieldMeta);
+            owners.add(owner);
+            fieldValues.add(fieldValue);
+        }
+
+        /**
+         * 所有字段都属于同一个类的对象时返回这个类，否则返回null
+         */
+        private Class<?> entityClz() {
+            Class<?> entityClz = fieldMetas.get(0).getEntityClz(owners.get(0));
+            for (int i = 1; i < fieldMetas.size(); i++) {
+                if (fieldMetas.get(i).getEntityClz(owners.get(i)) != entityClz) {
+                    return null;
+                }
+            }
+            return entityClz;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.mybatis.field.interceptor;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * handler转换结果的缓存，只对@FieldAccess(cacheable = true)的字段生效
+ * 每个字段（声明类+字段名）、每组handlerParams、每个方向一个缓存，key是旧值，value是新值；
+ * 不同字段即使使用同一个handler也不共用缓存，handler的结果可以依赖fieldName
+ * 使用Guava Cache，内部分段加锁，可以被多个会话并发访问，并按数量和写入时间淘汰
+ * Created on 2026-10-17
+ */
+final class FieldValueCache {
+
+    //  Map<缓存名称,缓存>
+    private final Map<String, Cache<Object, Object>> cacheMap = new ConcurrentHashMap<>();
+
+    private volatile long maximumSize = 10000;
+
+    private volatile long expireAfterWriteMillis = TimeUnit.MINUTES.toMillis(10);
+
+    Object getResult(AccessFieldMetaVO fieldMeta, Object oldValue) {
+        return get(fieldMeta.getResultCacheName(), oldValue);
+    }
+
+    void putResult(AccessFieldMetaVO fieldMeta, Object oldValue, Object newValue) {
+        put(fieldMeta.getResultCacheName(), oldValue, newValue);
+    }
+
+    Object getParam(AccessFieldMetaVO fieldMeta, Object oldValue) {
+        return get(fieldMeta.getParamCacheName(), oldValue);
+    }
+
+    void putParam(AccessFieldMetaVO fieldMeta, Object oldValue, Object newValue) {
+        put(fieldMeta.getParamCacheName(), oldValue, newValue);
+    }
+
+    /**
+     * 没有缓存时返回null，旧值为null时不缓存
+     */
+    private Object get(String cacheName, Object oldValue) {
+        if (oldValue == null) {
+            return null;
+        }
+        return getCache(cacheName).getIfPresent(oldValue);
+    }
+
+    /**
+     * 新值为null时不缓存
+     */
+    private void put(String cacheName, Object oldValue, Object newValue) {
+        if (oldValue != null && newValue != null) {
+            getCache(cacheName).put(oldValue, newValue);
+        }
+    }
+
+    private Cache<Object, Object> getCache(String cacheName) {
+        Cache<Object, Object> cache = cacheMap.get(cacheName);
+        if (cache == null) {
+            cache = cacheMap.computeIfAbsent(cacheName, name -> CacheBuilder.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(expireAfterWriteMillis, TimeUnit.MILLISECONDS)
+                    .recordStats()
+                    .build());
+        }
+        return cache;
+    }
+
+    /**
+     * 修改配置后清空已有缓存，之后按新配置重新创建
+     */
+    void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+        cacheMap.clear();
+    }
+
+    void setExpireAfterWrite(long duration, TimeUnit unit) {
+        this.expireAfterWriteMillis = unit.toMillis(duration);
+        cacheMap.clear();
+    }
+
+    /**
+     * 替换handler后清空已有缓存
+     */
+    void invalidateAll() {
+        cacheMap.clear();
+    }
+
+    /**
+     * 按缓存名称排序的命中统计
+     */
+    Map<String, CacheStats> stats() {
+        Map<String, CacheStats> statsMap = new TreeMap<>();
+        cacheMap.forEach((name, cache) -> statsMap.put(name, cache.stats()));
+        return statsMap;
+    }
+}
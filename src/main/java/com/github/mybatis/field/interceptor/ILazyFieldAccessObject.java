@@ -0,0 +1,20 @@
+package com.github.mybatis.field.interceptor;
+
+import java.io.ObjectStreamException;
+
+/**
+ * 懒加载模式下返回的对象都实现了该接口，被@FieldAccess标记的字段在第一次调用get方法时才执行handler
+ * Created on 2026-10-17
+ */
+public interface ILazyFieldAccessObject {
+
+    /**
+     * 立即执行所有还没有执行过的字段handler，在对象被直接按字段序列化、或者调用直接读取字段的toString/equals/hashCode之前调用
+     */
+    void resolveLazyFields();
+
+    /**
+     * 序列化时先执行所有字段handler，再替换为原始类型的普通对象，反序列化后不依赖拦截器
+     */
+    Object writeReplace() throws ObjectStreamException;
+}
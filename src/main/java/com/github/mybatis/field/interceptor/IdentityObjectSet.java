@@ -0,0 +1,100 @@
+package com.github.mybatis.field.interceptor;
+
+import java.util.Arrays;
+
+/**
+ * 按对象地址去重的集合，用于一次拦截中防止同一个对象被重复处理
+ * 不调用对象的hashCode/equals，两个值相等的不同对象都会被处理
+ * 每个线程复用一个实例，拦截结束后清空，热路径上不再分配内存
+ * Created on 2026-10-17
+ */
+final class IdentityObjectSet {
+
+    private static final ThreadLocal<IdentityObjectSet> LOCAL = ThreadLocal.withInitial(IdentityObjectSet::new);
+
+    /**
+     * 归还时超过该容量的数组会被丢弃，避免一次大查询之后线程一直占用大数组
+     */
+    private static final int MAX_RETAINED_CAPACITY = 1 << 16;
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    private Object[] table = new Object[INITIAL_CAPACITY];
+    private int size;
+    private boolean inUse;
+
+    /**
+     * 获取当前线程复用的集合，同一线程嵌套拦截时（例如handler里又执行了查询）返回新的集合
+     */
+    static IdentityObjectSet acquire() {
+        IdentityObjectSet set = LOCAL.get();
+        if (set.inUse) {
+            return new IdentityObjectSet();
+        }
+        set.inUse = true;
+        return set;
+    }
+
+    /**
+     * 清空后归还给当前线程
+     */
+    void release() {
+        if (table.length > MAX_RETAINED_CAPACITY) {
+            table = new Object[INITIAL_CAPACITY];
+        } else if (size > 0) {
+            Arrays.fill(table, null);
+        }
+        size = 0;
+        inUse = false;
+    }
+
+    /**
+     * @return 对象第一次加入时返回true
+     */
+    boolean add(Object obj) {
+        if ((size + 1) * 2 > table.length) {
+            resize();
+        }
+        Object[] tab = table;
+        int mask = tab.length - 1;
+        int i = hash(obj) & mask;
+        Object existing;
+        while ((existing = tab[i]) != null) {
+            if (existing == obj) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        tab[i] = obj;
+        size++;
+        return true;
+    }
+
+    /**
+     * 已加入的对象个数
+     */
+    int size() {
+        return size;
+    }
+
+    private void resize() {
+        Object[] oldTable = table;
+        Object[] newTable = new Object[oldTable.length << 1];
+        int mask = newTable.length - 1;
+        for (Object obj : oldTable) {
+            if (obj != null) {
+                int i = hash(obj) & mask;
+                while (newTable[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                newTable[i] = obj;
+            }
+        }
+        table = newTable;
+    }
+
+    private static int hash(Object obj) {
+        int h = System.identityHashCode(obj) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
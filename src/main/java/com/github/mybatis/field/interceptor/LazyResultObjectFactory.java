@@ -0,0 +1,64 @@
+package com.github.mybatis.field.interceptor;
+
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * 懒加载模式使用的ObjectFactory，FieldAccessInterceptor开启懒加载的查询中由它直接创建被注解类的代理子类对象，
+ * 其它对象以及其它查询中的对象都交给delegate创建
+ * 需要设置为Configuration的ObjectFactory，例如SqlSessionFactoryBean#setObjectFactory，没有设置时懒加载模式下仍然立即处理
+ * Created on 2026-10-18
+ */
+public class LazyResultObjectFactory implements ObjectFactory {
+
+    private final FieldAccessInterceptor interceptor;
+
+    private final ObjectFactory delegate;
+
+    public LazyResultObjectFactory(FieldAccessInterceptor interceptor) {
+        this(interceptor, new DefaultObjectFactory());
+    }
+
+    /**
+     * @param delegate 原来的ObjectFactory，代理对象不经过它创建
+     */
+    public LazyResultObjectFactory(FieldAccessInterceptor interceptor, ObjectFactory delegate) {
+        this.interceptor = interceptor;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+        delegate.setProperties(properties);
+    }
+
+    @Override
+    public <T> T create(Class<T> type) {
+        return create(type, null, null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T create(Class<T> type, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
+        Object proxy;
+        try {
+            proxy = interceptor.getLazyResultProxyFactory().create(type, constructorArgTypes, constructorArgs);
+        } catch (Exception e) {
+            throw new ReflectionException("Error instantiating lazy proxy of " + type + ". Cause: " + e, e);
+        }
+        return proxy != null ? (T) proxy : delegate.create(type, constructorArgTypes, constructorArgs);
+    }
+
+    @Override
+    public <T> boolean isCollection(Class<T> type) {
+        return delegate.isCollection(type);
+    }
+
+    FieldAccessInterceptor getInterceptor() {
+        return interceptor;
+    }
+}
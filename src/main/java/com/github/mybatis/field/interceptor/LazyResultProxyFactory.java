@@ -0,0 +1,491 @@
+package com.github.mybatis.field.interceptor;
+
+import org.apache.ibatis.javassist.util.proxy.MethodHandler;
+import org.apache.ibatis.javassist.util.proxy.Proxy;
+import org.apache.ibatis.javassist.util.proxy.ProxyFactory;
+
+import java.io.InvalidObjectException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 懒加载模式下由LazyResultObjectFactory直接创建实体类的代理子类对象，被@FieldAccess标记的字段在第一次调用get方法时才执行handler
+ * 代理类使用MyBatis自带的javassist生成，每个类只生成一次，被注解字段增加时才重新生成；不能生成代理的类返回null，由MyBatis正常创建对象
+ * 查询过程中创建的代理对象先使用每个类共享的直通handler，映射完成后再按本次查询实际赋值的字段激活，
+ * 每个对象只增加一个记录已处理字段的LazyFieldHandler，同一次查询中同一个类的字段元信息共享
+ * Created on 2026-10-17
+ */
+final class LazyResultProxyFactory {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    //  LazyFieldHandler用一个long记录已处理的字段
+    private static final int MAX_LAZY_FIELDS = Long.SIZE;
+
+    private final FieldAccessInterceptor interceptor;
+
+    //  Map<原始类,代理类元信息>，不能生成代理的类保存NONE
+    private final Map<Class<?>, LazyProxyClass> proxyClassMap = new ConcurrentHashMap<>();
+
+    //  当前线程正在执行的懒加载查询，嵌套查询时保存外层查询
+    private final ThreadLocal<LazyRows> currentRows = new ThreadLocal<>();
+
+    LazyResultProxyFactory(FieldAccessInterceptor interceptor) {
+        this.interceptor = interceptor;
+    }
+
+    /**
+     * 开始一次懒加载查询，之后当前线程中LazyResultObjectFactory创建的被注解类的对象都是代理对象
+     *
+     * @return 外层查询，结束时传给end
+     */
+    LazyRows begin() {
+        LazyRows outer = currentRows.get();
+        currentRows.set(new LazyRows());
+        return outer;
+    }
+
+    /**
+     * 结束本次懒加载查询，恢复外层查询
+     *
+     * @return 本次查询创建的代理对象
+     */
+    LazyRows end(LazyRows outer) {
+        LazyRows rows = currentRows.get();
+        if (outer == null) {
+            currentRows.remove();
+        } else {
+            currentRows.set(outer);
+        }
+        return rows;
+    }
+
+    /**
+     * 当前线程正在执行的懒加载查询，没有时返回null
+     */
+    LazyRows current() {
+        return currentRows.get();
+    }
+
+    /**
+     * 当前线程正在执行懒加载查询，并且类支持懒加载时创建代理对象，否则返回null
+     */
+    Object create(Class<?> type, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) throws Exception {
+        LazyRows rows = currentRows.get();
+        if (rows == null) {
+            return null;
+        }
+        Map<String, AccessFieldMetaVO> fieldMetaMap = interceptor.getRegistry().getFieldMetaMap(type);
+        if (fieldMetaMap.isEmpty()) {
+            return null;
+        }
+        LazyProxyClass proxyClass = proxyClassMap.get(type);
+        if (proxyClass == null || !proxyClass.covers(fieldMetaMap)) {
+            proxyClass = proxyClassMap.compute(type, (c, current) -> current != null && current.covers(fieldMetaMap)
+                    ? current : LazyProxyClass.build(c, fieldMetaMap));
+        }
+        if (proxyClass == LazyProxyClass.NONE) {
+            return null;
+        }
+        Object proxy = proxyClass.newProxy(constructorArgTypes, constructorArgs);
+        rows.add(proxy, proxyClass);
+        return proxy;
+    }
+
+    /**
+     * 一次懒加载查询中创建的代理对象
+     */
+    final class LazyRows {
+
+        private final List<Object> proxies = new ArrayList<>();
+        private final List<LazyProxyClass> proxyClasses = new ArrayList<>();
+        //  已经激活的对象个数
+        private int activated;
+        //  Map<代理类,本次查询中该类对象共享的字段元信息>
+        private final Map<LazyProxyClass, LazyRowPlan> rowPlanMap = new IdentityHashMap<>();
+
+        private void add(Object proxy, LazyProxyClass proxyClass) {
+            proxies.add(proxy);
+            proxyClasses.add(proxyClass);
+        }
+
+        /**
+         * 激活还没有激活的代理对象，之后第一次调用被注解字段的get方法时执行handler
+         *
+         * @param resultPlans 按类查找本次实际赋值的字段，为null时处理全部被注解字段
+         */
+        void activate(Function<Class<?>, ClassFieldPlan> resultPlans) throws Exception {
+            for (int size = proxies.size(); activated < size; activated++) {
+                Object proxy = proxies.get(activated);
+                LazyProxyClass proxyClass = proxyClasses.get(activated);
+                LazyRowPlan rowPlan = rowPlanMap.get(proxyClass);
+                if (rowPlan == null) {
+                    Class<?> clz = proxyClass.originalClass;
+                    ClassFieldPlan plan = resultPlans != null ? resultPlans.apply(clz)
+                            : interceptor.getRegistry().getPlan(clz);
+                    rowPlan = new LazyRowPlan(proxyClass, plan.getFieldMetaMap(), interceptor);
+                    rowPlanMap.put(proxyClass, rowPlan);
+                }
+                ((Proxy) proxy).setHandler(new LazyFieldHandler(rowPlan));
+                //代理类生成后注册的字段不能懒加载，立即处理
+                for (Entry<String, AccessFieldMetaVO> entry : rowPlan.eagerFields) {
+                    interceptor.modifyResultField(proxy, entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    private static final class LazyProxyClass {
+
+        private static final LazyProxyClass NONE = new LazyProxyClass();
+
+        private final Class<?> originalClass;
+        private final Class<?> proxyClz;
+        private final MethodHandle proxyConstructor;
+        private final MethodHandle plainConstructor;
+        //  Map<构造方法参数类型,代理类的构造方法>，&lt;constructor&gt;映射时使用
+        private final Map<List<Class<?>>, Constructor<?>> proxyConstructorMap = new ConcurrentHashMap<>();
+        //  原始类及其父类上的所有实例字段的get/set，只在序列化时复制为普通对象使用
+        private final MethodHandle[] fieldGetters;
+        private final MethodHandle[] fieldSetters;
+        //  被@FieldAccess标记的字段
+        private final String[] fieldNames;
+        //  Map<读方法,字段下标>、Map<写方法,字段下标>
+        private final Map<Method, Integer> readMethodIndexMap;
+        private final Map<Method, Integer> writeMethodIndexMap;
+        //  激活之前使用的handler，所有对象共享
+        private final MethodHandler passThroughHandler;
+
+        private LazyProxyClass() {
+            this.originalClass = null;
+            this.proxyClz = null;
+            this.proxyConstructor = null;
+            this.plainConstructor = null;
+            this.fieldGetters = null;
+            this.fieldSetters = null;
+            this.fieldNames = null;
+            this.readMethodIndexMap = null;
+            this.writeMethodIndexMap = null;
+            this.passThroughHandler = null;
+        }
+
+        private LazyProxyClass(Class<?> originalClass, Class<?> proxyClz, MethodHandle proxyConstructor,
+                               MethodHandle plainConstructor, MethodHandle[] fieldGetters,
+                               MethodHandle[] fieldSetters, String[] fieldNames,
+                               Map<Method, Integer> readMethodIndexMap, Map<Method, Integer> writeMethodIndexMap) {
+            this.originalClass = originalClass;
+            this.proxyClz = proxyClz;
+            this.proxyConstructor = proxyConstructor;
+            this.plainConstructor = plainConstructor;
+            this.fieldGetters = fieldGetters;
+            this.fieldSetters = fieldSetters;
+            this.fieldNames = fieldNames;
+            this.readMethodIndexMap = readMethodIndexMap;
+            this.writeMethodIndexMap = writeMethodIndexMap;
+            this.passThroughHandler = (self, thisMethod, proceed, args) -> {
+                if ("writeReplace".equals(thisMethod.getName())) {
+                    try {
+                        return toPlain(self);
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw invalidObject(self, e);
+                    }
+                }
+                if ("resolveLazyFields".equals(thisMethod.getName())) {
+                    return null;
+                }
+                return LazyFieldHandler.proceed(self, proceed, args);
+            };
+        }
+
+        /**
+         * 类是final或abstract、没有无参构造方法、有final实例字段、get/set方法不能被覆盖、被注解字段超过64个、
+         * 或者本身已经是代理类时不支持懒加载
+         */
+        static LazyProxyClass build(Class<?> clz, Map<String, AccessFieldMetaVO> fieldMetaMap) {
+            try {
+                int classModifiers = clz.getModifiers();
+                if (Modifier.isFinal(classModifiers) || Modifier.isAbstract(classModifiers)
+                        || ProxyFactory.isProxyClass(clz) || fieldMetaMap.size() > MAX_LAZY_FIELDS) {
+                    return NONE;
+                }
+                Constructor<?> constructor = clz.getDeclaredConstructor();
+                if (Modifier.isPrivate(constructor.getModifiers())) {
+                    return NONE;
+                }
+                constructor.setAccessible(true);
+
+                List<MethodHandle> getters = new ArrayList<>();
+                List<MethodHandle> setters = new ArrayList<>();
+                for (Class<?> c = clz; c != null && c != Object.class; c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        if (Modifier.isStatic(field.getModifiers())) {
+                            continue;
+                        }
+                        if (Modifier.isFinal(field.getModifiers())) {
+                            return NONE;
+                        }
+                        field.setAccessible(true);
+                        getters.add(LOOKUP.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class)));
+                        setters.add(LOOKUP.unreflectSetter(field)
+                                .asType(MethodType.methodType(void.class, Object.class, Object.class)));
+                    }
+                }
+
+                int size = fieldMetaMap.size();
+                String[] fieldNames = new String[size];
+                Map<Method, Integer> readMethodIndexMap = new HashMap<>();
+                Map<Method, Integer> writeMethodIndexMap = new HashMap<>();
+                int i = 0;
+                for (Entry<String, AccessFieldMetaVO> entry : fieldMetaMap.entrySet()) {
+                    AccessFieldMetaVO fieldMeta = entry.getValue();
+                    if (!isOverridable(fieldMeta.getReadMethod()) || !isOverridable(fieldMeta.getWriteMethod())) {
+                        return NONE;
+                    }
+                    fieldNames[i] = entry.getKey();
+                    readMethodIndexMap.put(fieldMeta.getReadMethod(), i);
+                    writeMethodIndexMap.put(fieldMeta.getWriteMethod(), i);
+                    i++;
+                }
+
+                ProxyFactory proxyFactory = new ProxyFactory();
+                proxyFactory.setSuperclass(clz);
+                proxyFactory.setInterfaces(new Class<?>[]{ILazyFieldAccessObject.class});
+                //  序列化由ILazyFieldAccessObject.writeReplace处理
+                proxyFactory.setUseWriteReplace(false);
+                proxyFactory.setFilter(method -> readMethodIndexMap.containsKey(method)
+                        || writeMethodIndexMap.containsKey(method)
+                        || method.getDeclaringClass() == ILazyFieldAccessObject.class);
+                Class<?> proxyClz = proxyFactory.createClass();
+
+                return new LazyProxyClass(clz, proxyClz,
+                        LOOKUP.unreflectConstructor(proxyClz.getDeclaredConstructor())
+                                .asType(MethodType.methodType(Object.class)),
+                        LOOKUP.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class)),
+                        getters.toArray(new MethodHandle[0]), setters.toArray(new MethodHandle[0]),
+                        fieldNames, readMethodIndexMap, writeMethodIndexMap);
+            } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+                return NONE;
+            }
+        }
+
+        private static boolean isOverridable(Method method) {
+            int modifiers = method.getModifiers();
+            return !Modifier.isFinal(modifiers) && !Modifier.isStatic(modifiers) && !Modifier.isPrivate(modifiers);
+        }
+
+        /**
+         * 代理类是否拦截了fieldMetaMap中所有字段的get/set方法，不能生成代理时总是返回true
+         */
+        boolean covers(Map<String, AccessFieldMetaVO> fieldMetaMap) {
+            if (this == NONE) {
+                return true;
+            }
+            for (Entry<String, AccessFieldMetaVO> entry : fieldMetaMap.entrySet()) {
+                if (indexOf(entry.getKey(), entry.getValue()) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 字段在代理类中的下标，代理类没有拦截它的get/set方法时返回-1
+         */
+        int indexOf(String fieldName, AccessFieldMetaVO fieldMeta) {
+            Integer index = readMethodIndexMap.get(fieldMeta.getReadMethod());
+            if (index == null || !fieldNames[index].equals(fieldName)
+                    || !writeMethodIndexMap.containsKey(fieldMeta.getWriteMethod())) {
+                return -1;
+            }
+            return index;
+        }
+
+        Object newProxy(List<Class<?>> constructorArgTypes, List<Object> constructorArgs) throws Exception {
+            Object proxy;
+            if (constructorArgTypes == null || constructorArgTypes.isEmpty()) {
+                proxy = newInstance(proxyConstructor);
+            } else {
+                Constructor<?> constructor = proxyConstructorMap.computeIfAbsent(constructorArgTypes, types -> {
+                    try {
+                        return proxyClz.getConstructor(types.toArray(new Class<?>[0]));
+                    } catch (NoSuchMethodException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                try {
+                    proxy = constructor.newInstance(constructorArgs.toArray());
+                } catch (InvocationTargetException e) {
+                    Throwable cause = e.getCause();
+                    throw cause instanceof Exception ? (Exception) cause : e;
+                }
+            }
+            ((Proxy) proxy).setHandler(passThroughHandler);
+            return proxy;
+        }
+
+        /**
+         * 复制为原始类型的普通对象
+         */
+        Object toPlain(Object proxy) throws Exception {
+            Object plain = newInstance(plainConstructor);
+            try {
+                for (int i = 0; i < fieldGetters.length; i++) {
+                    fieldSetters[i].invokeExact(plain, (Object) fieldGetters[i].invokeExact(proxy));
+                }
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+            return plain;
+        }
+
+        /**
+         * writeReplace只能抛出ObjectStreamException，handler抛出的受检异常作为cause包装，避免变成UndeclaredThrowableException
+         */
+        static InvalidObjectException invalidObject(Object proxy, Exception cause) {
+            InvalidObjectException e = new InvalidObjectException("Could not replace lazy "
+                    + proxy.getClass().getSuperclass().getName() + " for serialization. Cause: " + cause);
+            e.initCause(cause);
+            return e;
+        }
+
+        private static Object newInstance(MethodHandle constructor) throws Exception {
+            try {
+                return (Object) constructor.invokeExact();
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * 一次查询中同一个代理类的所有对象共享
+     */
+    private static final class LazyRowPlan {
+
+        private final LazyProxyClass proxyClass;
+        //  按代理类的字段下标保存本次查询的字段元信息，本次不需要处理的字段为null
+        private final AccessFieldMetaVO[] fieldMetas;
+        //  本次不需要处理的字段，作为已处理的初始值
+        private final long initialResolved;
+        //  代理类没有拦截的字段，激活时立即处理
+        private final List<Entry<String, AccessFieldMetaVO>> eagerFields = new ArrayList<>();
+        private final FieldAccessInterceptor interceptor;
+
+        private LazyRowPlan(LazyProxyClass proxyClass, Map<String, AccessFieldMetaVO> fieldMetaMap,
+                            FieldAccessInterceptor interceptor) {
+            this.proxyClass = proxyClass;
+            this.fieldMetas = new AccessFieldMetaVO[proxyClass.fieldNames.length];
+            this.interceptor = interceptor;
+            for (Entry<String, AccessFieldMetaVO> entry : fieldMetaMap.entrySet()) {
+                int index = proxyClass.indexOf(entry.getKey(), entry.getValue());
+                if (index < 0) {
+                    eagerFields.add(entry);
+                } else {
+                    fieldMetas[index] = entry.getValue();
+                }
+            }
+            long resolved = 0L;
+            for (int i = 0; i < fieldMetas.length; i++) {
+                if (fieldMetas[i] == null) {
+                    resolved |= 1L << i;
+                }
+            }
+            this.initialResolved = resolved;
+        }
+    }
+
+    /**
+     * 每个激活后的代理对象一个，记录哪些字段已经执行过handler
+     */
+    private static final class LazyFieldHandler implements MethodHandler {
+
+        private final LazyRowPlan rowPlan;
+        //  第i位为1表示第i个字段已经处理过或者不需要处理
+        private long resolved;
+
+        private LazyFieldHandler(LazyRowPlan rowPlan) {
+            this.rowPlan = rowPlan;
+            this.resolved = rowPlan.initialResolved;
+        }
+
+        @Override
+        public Object invoke(Object self, Method thisMethod, Method proceed, Object[] args) throws Throwable {
+            LazyProxyClass proxyClass = rowPlan.proxyClass;
+            Integer index = proxyClass.readMethodIndexMap.get(thisMethod);
+            if (index != null) {
+                resolve(self, index);
+                return proceed(self, proceed, args);
+            }
+            index = proxyClass.writeMethodIndexMap.get(thisMethod);
+            if (index != null) {
+                //调用方直接赋了新值，旧值不再需要处理
+                synchronized (this) {
+                    resolved |= 1L << index;
+                }
+                return proceed(self, proceed, args);
+            }
+            if ("resolveLazyFields".equals(thisMethod.getName())) {
+                resolveAll(self);
+                return null;
+            }
+            if ("writeReplace".equals(thisMethod.getName())) {
+                try {
+                    resolveAll(self);
+                    return proxyClass.toPlain(self);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw LazyProxyClass.invalidObject(self, e);
+                }
+            }
+            return proceed(self, proceed, args);
+        }
+
+        private static Object proceed(Object self, Method proceed, Object[] args) throws Throwable {
+            try {
+                return proceed.invoke(self, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void resolveAll(Object self) throws Exception {
+            for (int i = 0; i < rowPlan.fieldMetas.length; i++) {
+                resolve(self, i);
+            }
+        }
+
+        /**
+         * 先标记再执行，handler里再次调用get方法时直接返回原始值
+         */
+        private synchronized void resolve(Object self, int index) throws Exception {
+            long bit = 1L << index;
+            if ((resolved & bit) != 0) {
+                return;
+            }
+            resolved |= bit;
+            rowPlan.interceptor.modifyResultField(self, rowPlan.proxyClass.fieldNames[index],
+                    rowPlan.fieldMetas[index]);
+        }
+    }
+}
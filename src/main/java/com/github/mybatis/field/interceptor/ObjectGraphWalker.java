@@ -0,0 +1,102 @@
+package com.github.mybatis.field.interceptor;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * 遍历一次拦截中的入参或返回值，找出其中需要处理的对象
+ * List、Set等集合、对象数组和Map的值逐层展开，包括存储过程返回的多个结果集（列表的列表）和@Param参数中的集合；
+ * 返回值还按ResultTraversal展开嵌套的关联对象和集合
+ * 使用显式的栈代替递归，集合和数组直接迭代不复制；每个对象（包括集合本身）按地址只访问一次，
+ * ParamMap中同一个对象的多个别名（param1、collection、list等）和循环引用都不会重复处理
+ * Created on 2026-10-17
+ */
+final class ObjectGraphWalker {
+
+    private ObjectGraphWalker() {
+    }
+
+    /**
+     * 处理遍历到的对象
+     */
+    interface Visitor {
+
+        void visit(Object obj) throws Exception;
+    }
+
+    /**
+     * 按深度优先的顺序把root下除集合、数组和Map之外的对象交给visitor，root本身也是这样的对象时同样交给visitor
+     *
+     * @param visited   已经访问过的对象，其中的对象及其下的对象跳过
+     * @param traversal 返回值的嵌套属性遍历计划，为null时不展开对象的属性
+     * @return 交给visitor的对象个数
+     */
+    static int walk(Object root, IdentityObjectSet visited, ResultTraversal traversal, Visitor visitor)
+            throws Exception {
+        int count = 0;
+        Deque<Iterator<?>> stack = new ArrayDeque<>();
+        stack.push(Collections.singletonList(root).iterator());
+        while (!stack.isEmpty()) {
+            Iterator<?> iterator = stack.peek();
+            if (!iterator.hasNext()) {
+                stack.pop();
+                continue;
+            }
+            Object obj = iterator.next();
+            if (obj == null || !visited.add(obj)) {
+                continue;
+            }
+            if (obj instanceof Collection) {
+                stack.push(((Collection<?>) obj).iterator());
+            } else if (obj instanceof Map) {
+                stack.push(((Map<?, ?>) obj).values().iterator());
+            } else if (obj instanceof Object[]) {
+                stack.push(Arrays.asList((Object[]) obj).iterator());
+            } else {
+                visitor.visit(obj);
+                count++;
+                if (traversal != null) {
+                    ResultTraversal.NestedProperty[] properties = traversal.getNestedProperties(obj.getClass());
+                    if (properties.length > 0) {
+                        stack.push(new NestedIterator(obj, properties));
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 依次返回对象上需要遍历的嵌套属性的值
+     */
+    private static final class NestedIterator implements Iterator<Object> {
+
+        private final Object obj;
+        private final ResultTraversal.NestedProperty[] properties;
+        private int index;
+
+        private NestedIterator(Object obj, ResultTraversal.NestedProperty[] properties) {
+            this.obj = obj;
+            this.properties = properties;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < properties.length;
+        }
+
+        @Override
+        public Object next() {
+            if (index >= properties.length) {
+                throw new NoSuchElementException();
+            }
+            return properties[index++].get(obj);
+        }
+    }
+}
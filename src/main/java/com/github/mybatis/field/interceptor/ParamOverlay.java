@@ -0,0 +1,97 @@
+package com.github.mybatis.field.interceptor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 不修改参数对象模式下，参数对象上被注解字段的新值
+ * 按对象地址和字段名保存，绑定JDBC参数时由ParamOverlayWrapperFactory用新值代替对象上的原值，查询语句的@Param参数以参数Map和参数名保存
+ * Created on 2026-10-17
+ */
+final class ParamOverlay {
+
+    /**
+     * get时没有对应新值的返回值，新值本身可能是null
+     */
+    static final Object ABSENT = new Object();
+
+    //  Map<参数对象,Map<字段名,新值>>
+    private final Map<Object, Map<String, Value>> valueMap = new IdentityHashMap<>();
+
+    void put(Object paramObj, AccessFieldMetaVO fieldMeta, Object newValue) {
+        valueMap.computeIfAbsent(paramObj, obj -> new HashMap<>())
+                .put(fieldMeta.getField().getName(), new Value(fieldMeta, newValue));
+    }
+
+    Object get(Object paramObj, String fieldName) {
+        if (paramObj == null) {
+            return ABSENT;
+        }
+        Map<String, Value> fieldValueMap = valueMap.get(paramObj);
+        Value value = fieldValueMap == null ? null : fieldValueMap.get(fieldName);
+        return value == null ? ABSENT : value.newValue;
+    }
+
+    /**
+     * 参数Map中alias和name指向同一个参数时，绑定alias也使用name的新值
+     */
+    void alias(Object paramObj, String alias, String name) {
+        Map<String, Value> fieldValueMap = valueMap.get(paramObj);
+        Value value = fieldValueMap == null ? null : fieldValueMap.get(name);
+        if (value != null) {
+            fieldValueMap.put(alias, value);
+        }
+    }
+
+    /**
+     * 对象上是否有字段的新值
+     */
+    boolean contains(Object paramObj) {
+        return valueMap.containsKey(paramObj);
+    }
+
+    boolean isEmpty() {
+        return valueMap.isEmpty();
+    }
+
+    /**
+     * 把新值临时写到参数对象上，用于无法替换绑定值的ParameterHandler
+     *
+     * @return 恢复原值的操作
+     */
+    Runnable apply() {
+        List<Runnable> restores = new ArrayList<>();
+        for (Map.Entry<Object, Map<String, Value>> entry : valueMap.entrySet()) {
+            Object paramObj = entry.getKey();
+            for (Map.Entry<String, Value> fieldEntry : entry.getValue().entrySet()) {
+                Value value = fieldEntry.getValue();
+                if (paramObj instanceof Map) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> paramMap = (Map<String, Object>) paramObj;
+                    String name = fieldEntry.getKey();
+                    Object oldValue = paramMap.put(name, value.newValue);
+                    restores.add(() -> paramMap.put(name, oldValue));
+                } else {
+                    Object oldValue = value.fieldMeta.readValue(paramObj);
+                    value.fieldMeta.writeValue(paramObj, value.newValue);
+                    restores.add(() -> value.fieldMeta.writeValue(paramObj, oldValue));
+                }
+            }
+        }
+        return () -> restores.forEach(Runnable::run);
+    }
+
+    private static final class Value {
+
+        private final AccessFieldMetaVO fieldMeta;
+        private final Object newValue;
+
+        private Value(AccessFieldMetaVO fieldMeta, Object newValue) {
+            this.fieldMeta = fieldMeta;
+            this.newValue = newValue;
+        }
+    }
+}
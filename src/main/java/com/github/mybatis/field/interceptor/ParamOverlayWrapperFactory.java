@@ -0,0 +1,179 @@
+package com.github.mybatis.field.interceptor;
+
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
+import org.apache.ibatis.reflection.wrapper.BeanWrapper;
+import org.apache.ibatis.reflection.wrapper.CollectionWrapper;
+import org.apache.ibatis.reflection.wrapper.MapWrapper;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
+import org.apache.ibatis.session.Configuration;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 绑定JDBC参数期间，让MyBatis通过MetaObject读取参数对象上被注解字段时得到ParamOverlay中的新值
+ * 绑定仍然由ParameterHandler执行，其它插件和自定义的ObjectWrapperFactory不受影响；不在绑定期间时直接交给原来的factory
+ * 安装后一直保留在Configuration上，没有绑定中的新值时只多一次ThreadLocal读取
+ * Created on 2026-10-18
+ */
+final class ParamOverlayWrapperFactory implements ObjectWrapperFactory {
+
+    //  当前线程正在绑定的参数的新值
+    private static final ThreadLocal<ParamOverlay> BINDING_OVERLAY = new ThreadLocal<>();
+
+    private final ObjectWrapperFactory delegate;
+
+    private ParamOverlayWrapperFactory(ObjectWrapperFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * 在Configuration上安装，已经安装过时不重复安装
+     * 需要在创建BoundSql之前安装，foreach等附加参数的MetaObject在创建BoundSql时确定factory
+     */
+    static void install(Configuration configuration) {
+        if (configuration.getObjectWrapperFactory() instanceof ParamOverlayWrapperFactory) {
+            return;
+        }
+        synchronized (ParamOverlayWrapperFactory.class) {
+            ObjectWrapperFactory objectWrapperFactory = configuration.getObjectWrapperFactory();
+            if (!(objectWrapperFactory instanceof ParamOverlayWrapperFactory)) {
+                configuration.setObjectWrapperFactory(new ParamOverlayWrapperFactory(objectWrapperFactory));
+            }
+        }
+    }
+
+    /**
+     * 开始绑定参数，之后在当前线程创建的MetaObject读取paramOverlay中的对象时使用新值
+     *
+     * @return 外层正在绑定的新值，结束时交给endBinding
+     */
+    static ParamOverlay beginBinding(ParamOverlay paramOverlay) {
+        ParamOverlay outerOverlay = BINDING_OVERLAY.get();
+        BINDING_OVERLAY.set(paramOverlay);
+        return outerOverlay;
+    }
+
+    static void endBinding(ParamOverlay outerOverlay) {
+        if (outerOverlay != null) {
+            BINDING_OVERLAY.set(outerOverlay);
+        } else {
+            BINDING_OVERLAY.remove();
+        }
+    }
+
+    @Override
+    public boolean hasWrapperFor(Object object) {
+        ParamOverlay paramOverlay = BINDING_OVERLAY.get();
+        return paramOverlay != null && paramOverlay.contains(object) || delegate.hasWrapperFor(object);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ObjectWrapper getWrapperFor(MetaObject metaObject, Object object) {
+        ObjectWrapper objectWrapper;
+        if (delegate.hasWrapperFor(object)) {
+            objectWrapper = delegate.getWrapperFor(metaObject, object);
+        } else if (object instanceof Map) {
+            objectWrapper = new MapWrapper(metaObject, (Map<String, Object>) object);
+        } else if (object instanceof Collection) {
+            objectWrapper = new CollectionWrapper(metaObject, (Collection<Object>) object);
+        } else {
+            objectWrapper = new BeanWrapper(metaObject, object);
+        }
+        ParamOverlay paramOverlay = BINDING_OVERLAY.get();
+        return paramOverlay != null && paramOverlay.contains(object)
+                ? new OverlayObjectWrapper(objectWrapper, paramOverlay, object) : objectWrapper;
+    }
+
+    /**
+     * 读取有新值的属性时返回新值，其它操作交给原来的ObjectWrapper
+     */
+    private static final class OverlayObjectWrapper implements ObjectWrapper {
+
+        private final ObjectWrapper delegate;
+        private final ParamOverlay paramOverlay;
+        private final Object object;
+
+        private OverlayObjectWrapper(ObjectWrapper delegate, ParamOverlay paramOverlay, Object object) {
+            this.delegate = delegate;
+            this.paramOverlay = paramOverlay;
+            this.object = object;
+        }
+
+        @Override
+        public Object get(PropertyTokenizer prop) {
+            if (prop.getIndex() == null) {
+                Object newValue = paramOverlay.get(object, prop.getName());
+                if (newValue != ParamOverlay.ABSENT) {
+                    return newValue;
+                }
+            }
+            return delegate.get(prop);
+        }
+
+        @Override
+        public void set(PropertyTokenizer prop, Object value) {
+            delegate.set(prop, value);
+        }
+
+        @Override
+        public String findProperty(String name, boolean useCamelCaseMapping) {
+            return delegate.findProperty(name, useCamelCaseMapping);
+        }
+
+        @Override
+        public String[] getGetterNames() {
+            return delegate.getGetterNames();
+        }
+
+        @Override
+        public String[] getSetterNames() {
+            return delegate.getSetterNames();
+        }
+
+        @Override
+        public Class<?> getSetterType(String name) {
+            return delegate.getSetterType(name);
+        }
+
+        @Override
+        public Class<?> getGetterType(String name) {
+            return delegate.getGetterType(name);
+        }
+
+        @Override
+        public boolean hasSetter(String name) {
+            return delegate.hasSetter(name);
+        }
+
+        @Override
+        public boolean hasGetter(String name) {
+            return delegate.hasGetter(name);
+        }
+
+        @Override
+        public MetaObject instantiatePropertyValue(String name, PropertyTokenizer prop, ObjectFactory objectFactory) {
+            return delegate.instantiatePropertyValue(name, prop, objectFactory);
+        }
+
+        @Override
+        public boolean isCollection() {
+            return delegate.isCollection();
+        }
+
+        @Override
+        public void add(Object element) {
+            delegate.add(element);
+        }
+
+        @Override
+        public <E> void addAll(List<E> element) {
+            delegate.addAll(element);
+        }
+    }
+}
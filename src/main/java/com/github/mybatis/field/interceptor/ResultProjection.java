@@ -0,0 +1,221 @@
+package com.github.mybatis.field.interceptor;
+
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.mapping.Discriminator;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.session.Configuration;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 查询语句的返回值中实际被赋值的属性，只对这些属性上的被注解字段回调handler
+ * 显式映射的属性根据statement的ResultMap计算一次，自动映射的属性在执行时才确定，从DefaultResultSetHandler的autoMappingsCache中读取
+ * 通过构造方法创建的类无法知道哪些字段被赋值，仍然处理全部字段
+ * Created on 2026-10-17
+ */
+final class ResultProjection {
+
+    //  DefaultResultSetHandler上缓存自动映射的私有字段和自动映射对应的属性名，找不到时为null
+    private static final Field AUTO_MAPPINGS_CACHE_FIELD =
+            findPrivateField(DefaultResultSetHandler.class, "autoMappingsCache");
+    private static final Field AUTO_MAPPING_PROPERTY_FIELD = findPrivateField(
+            DefaultResultSetHandler.class.getName() + "$UnMappedColumnAutoMapping", "property");
+
+    //  Map<ResultMap的类型,显式映射的属性名>
+    private final Map<Class<?>, Set<String>> declaredPropertyMap;
+    //  通过构造方法赋值的ResultMap类型，需要处理全部字段
+    private final Set<Class<?>> constructedClzSet;
+    //  Map<ResultMap id,ResultMap的类型>，autoMappingsCache的key为"ResultMap id:列名前缀"
+    private final Map<String, Class<?>> resultMapTypeMap;
+
+    private ResultProjection(Map<Class<?>, Set<String>> declaredPropertyMap, Set<Class<?>> constructedClzSet,
+                             Map<String, Class<?>> resultMapTypeMap) {
+        this.declaredPropertyMap = declaredPropertyMap;
+        this.constructedClzSet = constructedClzSet;
+        this.resultMapTypeMap = resultMapTypeMap;
+    }
+
+    /**
+     * @return 读取不到自动映射信息时返回null，按全部字段处理
+     */
+    static ResultProjection build(Configuration configuration, List<ResultMap> resultMaps) {
+        if (AUTO_MAPPINGS_CACHE_FIELD == null || AUTO_MAPPING_PROPERTY_FIELD == null) {
+            return null;
+        }
+        Map<Class<?>, Set<String>> declaredPropertyMap = new HashMap<>();
+        Set<Class<?>> constructedClzSet = new HashSet<>();
+        Map<String, Class<?>> resultMapTypeMap = new HashMap<>();
+        for (ResultMap resultMap : resultMaps) {
+            collectMappedProperties(configuration, resultMap, declaredPropertyMap, constructedClzSet, resultMapTypeMap);
+        }
+        return new ResultProjection(declaredPropertyMap, constructedClzSet, resultMapTypeMap);
+    }
+
+    private static void collectMappedProperties(Configuration configuration, ResultMap resultMap,
+                                                Map<Class<?>, Set<String>> declaredPropertyMap,
+                                                Set<Class<?>> constructedClzSet,
+                                                Map<String, Class<?>> resultMapTypeMap) {
+        if (resultMapTypeMap.putIfAbsent(resultMap.getId(), resultMap.getType()) != null) {
+            return;
+        }
+        Class<?> type = resultMap.getType();
+        //  有<constructor>映射，或者没有无参构造方法时MyBatis按列顺序调用构造方法
+        if (!resultMap.getConstructorResultMappings().isEmpty() || !type.isInterface()
+                && !configuration.getReflectorFactory().findForClass(type).hasDefaultConstructor()) {
+            constructedClzSet.add(type);
+        }
+        Set<String> properties = declaredPropertyMap.computeIfAbsent(type, clz -> new HashSet<>());
+        for (ResultMapping resultMapping : resultMap.getPropertyResultMappings()) {
+            if (resultMapping.getProperty() != null) {
+                properties.add(rootProperty(resultMapping.getProperty()));
+            }
+            String nestedResultMapId = resultMapping.getNestedResultMapId();
+            if (nestedResultMapId != null && configuration.hasResultMap(nestedResultMapId)) {
+                collectMappedProperties(configuration, configuration.getResultMap(nestedResultMapId),
+                        declaredPropertyMap, constructedClzSet, resultMapTypeMap);
+            }
+        }
+        Discriminator discriminator = resultMap.getDiscriminator();
+        if (discriminator != null) {
+            for (String caseResultMapId : discriminator.getDiscriminatorMap().values()) {
+                if (configuration.hasResultMap(caseResultMapId)) {
+                    collectMappedProperties(configuration, configuration.getResultMap(caseResultMapId),
+                            declaredPropertyMap, constructedClzSet, resultMapTypeMap);
+                }
+            }
+        }
+    }
+
+    /**
+     * 嵌套属性"a.b"赋值的是字段a
+     */
+    private static String rootProperty(String property) {
+        int dot = property.indexOf('.');
+        return dot < 0 ? property : property.substring(0, dot);
+    }
+
+    /**
+     * 合并本次执行中自动映射的属性
+     *
+     * @param resultSetHandler 已经执行完handleResultSets的ResultSetHandler
+     * @return 不是DefaultResultSetHandler时返回null，按全部字段处理
+     */
+    Populated resolve(Object resultSetHandler, FieldAccessRegistry registry) {
+        if (!(resultSetHandler instanceof DefaultResultSetHandler)) {
+            return null;
+        }
+        Map<?, ?> autoMappingsCache = (Map<?, ?>) readField(AUTO_MAPPINGS_CACHE_FIELD, resultSetHandler);
+        if (autoMappingsCache == null) {
+            return null;
+        }
+        Map<Class<?>, Set<String>> propertyMap = new HashMap<>(declaredPropertyMap);
+        for (Map.Entry<?, ?> entry : autoMappingsCache.entrySet()) {
+            String key = (String) entry.getKey();
+            int colon = key.lastIndexOf(':');
+            Class<?> type = colon < 0 ? null : resultMapTypeMap.get(key.substring(0, colon));
+            if (type == null) {
+                //  列名前缀中带":"时按前缀匹配
+                for (Map.Entry<String, Class<?>> typeEntry : resultMapTypeMap.entrySet()) {
+                    if (key.startsWith(typeEntry.getKey() + ":")) {
+                        type = typeEntry.getValue();
+                        break;
+                    }
+                }
+            }
+            if (type == null) {
+                continue;
+            }
+            Set<String> properties = new HashSet<>(propertyMap.get(type));
+            for (Object autoMapping : (List<?>) entry.getValue()) {
+                properties.add(rootProperty((String) readField(AUTO_MAPPING_PROPERTY_FIELD, autoMapping)));
+            }
+            propertyMap.put(type, properties);
+        }
+        return new Populated(propertyMap, constructedClzSet, registry);
+    }
+
+    private static Field findPrivateField(Class<?> clz, String fieldName) {
+        try {
+            Field field = clz.getDeclaredField(fieldName);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Field findPrivateField(String className, String fieldName) {
+        try {
+            return findPrivateField(Class.forName(className, false, DefaultResultSetHandler.class.getClassLoader()),
+                    fieldName);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static Object readField(Field field, Object obj) {
+        try {
+            return field.get(obj);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 一次查询中被赋值的属性，按运行时的类缓存只包含这些字段的处理计划
+     */
+    static final class Populated {
+
+        private final Map<Class<?>, Set<String>> propertyMap;
+        private final Set<Class<?>> constructedClzSet;
+        private final FieldAccessRegistry registry;
+        //  Map<运行时的类,只包含被赋值字段的处理计划>，并行处理时多个线程同时读取
+        private final Map<Class<?>, ClassFieldPlan> planMap = new ConcurrentHashMap<>();
+
+        private Populated(Map<Class<?>, Set<String>> propertyMap, Set<Class<?>> constructedClzSet,
+                          FieldAccessRegistry registry) {
+            this.propertyMap = propertyMap;
+            this.constructedClzSet = constructedClzSet;
+            this.registry = registry;
+        }
+
+        /**
+         * 运行时的类及其父类都不是ResultMap的类型时，无法确定哪些字段被赋值，返回全部字段
+         */
+        ClassFieldPlan getPlan(Class<?> clz) {
+            ClassFieldPlan plan = registry.getPlan(clz);
+            if (plan.isEmpty()) {
+                return plan;
+            }
+            ClassFieldPlan projected = planMap.get(clz);
+            if (projected == null) {
+                projected = planMap.computeIfAbsent(clz, c -> project(c, plan));
+            }
+            return projected;
+        }
+
+        private ClassFieldPlan project(Class<?> clz, ClassFieldPlan plan) {
+            Set<String> properties = null;
+            for (Class<?> c = clz; c != null && c != Object.class; c = c.getSuperclass()) {
+                if (constructedClzSet.contains(c)) {
+                    return plan;
+                }
+                Set<String> declared = propertyMap.get(c);
+                if (declared != null) {
+                    if (properties == null) {
+                        properties = new HashSet<>();
+                    }
+                    properties.addAll(declared);
+                }
+            }
+            return properties == null ? plan : plan.select(properties);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.github.mybatis.field.interceptor;
+
+import org.apache.ibatis.mapping.Discriminator;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.session.Configuration;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 查询结果中嵌套对象的遍历计划，根据statement的ResultMap中&lt;association&gt;/&lt;collection&gt;的嵌套ResultMap计算一次
+ * 只遍历嵌套ResultMap映射的属性，嵌套查询（select=）的结果在它自己的statement中已经处理过，不会被重复修改
+ * 属性值由ObjectGraphWalker展开
+ * Created on 2026-10-17
+ */
+final class ResultTraversal {
+
+    private static final NestedProperty[] NONE = new NestedProperty[0];
+
+    //  Map<ResultMap的类型,需要遍历的属性>
+    private final Map<Class<?>, NestedProperty[]> declaredPropertyMap;
+
+    //  Map<运行时的类,需要遍历的属性>，运行时的类可能是ResultMap类型的子类或代理类，没有时为NONE
+    private final Map<Class<?>, NestedProperty[]> resolvedPropertyMap = new ConcurrentHashMap<>();
+
+    private ResultTraversal(Map<Class<?>, NestedProperty[]> declaredPropertyMap) {
+        this.declaredPropertyMap = declaredPropertyMap;
+    }
+
+    /**
+     * @return 没有需要遍历的嵌套属性时返回null
+     */
+    static ResultTraversal build(Configuration configuration, List<ResultMap> resultMaps, Set<Class<?>> accessClzSet) {
+        Map<Class<?>, Map<String, NestedProperty>> propertyMap = new HashMap<>();
+        Set<String> visitedResultMapIds = new HashSet<>();
+        for (ResultMap resultMap : resultMaps) {
+            collectNestedProperties(configuration, resultMap, accessClzSet, propertyMap, visitedResultMapIds);
+        }
+        if (propertyMap.isEmpty()) {
+            return null;
+        }
+        Map<Class<?>, NestedProperty[]> declaredPropertyMap = new HashMap<>();
+        propertyMap.forEach((type, properties) ->
+                declaredPropertyMap.put(type, properties.values().toArray(new NestedProperty[0])));
+        return new ResultTraversal(declaredPropertyMap);
+    }
+
+    private static void collectNestedProperties(Configuration configuration, ResultMap resultMap,
+                                                Set<Class<?>> accessClzSet,
+                                                Map<Class<?>, Map<String, NestedProperty>> propertyMap,
+                                                Set<String> visitedResultMapIds) {
+        if (!visitedResultMapIds.add(resultMap.getId())) {
+            return;
+        }
+        for (ResultMapping resultMapping : resultMap.getPropertyResultMappings()) {
+            String nestedResultMapId = resultMapping.getNestedResultMapId();
+            String property = resultMapping.getProperty();
+            if (nestedResultMapId == null || property == null || property.indexOf('.') >= 0
+                    || !configuration.hasResultMap(nestedResultMapId)) {
+                continue;
+            }
+            ResultMap nestedResultMap = configuration.getResultMap(nestedResultMapId);
+            Set<Class<?>> nestedClzSet = new HashSet<>();
+            StatementPlan.collectResultClz(configuration, nestedResultMap, accessClzSet, nestedClzSet, new HashSet<>());
+            Field field = findField(resultMap.getType(), property);
+            if (!nestedClzSet.isEmpty() && field != null) {
+                propertyMap.computeIfAbsent(resultMap.getType(), type -> new LinkedHashMap<>())
+                        .computeIfAbsent(property, name -> new NestedProperty(name, FieldAccessors.fieldGetter(field)));
+            }
+            collectNestedProperties(configuration, nestedResultMap, accessClzSet, propertyMap, visitedResultMapIds);
+        }
+        Discriminator discriminator = resultMap.getDiscriminator();
+        if (discriminator != null) {
+            for (String caseResultMapId : discriminator.getDiscriminatorMap().values()) {
+                if (configuration.hasResultMap(caseResultMapId)) {
+                    collectNestedProperties(configuration, configuration.getResultMap(caseResultMapId), accessClzSet,
+                            propertyMap, visitedResultMapIds);
+                }
+            }
+        }
+    }
+
+    private static Field findField(Class<?> type, String name) {
+        for (Class<?> clz = type; clz != null && clz != Object.class; clz = clz.getSuperclass()) {
+            for (Field field : clz.getDeclaredFields()) {
+                if (field.getName().equals(name)) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 运行时的类上需要遍历的属性，没有时返回空数组
+     */
+    NestedProperty[] getNestedProperties(Class<?> clz) {
+        NestedProperty[] properties = resolvedPropertyMap.get(clz);
+        if (properties == null) {
+            properties = resolvedPropertyMap.computeIfAbsent(clz, this::resolve);
+        }
+        return properties;
+    }
+
+    /**
+     * 合并运行时的类及其父类作为ResultMap类型时的嵌套属性
+     */
+    private NestedProperty[] resolve(Class<?> clz) {
+        List<NestedProperty> properties = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (Class<?> c = clz; c != null && c != Object.class; c = c.getSuperclass()) {
+            NestedProperty[] declared = declaredPropertyMap.get(c);
+            if (declared != null) {
+                for (NestedProperty property : declared) {
+                    if (names.add(property.name)) {
+                        properties.add(property);
+                    }
+                }
+            }
+        }
+        return properties.isEmpty() ? NONE : properties.toArray(new NestedProperty[0]);
+    }
+
+    static final class NestedProperty {
+
+        private final String name;
+        private final Function<Object, Object> getter;
+
+        private NestedProperty(String name, Function<Object, Object> getter) {
+            this.name = name;
+            this.getter = getter;
+        }
+
+        /**
+         * 直接读取字段，不触发MyBatis延迟加载
+         */
+        Object get(Object obj) {
+            return getter.apply(obj);
+        }
+    }
+}
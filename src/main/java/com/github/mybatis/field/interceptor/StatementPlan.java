@@ -0,0 +1,302 @@
+package com.github.mybatis.field.interceptor;
+
+import org.apache.ibatis.mapping.Discriminator;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMap;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.session.Configuration;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 单个MappedStatement的拦截计划，根据ResultMap和ParameterMap计算一次后缓存
+ * 记录返回值和入参里可能出现哪些被@EnableFieldAccessInterceptor标记的类，一个都不可能出现时直接跳过拦截
+ * Created on 2026-10-17
+ */
+final class StatementPlan {
+
+    /**
+     * 返回值中可能出现的被注解的类，为空说明不需要拦截返回值
+     */
+    private final Set<Class<?>> resultClzSet;
+    /**
+     * 入参中可能出现的被注解的类，为空说明不需要拦截入参
+     */
+    private final Set<Class<?>> paramClzSet;
+    /**
+     * 查询语句的@Param参数名对应的返回值类型上的被注解字段，Map<参数名,字段元信息>
+     */
+    private final Map<String, AccessFieldMetaVO> queryParamFieldMap;
+    /**
+     * ParamMap中指向queryParamFieldMap里参数的通用参数名，Map<param1等通用参数名,@Param参数名>
+     */
+    private final Map<String, String> queryParamAliasMap;
+    private final boolean select;
+    /**
+     * 返回值中嵌套对象的遍历计划，没有嵌套ResultMap时为null
+     */
+    private final ResultTraversal resultTraversal;
+    /**
+     * 返回值中实际被赋值的属性，不需要拦截返回值或读取不到自动映射信息时为null
+     */
+    private final ResultProjection resultProjection;
+    /**
+     * 返回值中是否有MyBatis延迟加载的嵌套查询，有时返回对象是MyBatis自己的代理对象
+     */
+    private final boolean lazyLoading;
+
+    private StatementPlan(Set<Class<?>> resultClzSet, Set<Class<?>> paramClzSet,
+                          Map<String, AccessFieldMetaVO> queryParamFieldMap, Map<String, String> queryParamAliasMap,
+                          boolean select, ResultTraversal resultTraversal, ResultProjection resultProjection,
+                          boolean lazyLoading) {
+        this.resultClzSet = resultClzSet;
+        this.paramClzSet = paramClzSet;
+        this.queryParamFieldMap = queryParamFieldMap;
+        this.queryParamAliasMap = queryParamAliasMap;
+        this.select = select;
+        this.resultTraversal = resultTraversal;
+        this.resultProjection = resultProjection;
+        this.lazyLoading = lazyLoading;
+    }
+
+    static StatementPlan build(MappedStatement ms, FieldAccessRegistry registry) {
+        Set<Class<?>> accessClzSet = registry.getAccessClzSet();
+        Set<Class<?>> resultClzSet = new HashSet<>();
+        Set<String> visitedResultMapIds = new HashSet<>();
+        for (ResultMap resultMap : ms.getResultMaps()) {
+            collectResultClz(ms.getConfiguration(), resultMap, accessClzSet, resultClzSet, visitedResultMapIds);
+        }
+
+        Set<Class<?>> paramClzSet = new HashSet<>();
+        SqlCommandType sqlCommandType = ms.getSqlCommandType();
+        boolean select = SqlCommandType.SELECT == sqlCommandType;
+        if (SqlCommandType.INSERT == sqlCommandType || SqlCommandType.UPDATE == sqlCommandType || select) {
+            ParameterMap parameterMap = ms.getParameterMap();
+            Class<?> paramType = parameterMap == null ? null : parameterMap.getType();
+            if (paramType == null || isContainer(paramType)) {
+                //没有声明入参类型或者入参是容器，只能在运行时逐个对象判断
+                paramClzSet.addAll(accessClzSet);
+            } else {
+                collectAssignableClz(paramType, accessClzSet, paramClzSet);
+            }
+        }
+        Map<String, AccessFieldMetaVO> queryParamFieldMap = select
+                ? buildQueryParamFieldMap(resultClzSet, registry) : Collections.emptyMap();
+        Map<String, String> queryParamAliasMap = queryParamFieldMap.isEmpty()
+                ? Collections.emptyMap() : buildQueryParamAliasMap(ms, queryParamFieldMap);
+        ResultTraversal resultTraversal = resultClzSet.isEmpty() ? null
+                : ResultTraversal.build(ms.getConfiguration(), ms.getResultMaps(), accessClzSet);
+        ResultProjection resultProjection = resultClzSet.isEmpty() ? null
+                : ResultProjection.build(ms.getConfiguration(), ms.getResultMaps());
+        boolean lazyLoading = false;
+        Set<String> visitedLazyResultMapIds = new HashSet<>();
+        for (ResultMap resultMap : ms.getResultMaps()) {
+            lazyLoading |= hasLazyLoading(ms.getConfiguration(), resultMap, visitedLazyResultMapIds);
+        }
+        return new StatementPlan(Collections.unmodifiableSet(resultClzSet), Collections.unmodifiableSet(paramClzSet),
+                queryParamFieldMap, queryParamAliasMap, select, resultTraversal, resultProjection, lazyLoading);
+    }
+
+    /**
+     * 查询条件里和返回值类型上被注解字段同名的参数，按这个字段的handler处理
+     * 多个返回值类型上同名字段的handler不一致，或者字段有@ModifyParamDependency时无法确定怎么处理，不拦截这个参数
+     */
+    private static Map<String, AccessFieldMetaVO> buildQueryParamFieldMap(Set<Class<?>> resultClzSet,
+                                                                          FieldAccessRegistry registry) {
+        Map<String, AccessFieldMetaVO> queryParamFieldMap = new HashMap<>();
+        Set<String> conflictNames = new HashSet<>();
+        for (Class<?> resultClz : resultClzSet) {
+            Map<String, AccessFieldMetaVO> fieldMetaMap = registry.getFieldMetaMap(resultClz);
+            for (Map.Entry<String, AccessFieldMetaVO> entry : fieldMetaMap.entrySet()) {
+                AccessFieldMetaVO fieldMeta = entry.getValue();
+                AccessFieldMetaVO existing = queryParamFieldMap.putIfAbsent(entry.getKey(), fieldMeta);
+                if (fieldMeta.getParamDependencyMethod() != null || existing != null
+                        && (existing.getHandler() != fieldMeta.getHandler()
+                        || !existing.getHandlerParams().equals(fieldMeta.getHandlerParams()))) {
+                    conflictNames.add(entry.getKey());
+                }
+            }
+        }
+        queryParamFieldMap.keySet().removeAll(conflictNames);
+        return queryParamFieldMap.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(queryParamFieldMap);
+    }
+
+    /**
+     * Mapper方法的ParamMap中第i个参数同时以@Param参数名和param(i+1)两个名字出现，SQL里可以用任意一个
+     * 找不到唯一的Mapper方法（XML中没有对应接口、方法重载）时没有别名
+     */
+    private static Map<String, String> buildQueryParamAliasMap(MappedStatement ms,
+                                                               Map<String, AccessFieldMetaVO> queryParamFieldMap) {
+        Method method = findMapperMethod(ms);
+        if (method == null) {
+            return Collections.emptyMap();
+        }
+        String[] names = new ParamNameResolver(ms.getConfiguration(), method).getNames();
+        Set<String> nameSet = new HashSet<>();
+        Collections.addAll(nameSet, names);
+        Map<String, String> queryParamAliasMap = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            String genericParamName = ParamNameResolver.GENERIC_NAME_PREFIX + (i + 1);
+            if (queryParamFieldMap.containsKey(names[i]) && !nameSet.contains(genericParamName)) {
+                queryParamAliasMap.put(genericParamName, names[i]);
+            }
+        }
+        return queryParamAliasMap.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(queryParamAliasMap);
+    }
+
+    private static Method findMapperMethod(MappedStatement ms) {
+        String id = ms.getId();
+        int lastDot = id.lastIndexOf('.');
+        if (lastDot < 0) {
+            return null;
+        }
+        String namespace = id.substring(0, lastDot);
+        String methodName = id.substring(lastDot + 1);
+        for (Class<?> mapperClz : ms.getConfiguration().getMapperRegistry().getMappers()) {
+            if (!mapperClz.getName().equals(namespace)) {
+                continue;
+            }
+            Method found = null;
+            for (Method method : mapperClz.getMethods()) {
+                if (method.getName().equals(methodName) && !method.isBridge()) {
+                    if (found != null) {
+                        return null;
+                    }
+                    found = method;
+                }
+            }
+            return found;
+        }
+        return null;
+    }
+
+    /**
+     * 返回值的行对象类型由ResultMap和discriminator下的各个分支ResultMap决定，
+     * &lt;association&gt;/&lt;collection&gt;嵌套ResultMap的类型也会出现在返回值中
+     */
+    static void collectResultClz(Configuration configuration, ResultMap resultMap, Set<Class<?>> accessClzSet,
+                                         Set<Class<?>> resultClzSet, Set<String> visitedResultMapIds) {
+        if (!visitedResultMapIds.add(resultMap.getId())) {
+            return;
+        }
+        collectAssignableClz(resultMap.getType(), accessClzSet, resultClzSet);
+        for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+            String nestedResultMapId = resultMapping.getNestedResultMapId();
+            if (nestedResultMapId != null && configuration.hasResultMap(nestedResultMapId)) {
+                collectResultClz(configuration, configuration.getResultMap(nestedResultMapId), accessClzSet,
+                        resultClzSet, visitedResultMapIds);
+            }
+        }
+        Discriminator discriminator = resultMap.getDiscriminator();
+        if (discriminator == null) {
+            return;
+        }
+        for (String caseResultMapId : discriminator.getDiscriminatorMap().values()) {
+            if (configuration.hasResultMap(caseResultMapId)) {
+                collectResultClz(configuration, configuration.getResultMap(caseResultMapId), accessClzSet,
+                        resultClzSet, visitedResultMapIds);
+            }
+        }
+    }
+
+    /**
+     * ResultMap、嵌套ResultMap和discriminator分支中是否有fetchType=lazy（或全局开启延迟加载）的嵌套查询
+     */
+    private static boolean hasLazyLoading(Configuration configuration, ResultMap resultMap,
+                                          Set<String> visitedResultMapIds) {
+        if (!visitedResultMapIds.add(resultMap.getId())) {
+            return false;
+        }
+        for (ResultMapping resultMapping : resultMap.getPropertyResultMappings()) {
+            if (resultMapping.getNestedQueryId() != null && resultMapping.isLazy()) {
+                return true;
+            }
+            String nestedResultMapId = resultMapping.getNestedResultMapId();
+            if (nestedResultMapId != null && configuration.hasResultMap(nestedResultMapId)
+                    && hasLazyLoading(configuration, configuration.getResultMap(nestedResultMapId),
+                    visitedResultMapIds)) {
+                return true;
+            }
+        }
+        Discriminator discriminator = resultMap.getDiscriminator();
+        if (discriminator == null) {
+            return false;
+        }
+        for (String caseResultMapId : discriminator.getDiscriminatorMap().values()) {
+            if (configuration.hasResultMap(caseResultMapId)
+                    && hasLazyLoading(configuration, configuration.getResultMap(caseResultMapId),
+                    visitedResultMapIds)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 声明类型可能是父类或接口，运行时的对象可能是它的任意一个被注解的子类；
+     * 声明类型也可能是被注解类的子类，运行时按父类上的字段处理
+     */
+    private static void collectAssignableClz(Class<?> declaredType, Set<Class<?>> accessClzSet, Set<Class<?>> target) {
+        for (Class<?> accessClz : accessClzSet) {
+            if (declaredType.isAssignableFrom(accessClz) || accessClz.isAssignableFrom(declaredType)) {
+                target.add(accessClz);
+            }
+        }
+    }
+
+    private static boolean isContainer(Class<?> type) {
+        return Map.class.isAssignableFrom(type) || Collection.class.isAssignableFrom(type) || type.isArray();
+    }
+
+    boolean isInterceptResult() {
+        return !resultClzSet.isEmpty();
+    }
+
+    boolean isInterceptParam() {
+        return !paramClzSet.isEmpty();
+    }
+
+    /**
+     * 查询语句的入参里有被注解的对象，或者有和返回值类型上被注解字段同名的@Param参数
+     */
+    boolean isInterceptQueryParam() {
+        return select && (!paramClzSet.isEmpty() || !queryParamFieldMap.isEmpty());
+    }
+
+    boolean isLazyLoading() {
+        return lazyLoading;
+    }
+
+    ResultTraversal getResultTraversal() {
+        return resultTraversal;
+    }
+
+    ResultProjection getResultProjection() {
+        return resultProjection;
+    }
+
+    Map<String, AccessFieldMetaVO> getQueryParamFieldMap() {
+        return queryParamFieldMap;
+    }
+
+    Map<String, String> getQueryParamAliasMap() {
+        return queryParamAliasMap;
+    }
+
+    Set<Class<?>> getResultClzSet() {
+        return resultClzSet;
+    }
+
+    Set<Class<?>> getParamClzSet() {
+        return paramClzSet;
+    }
+}
@@ -22,4 +22,11 @@ public @interface FieldAccess {
     Class<? extends IFieldAccessHandler> handler();
 
     String[] handlerParams() default {};
+
+    /**
+     * 是否缓存handler的转换结果，同一个字段上相同handlerParams、相同旧值直接返回缓存的新值
+     * 缓存的key只有旧值，只适合新值由fieldName、旧值和handlerParams决定的handler，例如确定性加密、枚举映射；
+     * 结果依赖resultObj/paramObj上其它字段（例如按租户字段选择密钥）或者每次不同（例如随机IV）的handler不能开启
+     */
+    boolean cacheable() default false;
 }
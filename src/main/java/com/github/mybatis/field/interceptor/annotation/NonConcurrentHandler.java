@@ -0,0 +1,18 @@
+package com.github.mybatis.field.interceptor.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 用于标记不是线程安全的IFieldAccessHandler实现类
+ * 开启并行处理返回值时，被标记的handler负责的字段仍然在调用线程上串行处理
+ * Created on 2026-10-17
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface NonConcurrentHandler {
+}
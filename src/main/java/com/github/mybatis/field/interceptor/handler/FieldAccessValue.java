@@ -0,0 +1,65 @@
+package com.github.mybatis.field.interceptor.handler;
+
+import java.util.List;
+
+/**
+ * 批量处理时的单个待修改字段，对应一个对象上被@FieldAccess标记的一个字段
+ * Created on 2026-10-17
+ */
+public class FieldAccessValue {
+
+    /**
+     * 字段名
+     */
+    private final String fieldName;
+    /**
+     * 字段的旧值
+     */
+    private final Object fieldValue;
+    /**
+     * 字段所属的对象
+     */
+    private final Object targetObj;
+    /**
+     * 注解上配置的handler参数，可以为空
+     */
+    private final List<String> handlerParams;
+    /**
+     * handler实现了IContextFieldAccessHandler时为prepare返回的上下文对象，否则为null
+     */
+    private final Object handlerContext;
+
+    public FieldAccessValue(String fieldName, Object fieldValue, Object targetObj, List<String> handlerParams) {
+        this(fieldName, fieldValue, targetObj, handlerParams, null);
+    }
+
+    public FieldAccessValue(String fieldName, Object fieldValue, Object targetObj, List<String> handlerParams,
+                            Object handlerContext) {
+        this.fieldName = fieldName;
+        this.fieldValue = fieldValue;
+        this.targetObj = targetObj;
+        this.handlerParams = handlerParams;
+        this.handlerContext = handlerContext;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public Object getFieldValue() {
+        return fieldValue;
+    }
+
+    public Object getTargetObj() {
+        return targetObj;
+    }
+
+    public List<String> getHandlerParams() {
+        return handlerParams;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <C> C getHandlerContext() {
+        return (C) handlerContext;
+    }
+}
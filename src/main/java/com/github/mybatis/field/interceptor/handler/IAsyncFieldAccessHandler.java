@@ -0,0 +1,65 @@
+package com.github.mybatis.field.interceptor.handler;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 异步处理接口，适用于handler需要等待I/O的场景（例如通过本地socket调用密钥服务）
+ * 拦截器会先对每个字段单独执行依赖方法和allowXXX判断，再把同一次拦截中所有通过判断的字段同时发起，
+ * 每个handler同时进行中的调用数受FieldAccessInterceptor#setAsyncMaxInFlight限制，全部完成后才继续执行
+ * Created on 2026-10-17
+ */
+public interface IAsyncFieldAccessHandler extends IFieldAccessHandler {
+
+    /**
+     * 异步把数据库读出来的旧值转换为新值，一般在拦截器的异步线程上调用，可以直接阻塞等待I/O
+     * 同一次拦截中有调用失败或超时时，其它还没完成的Future会被cancel
+     *
+     * @return 新值的Future，Future本身不能为null
+     */
+    CompletableFuture<Object> modifyResultAsync(String fieldName, Object fieldValue, Object resultObj,
+                                                List<String> handlerParams);
+
+    /**
+     * 异步把要写入数据库的旧值转换为新值，一般在拦截器的异步线程上调用，可以直接阻塞等待I/O
+     * 同一次拦截中有调用失败或超时时，其它还没完成的Future会被cancel
+     *
+     * @return 新值的Future，Future本身不能为null
+     */
+    CompletableFuture<Object> modifyParamAsync(String fieldName, Object fieldValue, Object paramObj,
+                                               List<String> handlerParams);
+
+    /**
+     * 懒加载模式、TypeHandler模式等逐个字段处理的场景下调用，等待modifyResultAsync完成
+     */
+    @Override
+    default Object modifyResult(String fieldName, Object fieldValue, Object result, List<String> handleParams)
+            throws Exception {
+        return join(modifyResultAsync(fieldName, fieldValue, result, handleParams));
+    }
+
+    /**
+     * 逐个字段处理的场景下调用，等待modifyParamAsync完成
+     */
+    @Override
+    default Object modifyParam(String fieldName, Object fieldValue, Object paramObj, List<String> handleParams)
+            throws Exception {
+        return join(modifyParamAsync(fieldName, fieldValue, paramObj, handleParams));
+    }
+
+    /**
+     * 等待Future完成，ExecutionException拆成handler抛出的原始异常
+     */
+    static Object join(CompletableFuture<Object> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.mybatis.field.interceptor.handler;
+
+import java.util.List;
+
+/**
+ * 支持批量修改的处理接口
+ * 拦截器会先对每个字段单独执行依赖方法和allowXXX判断，再把同一次拦截中所有通过判断的字段一次性交给handler处理
+ * Created on 2026-10-17
+ */
+public interface IBatchFieldAccessHandler extends IFieldAccessHandler {
+
+    /**
+     * 批量把数据库读出来的旧值转换为新值
+     *
+     * @param fieldValues 所有通过判断的字段，可能来自不同对象、不同字段
+     * @return 新值，顺序和数量必须与fieldValues一致
+     */
+    List<Object> modifyResults(List<FieldAccessValue> fieldValues) throws Exception;
+
+    /**
+     * 批量把要写入数据库的旧值转换为新值
+     *
+     * @param fieldValues 所有通过判断的字段，可能来自不同对象、不同字段
+     * @return 新值，顺序和数量必须与fieldValues一致
+     */
+    List<Object> modifyParams(List<FieldAccessValue> fieldValues) throws Exception;
+
+}
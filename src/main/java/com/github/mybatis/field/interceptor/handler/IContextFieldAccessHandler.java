@@ -0,0 +1,77 @@
+package com.github.mybatis.field.interceptor.handler;
+
+import java.util.List;
+
+/**
+ * 带预处理参数的处理接口
+ * 初始化时对每个字段上的handlerParams调用一次prepare，得到的上下文对象（例如解析好的密钥、别名）在之后每次调用时直接传入，
+ * 不需要每行数据都重新解析handlerParams
+ * Created on 2026-10-17
+ *
+ * @param <C> 预处理后的上下文类型
+ */
+public interface IContextFieldAccessHandler<C> extends IFieldAccessHandler {
+
+    /**
+     * 预处理注解上的handlerParams，每个被@FieldAccess标记的字段只调用一次
+     *
+     * @param handlerParams 注解上配置的handler参数，可以为空
+     * @return 上下文对象，之后调用下面的方法时传入
+     */
+    C prepare(List<String> handlerParams) throws Exception;
+
+    /**
+     * 判断是否允许修改读取结果
+     *
+     * @param context prepare返回的上下文对象
+     */
+    boolean allowModifyResult(String fieldName, Object fieldValue, Object resultObj, C context) throws Exception;
+
+    /**
+     * 把数据库读出来的旧值转换为新值
+     *
+     * @param context prepare返回的上下文对象
+     */
+    Object modifyResult(String fieldName, Object fieldValue, Object resultObj, C context) throws Exception;
+
+    /**
+     * 判断是否允许修改写入参数
+     *
+     * @param context prepare返回的上下文对象
+     */
+    boolean allowModifyParam(String fieldName, Object fieldValue, Object paramObj, C context) throws Exception;
+
+    /**
+     * 把要写入数据库的旧值转换为新值
+     *
+     * @param context prepare返回的上下文对象
+     */
+    Object modifyParam(String fieldName, Object fieldValue, Object paramObj, C context) throws Exception;
+
+    /**
+     * 拦截器不会调用以下方法，只用于在拦截器之外直接调用handler，每次都会执行prepare
+     */
+    @Override
+    default boolean allowModifyResult(String fieldName, Object fieldValue, Object resultObj, List<String> handleParams)
+            throws Exception {
+        return allowModifyResult(fieldName, fieldValue, resultObj, prepare(handleParams));
+    }
+
+    @Override
+    default Object modifyResult(String fieldName, Object fieldValue, Object result, List<String> handleParams)
+            throws Exception {
+        return modifyResult(fieldName, fieldValue, result, prepare(handleParams));
+    }
+
+    @Override
+    default boolean allowModifyParam(String fieldName, Object fieldValue, Object paramObj, List<String> handleParams)
+            throws Exception {
+        return allowModifyParam(fieldName, fieldValue, paramObj, prepare(handleParams));
+    }
+
+    @Override
+    default Object modifyParam(String fieldName, Object fieldValue, Object paramObj, List<String> handleParams)
+            throws Exception {
+        return modifyParam(fieldName, fieldValue, paramObj, prepare(handleParams));
+    }
+}
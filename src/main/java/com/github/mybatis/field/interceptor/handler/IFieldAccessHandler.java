@@ -13,7 +13,7 @@ public interface IFieldAccessHandler {
      *
      * @param fieldName  字段名
      * @param fieldValue 字段的值
-     * @param resultObj  字段所属的对象
+     * @param resultObj  字段所属的对象，TypeHandler模式下映射时对象还没有创建完，为null
      * @return 只有返回true的时候才会执行execute()
      */
     boolean allowModifyResult(String fieldName, Object fieldValue, Object resultObj, List<String> handleParams)
@@ -24,6 +24,7 @@ public interface IFieldAccessHandler {
      *
      * @param fieldName  字段名
      * @param fieldValue 字段的值
+     * @param result     字段所属的对象，TypeHandler模式下为null
      * @return 新值
      */
     Object modifyResult(String fieldName, Object fieldValue, Object result, List<String> handleParams)
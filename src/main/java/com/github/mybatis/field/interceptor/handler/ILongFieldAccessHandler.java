@@ -0,0 +1,65 @@
+package com.github.mybatis.field.interceptor.handler;
+
+import java.util.List;
+
+/**
+ * long类型字段的处理接口，适用于单位换算、ID混淆等数值转换
+ * 字段类型为long且不开启缓存时，拦截器直接用原始类型读写字段并调用下面的方法，每行数据不装箱；
+ * 同时实现了IContextFieldAccessHandler、IBatchFieldAccessHandler或IAsyncFieldAccessHandler时按这些接口处理，不按原始类型读写；
+ * 字段类型为Long或者在TypeHandler模式等其它场景下，通过Object版本的方法调用，值为null时不处理
+ * Created on 2026-10-17
+ */
+public interface ILongFieldAccessHandler extends IFieldAccessHandler {
+
+    /**
+     * 判断是否允许修改读取结果，默认允许
+     */
+    default boolean allowModifyResult(String fieldName, long fieldValue, Object resultObj, List<String> handleParams)
+            throws Exception {
+        return true;
+    }
+
+    /**
+     * 把数据库读出来的旧值转换为新值
+     */
+    long modifyResult(String fieldName, long fieldValue, Object resultObj, List<String> handleParams) throws Exception;
+
+    /**
+     * 判断是否允许修改写入参数，默认允许
+     */
+    default boolean allowModifyParam(String fieldName, long fieldValue, Object paramObj, List<String> handleParams)
+            throws Exception {
+        return true;
+    }
+
+    /**
+     * 把要写入数据库的旧值转换为新值
+     */
+    long modifyParam(String fieldName, long fieldValue, Object paramObj, List<String> handleParams) throws Exception;
+
+    @Override
+    default boolean allowModifyResult(String fieldName, Object fieldValue, Object resultObj, List<String> handleParams)
+            throws Exception {
+        return fieldValue != null
+                && allowModifyResult(fieldName, ((Number) fieldValue).longValue(), resultObj, handleParams);
+    }
+
+    @Override
+    default Object modifyResult(String fieldName, Object fieldValue, Object result, List<String> handleParams)
+            throws Exception {
+        return modifyResult(fieldName, ((Number) fieldValue).longValue(), result, handleParams);
+    }
+
+    @Override
+    default boolean allowModifyParam(String fieldName, Object fieldValue, Object paramObj, List<String> handleParams)
+            throws Exception {
+        return fieldValue != null
+                && allowModifyParam(fieldName, ((Number) fieldValue).longValue(), paramObj, handleParams);
+    }
+
+    @Override
+    default Object modifyParam(String fieldName, Object fieldValue, Object paramObj, List<String> handleParams)
+            throws Exception {
+        return modifyParam(fieldName, ((Number) fieldValue).longValue(), paramObj, handleParams);
+    }
+}
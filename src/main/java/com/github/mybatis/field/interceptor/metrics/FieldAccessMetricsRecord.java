@@ -0,0 +1,109 @@
+package com.github.mybatis.field.interceptor.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LongAdderFieldAccessMetrics中一个阶段里一个MappedStatement、实体类或handler的统计值
+ * invocations、rows和interceptTime只在按MappedStatement统计时有值
+ * Created on 2026-10-17
+ */
+public final class FieldAccessMetricsRecord {
+
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder fields = new LongAdder();
+    private final LongAdder dependencyRejections = new LongAdder();
+    private final LongAdder allowRejections = new LongAdder();
+    private final LatencyHistogram interceptTime = new LatencyHistogram();
+    private final LatencyHistogram allowTime = new LatencyHistogram();
+    private final LatencyHistogram modifyTime = new LatencyHistogram();
+
+    void recordStatement(int rows, long nanos) {
+        invocations.increment();
+        this.rows.add(rows);
+        interceptTime.record(nanos);
+    }
+
+    void recordDependencyRejected() {
+        dependencyRejections.increment();
+    }
+
+    void recordAllow(boolean allowed, long nanos) {
+        if (!allowed) {
+            allowRejections.increment();
+        }
+        allowTime.record(nanos);
+    }
+
+    void recordModify(int fields, long nanos) {
+        this.fields.add(fields);
+        modifyTime.record(nanos);
+    }
+
+    void reset() {
+        invocations.reset();
+        rows.reset();
+        fields.reset();
+        dependencyRejections.reset();
+        allowRejections.reset();
+        interceptTime.reset();
+        allowTime.reset();
+        modifyTime.reset();
+    }
+
+    /**
+     * 拦截次数
+     */
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    /**
+     * 处理的对象个数
+     */
+    public long getRows() {
+        return rows.sum();
+    }
+
+    /**
+     * 经过handler转换的字段个数，命中handler转换结果缓存的字段不计入
+     */
+    public long getFields() {
+        return fields.sum();
+    }
+
+    /**
+     * @ModifyXXXXDependency方法返回false的次数
+     */
+    public long getDependencyRejections() {
+        return dependencyRejections.sum();
+    }
+
+    /**
+     * handler的allow方法返回false的次数
+     */
+    public long getAllowRejections() {
+        return allowRejections.sum();
+    }
+
+    /**
+     * 每次拦截中拦截器自身的耗时
+     */
+    public LatencyHistogram getInterceptTime() {
+        return interceptTime;
+    }
+
+    /**
+     * handler的allow方法耗时
+     */
+    public LatencyHistogram getAllowTime() {
+        return allowTime;
+    }
+
+    /**
+     * handler的modify方法耗时
+     */
+    public LatencyHistogram getModifyTime() {
+        return modifyTime;
+    }
+}
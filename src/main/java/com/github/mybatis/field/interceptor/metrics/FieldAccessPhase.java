@@ -0,0 +1,16 @@
+package com.github.mybatis.field.interceptor.metrics;
+
+/**
+ * 拦截发生在哪个阶段
+ * Created on 2026-10-17
+ */
+public enum FieldAccessPhase {
+    /**
+     * 修改数据库返回值
+     */
+    RESULT,
+    /**
+     * 修改写入数据库的参数
+     */
+    PARAM
+}
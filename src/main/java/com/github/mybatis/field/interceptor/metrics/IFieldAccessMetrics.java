@@ -0,0 +1,43 @@
+package com.github.mybatis.field.interceptor.metrics;
+
+import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+
+/**
+ * 拦截开销的统计接口，通过FieldAccessInterceptor#setMetrics设置，不设置时拦截器不计时也不调用任何方法
+ * 方法会在执行SQL的线程上被并发调用，实现类需要线程安全并且尽量轻量
+ * statementId是MappedStatement的id，取不到时（例如懒加载模式下读取字段时）为null
+ * entityClz是被处理对象运行时的类；TypeHandler模式下映射时为字段所在ResultMap的类型，
+ * 没有对象或对象是参数Map时为被@FieldAccess标记字段所在的类
+ * Created on 2026-10-17
+ */
+public interface IFieldAccessMetrics {
+
+    /**
+     * 一次拦截结束
+     *
+     * @param rows  处理的对象个数
+     * @param nanos 拦截器自身的耗时，不包含执行SQL的时间
+     */
+    void recordStatement(String statementId, FieldAccessPhase phase, int rows, long nanos);
+
+    /**
+     * 字段的@ModifyXXXXDependency方法返回了false
+     */
+    void recordDependencyRejected(String statementId, Class<?> entityClz, IFieldAccessHandler handler,
+                                  FieldAccessPhase phase);
+
+    /**
+     * 调用了一次handler的allowModifyResult/allowModifyParam
+     */
+    void recordAllow(String statementId, Class<?> entityClz, IFieldAccessHandler handler, FieldAccessPhase phase,
+                     boolean allowed, long nanos);
+
+    /**
+     * 调用了一次handler的modify方法
+     *
+     * @param entityClz IBatchFieldAccessHandler一次处理了多个类的字段时为null
+     * @param fields    本次调用转换的字段个数，IBatchFieldAccessHandler一次调用可能转换多个字段
+     */
+    void recordModify(String statementId, Class<?> entityClz, IFieldAccessHandler handler, FieldAccessPhase phase,
+                      int fields, long nanos);
+}
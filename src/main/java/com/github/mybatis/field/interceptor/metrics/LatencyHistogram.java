@@ -0,0 +1,73 @@
+package com.github.mybatis.field.interceptor.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按2的幂分桶的耗时直方图，每个桶是一个LongAdder，并发记录时不会争用同一个计数器
+ * Created on 2026-10-17
+ */
+public final class LatencyHistogram {
+
+    //  第i个桶记录[2^(i-1), 2^i)纳秒，最后一个桶记录所有更大的值
+    private static final int BUCKET_COUNT = 48;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder totalNanos = new LongAdder();
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long nanos) {
+        int bucket = nanos <= 0 ? 0 : Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(nanos));
+        buckets[bucket].increment();
+        totalNanos.add(Math.max(nanos, 0));
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * 近似分位数，返回所在桶的上界
+     *
+     * @param percentile 0到1之间，例如0.99
+     */
+    public long getPercentileNanos(double percentile) {
+        long[] counts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return i == 0 ? 0 : (1L << i) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        totalNanos.reset();
+    }
+}
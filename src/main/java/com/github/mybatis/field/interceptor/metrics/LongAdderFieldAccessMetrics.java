@@ -0,0 +1,118 @@
+package com.github.mybatis.field.interceptor.metrics;
+
+import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 默认的统计实现，按FieldAccessPhase分开，再按MappedStatement id、实体类名、handler类名分别累计
+ * 计数和耗时直方图都基于LongAdder，多线程同时记录同一个key时开销也很低
+ * Created on 2026-10-17
+ */
+public class LongAdderFieldAccessMetrics implements IFieldAccessMetrics {
+
+    //  取不到MappedStatement时使用的key，例如懒加载模式下读取字段时
+    public static final String UNKNOWN_STATEMENT = "<unknown>";
+
+    //  创建后不再修改，多线程只读
+    private final Map<FieldAccessPhase, PhaseRecords> phaseRecords = new EnumMap<>(FieldAccessPhase.class);
+
+    public LongAdderFieldAccessMetrics() {
+        for (FieldAccessPhase phase : FieldAccessPhase.values()) {
+            phaseRecords.put(phase, new PhaseRecords());
+        }
+    }
+
+    @Override
+    public void recordStatement(String statementId, FieldAccessPhase phase, int rows, long nanos) {
+        statementRecord(phaseRecords.get(phase), statementId).recordStatement(rows, nanos);
+    }
+
+    @Override
+    public void recordDependencyRejected(String statementId, Class<?> entityClz, IFieldAccessHandler handler,
+                                         FieldAccessPhase phase) {
+        PhaseRecords records = phaseRecords.get(phase);
+        statementRecord(records, statementId).recordDependencyRejected();
+        record(records.entityRecords, entityClz.getName()).recordDependencyRejected();
+        record(records.handlerRecords, handler.getClass().getName()).recordDependencyRejected();
+    }
+
+    @Override
+    public void recordAllow(String statementId, Class<?> entityClz, IFieldAccessHandler handler,
+                            FieldAccessPhase phase, boolean allowed, long nanos) {
+        PhaseRecords records = phaseRecords.get(phase);
+        statementRecord(records, statementId).recordAllow(allowed, nanos);
+        record(records.entityRecords, entityClz.getName()).recordAllow(allowed, nanos);
+        record(records.handlerRecords, handler.getClass().getName()).recordAllow(allowed, nanos);
+    }
+
+    @Override
+    public void recordModify(String statementId, Class<?> entityClz, IFieldAccessHandler handler,
+                             FieldAccessPhase phase, int fields, long nanos) {
+        PhaseRecords records = phaseRecords.get(phase);
+        statementRecord(records, statementId).recordModify(fields, nanos);
+        if (entityClz != null) {
+            record(records.entityRecords, entityClz.getName()).recordModify(fields, nanos);
+        }
+        record(records.handlerRecords, handler.getClass().getName()).recordModify(fields, nanos);
+    }
+
+    private static FieldAccessMetricsRecord statementRecord(PhaseRecords records, String statementId) {
+        return record(records.statementRecords, statementId == null ? UNKNOWN_STATEMENT : statementId);
+    }
+
+    private static FieldAccessMetricsRecord record(ConcurrentMap<String, FieldAccessMetricsRecord> records,
+                                                   String key) {
+        FieldAccessMetricsRecord record = records.get(key);
+        if (record == null) {
+            record = records.computeIfAbsent(key, k -> new FieldAccessMetricsRecord());
+        }
+        return record;
+    }
+
+    /**
+     * Map&lt;MappedStatement id,统计值&gt;
+     */
+    public Map<String, FieldAccessMetricsRecord> getStatementRecords(FieldAccessPhase phase) {
+        return Collections.unmodifiableMap(phaseRecords.get(phase).statementRecords);
+    }
+
+    /**
+     * Map&lt;实体类名,统计值&gt;
+     */
+    public Map<String, FieldAccessMetricsRecord> getEntityRecords(FieldAccessPhase phase) {
+        return Collections.unmodifiableMap(phaseRecords.get(phase).entityRecords);
+    }
+
+    /**
+     * Map&lt;handler类名,统计值&gt;
+     */
+    public Map<String, FieldAccessMetricsRecord> getHandlerRecords(FieldAccessPhase phase) {
+        return Collections.unmodifiableMap(phaseRecords.get(phase).handlerRecords);
+    }
+
+    /**
+     * 清零所有统计值
+     */
+    public void reset() {
+        for (PhaseRecords records : phaseRecords.values()) {
+            records.statementRecords.values().forEach(FieldAccessMetricsRecord::reset);
+            records.entityRecords.values().forEach(FieldAccessMetricsRecord::reset);
+            records.handlerRecords.values().forEach(FieldAccessMetricsRecord::reset);
+        }
+    }
+
+    /**
+     * 一个阶段的统计值
+     */
+    private static final class PhaseRecords {
+
+        private final ConcurrentMap<String, FieldAccessMetricsRecord> statementRecords = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, FieldAccessMetricsRecord> entityRecords = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, FieldAccessMetricsRecord> handlerRecords = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,163 @@
+package com.github.mybatis.field.interceptor.metrics;
+
+import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把统计值注册到Micrometer的MeterRegistry，需要自行引入micrometer-core依赖
+ * 指标名：
+ * mybatis.field.interceptor.statement（Timer，tag: statement、phase）
+ * mybatis.field.interceptor.rows（DistributionSummary，tag: statement、phase）
+ * mybatis.field.interceptor.handler（Timer，tag: entity、handler、phase、call=allow/modify）
+ * mybatis.field.interceptor.fields（Counter，tag: entity、handler、phase）
+ * mybatis.field.interceptor.rejections（Counter，tag: entity、handler、phase、by=dependency/allow）
+ * handler的指标不带statement tag，避免statement和handler组合后Meter数量过多
+ * Meter按(statement, phase)和(实体类, handler类, phase)缓存，第一次记录时注册，之后记录时不再创建tag和查找MeterRegistry
+ * Created on 2026-10-17
+ */
+public class MicrometerFieldAccessMetrics implements IFieldAccessMetrics {
+
+    private static final String UNKNOWN = "unknown";
+
+    private static final int PHASE_COUNT = FieldAccessPhase.values().length;
+
+    private final MeterRegistry registry;
+
+    //  Map<statement id,按FieldAccessPhase下标保存的Meter>，取不到statement时key为UNKNOWN
+    private final ConcurrentMap<String, StatementMeters[]> statementMetersMap = new ConcurrentHashMap<>();
+
+    //  Map<实体类,Map<handler类,按FieldAccessPhase下标保存的Meter>>，实体类为null时key为void.class
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, HandlerMeters[]>> handlerMetersMap =
+            new ConcurrentHashMap<>();
+
+    public MicrometerFieldAccessMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void recordStatement(String statementId, FieldAccessPhase phase, int rows, long nanos) {
+        StatementMeters meters = statementMeters(statementId, phase);
+        meters.time.record(nanos, TimeUnit.NANOSECONDS);
+        meters.rows.record(rows);
+    }
+
+    @Override
+    public void recordDependencyRejected(String statementId, Class<?> entityClz, IFieldAccessHandler handler,
+                                         FieldAccessPhase phase) {
+        handlerMeters(entityClz, handler, phase).dependencyRejections.increment();
+    }
+
+    @Override
+    public void recordAllow(String statementId, Class<?> entityClz, IFieldAccessHandler handler,
+                            FieldAccessPhase phase, boolean allowed, long nanos) {
+        HandlerMeters meters = handlerMeters(entityClz, handler, phase);
+        meters.allowTime.record(nanos, TimeUnit.NANOSECONDS);
+        if (!allowed) {
+            meters.allowRejections.increment();
+        }
+    }
+
+    @Override
+    public void recordModify(String statementId, Class<?> entityClz, IFieldAccessHandler handler,
+                             FieldAccessPhase phase, int fields, long nanos) {
+        HandlerMeters meters = handlerMeters(entityClz, handler, phase);
+        meters.modifyTime.record(nanos, TimeUnit.NANOSECONDS);
+        meters.fields.increment(fields);
+    }
+
+    private StatementMeters statementMeters(String statementId, FieldAccessPhase phase) {
+        String statement = statementId == null ? UNKNOWN : statementId;
+        StatementMeters[] phaseMeters = statementMetersMap.get(statement);
+        if (phaseMeters == null) {
+            phaseMeters = statementMetersMap.computeIfAbsent(statement, k -> new StatementMeters[PHASE_COUNT]);
+        }
+        StatementMeters meters = phaseMeters[phase.ordinal()];
+        if (meters == null) {
+            //并发创建时MeterRegistry按相同的Meter.Id返回同一个Meter，先后写入的两个对象等价
+            meters = new StatementMeters(registry, statement, phase);
+            phaseMeters[phase.ordinal()] = meters;
+        }
+        return meters;
+    }
+
+    private HandlerMeters handlerMeters(Class<?> entityClz, IFieldAccessHandler handler, FieldAccessPhase phase) {
+        Class<?> entityKey = entityClz == null ? void.class : entityClz;
+        ConcurrentMap<Class<?>, HandlerMeters[]> entityMeters = handlerMetersMap.get(entityKey);
+        if (entityMeters == null) {
+            entityMeters = handlerMetersMap.computeIfAbsent(entityKey, k -> new ConcurrentHashMap<>());
+        }
+        Class<?> handlerClz = handler.getClass();
+        HandlerMeters[] phaseMeters = entityMeters.get(handlerClz);
+        if (phaseMeters == null) {
+            phaseMeters = entityMeters.computeIfAbsent(handlerClz, k -> new HandlerMeters[PHASE_COUNT]);
+        }
+        HandlerMeters meters = phaseMeters[phase.ordinal()];
+        if (meters == null) {
+            meters = new HandlerMeters(registry, entityClz == null ? UNKNOWN : entityClz.getName(),
+                    handlerClz.getName(), phase);
+            phaseMeters[phase.ordinal()] = meters;
+        }
+        return meters;
+    }
+
+    /**
+     * 一个statement在一个阶段的Meter
+     */
+    private static final class StatementMeters {
+
+        private final Timer time;
+        private final DistributionSummary rows;
+
+        private StatementMeters(MeterRegistry registry, String statement, FieldAccessPhase phase) {
+            this.time = Timer.builder("mybatis.field.interceptor.statement")
+                    .tag("statement", statement).tag("phase", phase.name())
+                    .register(registry);
+            this.rows = DistributionSummary.builder("mybatis.field.interceptor.rows")
+                    .tag("statement", statement).tag("phase", phase.name())
+                    .register(registry);
+        }
+    }
+
+    /**
+     * 一个实体类的一个handler在一个阶段的Meter
+     */
+    private static final class HandlerMeters {
+
+        private final Timer allowTime;
+        private final Timer modifyTime;
+        private final Counter fields;
+        private final Counter allowRejections;
+        private final Counter dependencyRejections;
+
+        private HandlerMeters(MeterRegistry registry, String entity, String handler, FieldAccessPhase phase) {
+            this.allowTime = handlerTimer(registry, entity, handler, phase, "allow");
+            this.modifyTime = handlerTimer(registry, entity, handler, phase, "modify");
+            this.fields = Counter.builder("mybatis.field.interceptor.fields")
+                    .tag("entity", entity).tag("handler", handler).tag("phase", phase.name())
+                    .register(registry);
+            this.allowRejections = rejectionCounter(registry, entity, handler, phase, "allow");
+            this.dependencyRejections = rejectionCounter(registry, entity, handler, phase, "dependency");
+        }
+
+        private static Timer handlerTimer(MeterRegistry registry, String entity, String handler,
+                                          FieldAccessPhase phase, String call) {
+            return Timer.builder("mybatis.field.interceptor.handler")
+                    .tag("entity", entity).tag("handler", handler).tag("phase", phase.name()).tag("call", call)
+                    .register(registry);
+        }
+
+        private static Counter rejectionCounter(MeterRegistry registry, String entity, String handler,
+                                                FieldAccessPhase phase, String by) {
+            return Counter.builder("mybatis.field.interceptor.rejections")
+                    .tag("entity", entity).tag("handler", handler).tag("phase", phase.name()).tag("by", by)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.github.mybatis.field.interceptor.processor;
+
+import com.github.mybatis.field.interceptor.FieldAccessIndexEntry;
+import com.github.mybatis.field.interceptor.annotation.EnableFieldAccessInterceptor;
+import com.github.mybatis.field.interceptor.annotation.FieldAccess;
+import com.github.mybatis.field.interceptor.annotation.ModifyParamDependency;
+import com.github.mybatis.field.interceptor.annotation.ModifyResultDependency;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 编译期处理字段拦截相关注解
+ * 1. 把被@EnableFieldAccessInterceptor标记的类写入当前模块的索引文件，运行时有索引的模块不再需要扫描classpath；
+ *    增量编译时合并已有索引中没有被重新编译、仍然存在的类
+ * 2. 把运行时才会发现的配置错误提前到编译期报告，例如依赖方法签名不对、字段缺少get/set方法
+ * Created on 2026-10-17
+ */
+@SupportedAnnotationTypes({
+        "com.github.mybatis.field.interceptor.annotation.EnableFieldAccessInterceptor",
+        "com.github.mybatis.field.interceptor.annotation.FieldAccess",
+        "com.github.mybatis.field.interceptor.annotation.ModifyParamDependency",
+        "com.github.mybatis.field.interceptor.annotation.ModifyResultDependency"
+})
+public class FieldAccessProcessor extends AbstractProcessor {
+
+    /**
+     * Map<类的binary name,该类的索引>，所有轮次处理的类，最后一轮写入索引文件，按类名排序保证生成的文件稳定
+     */
+    private final TreeMap<String, List<FieldAccessIndexEntry>> indexEntryMap = new TreeMap<>();
+
+    /**
+     * 本次编译处理过的被@EnableFieldAccessInterceptor标记的类，包括没有被注解字段的类，合并已有索引时不保留这些类的旧索引
+     */
+    private final Set<String> processedClassNames = new HashSet<>();
+
+    /**
+     * 本次编译之前已有的索引，Map<类的binary name,该类的索引>
+     */
+    private Map<String, List<FieldAccessIndexEntry>> previousEntryMap = new TreeMap<>();
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        //写入之前先读取，同一个文件打开写入之后不能再读取
+        previousEntryMap = readPreviousIndex();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(ModifyParamDependency.class)) {
+            checkDependencyMethod(element, "@ModifyParamDependency");
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(ModifyResultDependency.class)) {
+            checkDependencyMethod(element, "@ModifyResultDependency");
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(FieldAccess.class)) {
+            if (element.getKind() == ElementKind.FIELD
+                    && element.getEnclosingElement().getAnnotation(EnableFieldAccessInterceptor.class) == null) {
+                warning(element, "field marked by @FieldAccess, but class not marked by @EnableFieldAccessInterceptor, it will only be intercepted in marked subclasses");
+            }
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(EnableFieldAccessInterceptor.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                continue;
+            }
+            TypeElement clz = (TypeElement) element;
+            String className = processingEnv.getElementUtils().getBinaryName(clz).toString();
+            processedClassNames.add(className);
+            List<FieldAccessIndexEntry> entries = buildIndexEntries(clz);
+            if (entries.isEmpty()) {
+                warning(clz, "class marked by @EnableFieldAccessInterceptor, but not find marked field");
+                continue;
+            }
+            indexEntryMap.put(className, entries);
+        }
+        return false;
+    }
+
+    /**
+     * 依赖方法必须返回boolean，参数必须是(Object, String, Object)，与运行时的校验一致
+     */
+    private void checkDependencyMethod(Element element, String annotationName) {
+        if (element.getKind() != ElementKind.METHOD) {
+            return;
+        }
+        ExecutableElement method = (ExecutableElement) element;
+        if (method.getReturnType().getKind() != TypeKind.BOOLEAN) {
+            error(method, "method was marked by " + annotationName + ", but not return type boolean");
+        }
+        List<? extends VariableElement> params = method.getParameters();
+        if (params.size() != 3 || !isType(params.get(0).asType(), Object.class)
+                || !isType(params.get(1).asType(), String.class) || !isType(params.get(2).asType(), Object.class)) {
+            error(method, "method was marked by " + annotationName + ", but params need set to type of [Object, String, Object]");
+        }
+        if (method.getEnclosingElement().getAnnotation(EnableFieldAccessInterceptor.class) == null) {
+            warning(method, "method marked by " + annotationName + ", but class not marked by @EnableFieldAccessInterceptor, it will not be called");
+        }
+    }
+
+    /**
+     * 生成一个类中所有被@FieldAccess标记的字段的索引，包括从父类继承的字段，子类和父类有同名字段时使用子类的
+     */
+    private List<FieldAccessIndexEntry> buildIndexEntries(TypeElement clz) {
+        List<FieldAccessIndexEntry> entries = new ArrayList<>();
+        String className = processingEnv.getElementUtils().getBinaryName(clz).toString();
+        boolean lombok = hasLombokAnnotation(clz);
+        Set<String> fieldNames = new HashSet<>();
+        for (VariableElement field : fieldsInHierarchy(clz)) {
+            if (field.getAnnotation(FieldAccess.class) == null || !fieldNames.add(field.getSimpleName().toString())) {
+                continue;
+            }
+            String fieldName = field.getSimpleName().toString();
+            String readMethodName = findReadMethod(clz, field);
+            String writeMethodName = findWriteMethod(clz, field);
+            if (lombok || hasLombokAnnotation(field)) {
+                // lombok生成的方法在本处理器执行时可能还不存在，按JavaBean规范推断方法名
+                readMethodName = readMethodName != null ? readMethodName
+                        : (field.asType().getKind() == TypeKind.BOOLEAN ? "is" : "get") + capitalize(fieldName);
+                writeMethodName = writeMethodName != null ? writeMethodName : "set" + capitalize(fieldName);
+            }
+            if (readMethodName == null || writeMethodName == null) {
+                error(field, "field marked by @FieldAccess, but not find public "
+                        + (readMethodName == null ? "get/is" : "set") + " method");
+                continue;
+            }
+            entries.add(new FieldAccessIndexEntry(className, fieldName, readMethodName, writeMethodName));
+        }
+        return entries;
+    }
+
+    private List<VariableElement> fieldsInHierarchy(TypeElement clz) {
+        List<VariableElement> fields = new ArrayList<>();
+        TypeElement current = clz;
+        while (current != null && !current.getQualifiedName().contentEquals(Object.class.getName())) {
+            fields.addAll(ElementFilter.fieldsIn(current.getEnclosedElements()));
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED
+                    ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        return fields;
+    }
+
+    private String findReadMethod(TypeElement clz, VariableElement field) {
+        String cap = capitalize(field.getSimpleName().toString());
+        List<String> candidates = new ArrayList<>();
+        if (field.asType().getKind() == TypeKind.BOOLEAN) {
+            candidates.add("is" + cap);
+        }
+        candidates.add("get" + cap);
+        for (String candidate : candidates) {
+            for (ExecutableElement method : publicMethods(clz)) {
+                if (method.getSimpleName().contentEquals(candidate) && method.getParameters().isEmpty()
+                        && processingEnv.getTypeUtils().isSameType(method.getReturnType(), field.asType())) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    private String findWriteMethod(TypeElement clz, VariableElement field) {
+        String name = "set" + capitalize(field.getSimpleName().toString());
+        for (ExecutableElement method : publicMethods(clz)) {
+            if (method.getSimpleName().contentEquals(name) && method.getParameters().size() == 1
+                    && processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), field.asType())) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 包括从父类继承的public方法
+     */
+    private List<ExecutableElement> publicMethods(TypeElement clz) {
+        List<ExecutableElement> methods = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(clz))) {
+            if (method.getModifiers().contains(Modifier.PUBLIC) && !method.getModifiers().contains(Modifier.STATIC)) {
+                methods.add(method);
+            }
+        }
+        return methods;
+    }
+
+    private boolean hasLombokAnnotation(Element element) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (annotation.getAnnotationType().toString().startsWith("lombok.")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 读取输出目录中已有的索引，没有时返回空Map
+     */
+    private Map<String, List<FieldAccessIndexEntry>> readPreviousIndex() {
+        Map<String, List<FieldAccessIndexEntry>> entryMap = new TreeMap<>();
+        try {
+            FileObject file = processingEnv.getFiler()
+                    .getResource(StandardLocation.CLASS_OUTPUT, "", FieldAccessIndexEntry.INDEX_RESOURCE);
+            try (Reader reader = file.openReader(true); BufferedReader lineReader = new BufferedReader(reader)) {
+                String line;
+                while ((line = lineReader.readLine()) != null) {
+                    FieldAccessIndexEntry entry = line.startsWith("#") ? null : FieldAccessIndexEntry.parse(line);
+                    if (entry != null) {
+                        entryMap.computeIfAbsent(entry.getClassName(), name -> new ArrayList<>()).add(entry);
+                    }
+                }
+            }
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            // 第一次编译，没有已有的索引
+        } catch (IOException | IllegalArgumentException e) {
+            processingEnv.getMessager().printMessage(Kind.NOTE, "can not read previous "
+                    + FieldAccessIndexEntry.INDEX_RESOURCE + ", rebuild it: " + e);
+        }
+        return entryMap;
+    }
+
+    /**
+     * 已有索引中的类没有被本次编译处理，并且仍然存在、仍然被@EnableFieldAccessInterceptor标记时保留
+     */
+    private boolean isStillIndexed(String className) {
+        if (processedClassNames.contains(className)) {
+            return false;
+        }
+        TypeElement clz = processingEnv.getElementUtils().getTypeElement(className.replace('$', '.'));
+        return clz != null && clz.getAnnotation(EnableFieldAccessInterceptor.class) != null;
+    }
+
+    /**
+     * 把本次编译处理的类和已有索引中仍然有效的类写入当前模块的索引文件，运行时通过ClassLoader#getResources读取所有模块的索引
+     */
+    private void writeIndex() {
+        for (Map.Entry<String, List<FieldAccessIndexEntry>> previous : previousEntryMap.entrySet()) {
+            if (!indexEntryMap.containsKey(previous.getKey()) && isStillIndexed(previous.getKey())) {
+                indexEntryMap.put(previous.getKey(), previous.getValue());
+            }
+        }
+        if (indexEntryMap.isEmpty() && previousEntryMap.isEmpty()) {
+            return;
+        }
+        String resourceName = FieldAccessIndexEntry.INDEX_RESOURCE;
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", resourceName);
+            try (Writer writer = file.openWriter()) {
+                //生成的文件只用ASCII字符，避免受使用方编译编码的影响
+                writer.write("# Generated by " + FieldAccessProcessor.class.getName() + ", do not edit.\n");
+                for (List<FieldAccessIndexEntry> entries : indexEntryMap.values()) {
+                    for (FieldAccessIndexEntry entry : entries) {
+                        writer.write(entry.toIndexLine() + "\n");
+                    }
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Kind.ERROR, "can not write " + resourceName + ": " + e);
+        }
+    }
+
+    private boolean isType(TypeMirror type, Class<?> clz) {
+        TypeElement element = processingEnv.getElementUtils().getTypeElement(clz.getName());
+        return element != null && processingEnv.getTypeUtils().isSameType(type, element.asType());
+    }
+
+    private static String capitalize(String name) {
+        return name.isEmpty() ? name : Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Kind.ERROR, message, element);
+    }
+
+    private void warning(Element element, String message) {
+        processingEnv.getMessager().printMessage(Kind.WARNING, message, element);
+    }
+}
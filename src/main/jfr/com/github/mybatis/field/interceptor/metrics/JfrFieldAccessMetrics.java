@@ -0,0 +1,118 @@
+package com.github.mybatis.field.interceptor.metrics;
+
+import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 把统计值作为JFR事件提交，需要运行在带jdk.jfr模块的JDK上（JDK 11+或8u262+）
+ * 源码在src/main/jfr中单独编译，核心代码不引用这个类，没有jdk.jfr的JDK上仍然可以使用其它IFieldAccessMetrics
+ * mybatis.FieldAccessStatement默认开启，每次拦截一个事件
+ * mybatis.FieldAccessHandler每次调用handler一个事件，数量较多，默认关闭，需要在JFR配置中开启
+ * Created on 2026-10-17
+ */
+public class JfrFieldAccessMetrics implements IFieldAccessMetrics {
+
+    @Override
+    public void recordStatement(String statementId, FieldAccessPhase phase, int rows, long nanos) {
+        StatementEvent event = new StatementEvent();
+        if (event.isEnabled()) {
+            event.statementId = statementId;
+            event.phase = phase.name();
+            event.rows = rows;
+            event.interceptTime = nanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void recordDependencyRejected(String statementId, Class<?> entityClz, IFieldAccessHandler handler,
+                                         FieldAccessPhase phase) {
+        commitHandlerEvent(statementId, entityClz, handler, phase, "dependencyRejected", 0, 0);
+    }
+
+    @Override
+    public void recordAllow(String statementId, Class<?> entityClz, IFieldAccessHandler handler,
+                            FieldAccessPhase phase, boolean allowed, long nanos) {
+        commitHandlerEvent(statementId, entityClz, handler, phase, allowed ? "allow" : "allowRejected", 0, nanos);
+    }
+
+    @Override
+    public void recordModify(String statementId, Class<?> entityClz, IFieldAccessHandler handler,
+                             FieldAccessPhase phase, int fields, long nanos) {
+        commitHandlerEvent(statementId, entityClz, handler, phase, "modify", fields, nanos);
+    }
+
+    private static void commitHandlerEvent(String statementId, Class<?> entityClz, IFieldAccessHandler handler,
+                                           FieldAccessPhase phase, String call, int fields, long nanos) {
+        HandlerEvent event = new HandlerEvent();
+        if (event.isEnabled()) {
+            event.statementId = statementId;
+            event.entityClass = entityClz;
+            event.handlerClass = handler.getClass();
+            event.phase = phase.name();
+            event.call = call;
+            event.fields = fields;
+            event.callTime = nanos;
+            event.commit();
+        }
+    }
+
+    @Name("mybatis.FieldAccessStatement")
+    @Label("Field Access Interception")
+    @Category({"MyBatis", "Field Interceptor"})
+    @Description("Time spent by FieldAccessInterceptor on one statement, excluding SQL execution")
+    @StackTrace(false)
+    static class StatementEvent extends Event {
+
+        @Label("Statement Id")
+        String statementId;
+
+        @Label("Phase")
+        String phase;
+
+        @Label("Rows")
+        int rows;
+
+        @Label("Intercept Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long interceptTime;
+    }
+
+    @Name("mybatis.FieldAccessHandler")
+    @Label("Field Access Handler Call")
+    @Category({"MyBatis", "Field Interceptor"})
+    @Description("One allow/modify call of an IFieldAccessHandler, or a dependency method rejection")
+    @StackTrace(false)
+    @Enabled(false)
+    static class HandlerEvent extends Event {
+
+        @Label("Statement Id")
+        String statementId;
+
+        @Label("Entity Class")
+        Class<?> entityClass;
+
+        @Label("Handler Class")
+        Class<?> handlerClass;
+
+        @Label("Phase")
+        String phase;
+
+        @Label("Call")
+        String call;
+
+        @Label("Fields")
+        int fields;
+
+        @Label("Call Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long callTime;
+    }
+}
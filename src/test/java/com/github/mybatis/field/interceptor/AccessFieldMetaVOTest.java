@@ -0,0 +1,158 @@
+package com.github.mybatis.field.interceptor;
+
+import com.github.mybatis.field.interceptor.entity.User;
+import com.github.mybatis.field.interceptor.handler.FieldAccessValue;
+import com.github.mybatis.field.interceptor.handler.IBatchFieldAccessHandler;
+import com.github.mybatis.field.interceptor.handler.IContextFieldAccessHandler;
+import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+import com.github.mybatis.field.interceptor.handler.ILongFieldAccessHandler;
+import com.github.mybatis.field.interceptor.support.PrefixHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 字段元信息创建后不再变化，替换handler和handlerParams时copy出的新对象重新计算缓存名称和handler上下文
+ * Created on 2026-10-18
+ */
+class AccessFieldMetaVOTest {
+
+    /**
+     * 上下文是用"/"连接的handlerParams，新值是"上下文:旧值"
+     */
+    static class JoinContextHandler implements IContextFieldAccessHandler<String> {
+
+        @Override
+        public String prepare(List<String> handlerParams) {
+            return String.join("/", handlerParams);
+        }
+
+        @Override
+        public boolean allowModifyResult(String fieldName, Object fieldValue, Object resultObj, String context) {
+            return true;
+        }
+
+        @Override
+        public Object modifyResult(String fieldName, Object fieldValue, Object resultObj, String context) {
+            return context + ":" + fieldValue;
+        }
+
+        @Override
+        public boolean allowModifyParam(String fieldName, Object fieldValue, Object paramObj, String context) {
+            return true;
+        }
+
+        @Override
+        public Object modifyParam(String fieldName, Object fieldValue, Object paramObj, String context) {
+            return context + ":" + fieldValue;
+        }
+    }
+
+    /**
+     * 金额以分保存，读取时换算为元
+     */
+    static class CentHandler implements ILongFieldAccessHandler {
+
+        @Override
+        public long modifyResult(String fieldName, long fieldValue, Object resultObj, List<String> handleParams) {
+            return fieldValue / 100;
+        }
+
+        @Override
+        public long modifyParam(String fieldName, long fieldValue, Object paramObj, List<String> handleParams) {
+            return fieldValue * 100;
+        }
+    }
+
+    /**
+     * 同时实现了批量接口，按批量接口处理
+     */
+    static class BatchCentHandler extends CentHandler implements IBatchFieldAccessHandler {
+
+        @Override
+        public List<Object> modifyResults(List<FieldAccessValue> fieldValues) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Object> modifyParams(List<FieldAccessValue> fieldValues) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    static class Order {
+
+        private long amount;
+
+        public long getAmount() {
+            return amount;
+        }
+
+        public void setAmount(long amount) {
+            this.amount = amount;
+        }
+    }
+
+    private static AccessFieldMetaVO newAmountMeta(IFieldAccessHandler handler) throws Exception {
+        return new AccessFieldMetaVO(Order.class.getDeclaredField("amount"), Order.class.getMethod("getAmount"),
+                Order.class.getMethod("setAmount", long.class), null, null, handler, Collections.emptyList(), false);
+    }
+
+    private static AccessFieldMetaVO newPhoneMeta(List<String> handlerParams) throws Exception {
+        return new AccessFieldMetaVO(User.class.getDeclaredField("phone"), User.class.getMethod("getPhone"),
+                User.class.getMethod("setPhone", String.class), null, null, new JoinContextHandler(),
+                handlerParams, true);
+    }
+
+    @Test
+    void handlerParamsAreCopied() throws Exception {
+        List<String> handlerParams = new ArrayList<>(Collections.singletonList("k1"));
+        AccessFieldMetaVO fieldMeta = newPhoneMeta(handlerParams);
+        String paramCacheName = fieldMeta.getParamCacheName();
+        handlerParams.add("k2");
+
+        assertEquals(Collections.singletonList("k1"), fieldMeta.getHandlerParams());
+        assertEquals(paramCacheName, fieldMeta.getParamCacheName());
+        assertEquals("k1:v", fieldMeta.modifyParam("phone", "v", null));
+        assertThrows(UnsupportedOperationException.class, () -> fieldMeta.getHandlerParams().add("k3"));
+    }
+
+    @Test
+    void copyRebuildsDerivedState() throws Exception {
+        AccessFieldMetaVO fieldMeta = newPhoneMeta(Collections.singletonList("k1"));
+        AccessFieldMetaVO copy = fieldMeta.copy(fieldMeta.getHandler(), Arrays.asList("k1", "k2"));
+
+        assertEquals("k1/k2:v", copy.modifyResult("phone", "v", null));
+        assertNotEquals(fieldMeta.getResultCacheName(), copy.getResultCacheName());
+        assertNotEquals(fieldMeta.getParamCacheName(), copy.getParamCacheName());
+        //原对象可能正在被其它线程使用，保持不变
+        assertEquals("k1:v", fieldMeta.modifyResult("phone", "v", null));
+
+        AccessFieldMetaVO replaced = copy.copy(new PrefixHandler(), copy.getHandlerParams());
+        assertEquals("enc:v", replaced.modifyParam("phone", "v", null));
+        assertNotEquals(copy.getParamCacheName(), replaced.getParamCacheName());
+        assertSame(copy.getField(), replaced.getField());
+    }
+
+    @Test
+    void batchHandlerTakesPrecedenceOverPrimitiveAccess() throws Exception {
+        AccessFieldMetaVO fieldMeta = newAmountMeta(new CentHandler());
+        assertTrue(fieldMeta.isPrimitiveAccess());
+        Order order = new Order();
+        order.setAmount(1200L);
+        assertEquals(12L, fieldMeta.modifyPrimitiveResult("amount", fieldMeta.readPrimitive(order), order));
+
+        assertFalse(newAmountMeta(new BatchCentHandler()).isPrimitiveAccess());
+        assertFalse(fieldMeta.copy(new BatchCentHandler(), fieldMeta.getHandlerParams()).isPrimitiveAccess());
+    }
+}
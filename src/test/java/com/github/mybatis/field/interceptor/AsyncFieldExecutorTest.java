@@ -0,0 +1,169 @@
+package com.github.mybatis.field.interceptor;
+
+import com.github.mybatis.field.interceptor.handler.FieldAccessValue;
+import com.github.mybatis.field.interceptor.handler.IAsyncFieldAccessHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 异步handler的调用失败时抛出handler的原始异常，修改上限后进行中的调用仍然计入
+ * Created on 2026-10-18
+ */
+class AsyncFieldExecutorTest {
+
+    /**
+     * fieldValue为"fail"时同步抛出异常，否则返回"async:"+fieldValue
+     */
+    static class FailingAsyncHandler implements IAsyncFieldAccessHandler {
+
+        final AtomicInteger callCount = new AtomicInteger();
+
+        @Override
+        public CompletableFuture<Object> modifyResultAsync(String fieldName, Object fieldValue, Object resultObj,
+                                                           List<String> handlerParams) {
+            callCount.incrementAndGet();
+            if ("fail".equals(fieldValue)) {
+                throw new IllegalArgumentException("can not modify " + fieldName);
+            }
+            return CompletableFuture.completedFuture("async:" + fieldValue);
+        }
+
+        @Override
+        public CompletableFuture<Object> modifyParamAsync(String fieldName, Object fieldValue, Object paramObj,
+                                                          List<String> handlerParams) {
+            return modifyResultAsync(fieldName, fieldValue, paramObj, handlerParams);
+        }
+
+        @Override
+        public boolean allowModifyResult(String fieldName, Object fieldValue, Object resultObj,
+                                         List<String> handleParams) {
+            return true;
+        }
+
+        @Override
+        public boolean allowModifyParam(String fieldName, Object fieldValue, Object paramObj,
+                                        List<String> handleParams) {
+            return true;
+        }
+    }
+
+    /**
+     * 返回的Future由测试手动完成，记录已经发起的调用
+     */
+    static class PendingAsyncHandler extends FailingAsyncHandler {
+
+        final BlockingQueue<CompletableFuture<Object>> pending = new LinkedBlockingQueue<>();
+
+        @Override
+        public CompletableFuture<Object> modifyResultAsync(String fieldName, Object fieldValue, Object resultObj,
+                                                           List<String> handlerParams) {
+            callCount.incrementAndGet();
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        }
+    }
+
+    @Test
+    void loweredMaxInFlightCountsRunningCalls() throws Exception {
+        PendingAsyncHandler handler = new PendingAsyncHandler();
+        AsyncFieldExecutor executor = new AsyncFieldExecutor();
+        executor.setMaxInFlight(4);
+        CompletableFuture<Object[]> first = executeAsync(executor, handler, 4);
+        awaitCallCount(handler, 4);
+
+        executor.setMaxInFlight(2);
+        CompletableFuture<Object[]> second = executeAsync(executor, handler, 2);
+        //4个调用还在进行，超过新的上限2，第二次执行不能发起调用
+        completePending(handler, 2);
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertEquals(4, handler.callCount.get());
+
+        completePending(handler, 2);
+        awaitCallCount(handler, 6);
+        completePending(handler, 2);
+        assertEquals(4, first.get(5, TimeUnit.SECONDS).length);
+        assertEquals(2, second.get(5, TimeUnit.SECONDS).length);
+    }
+
+    private static CompletableFuture<Object[]> executeAsync(AsyncFieldExecutor executor,
+                                                            IAsyncFieldAccessHandler handler, int size) {
+        List<FieldAccessValue> fieldValues = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            fieldValues.add(new FieldAccessValue("f" + i, String.valueOf(i), null, Collections.emptyList()));
+        }
+        CompletableFuture<Object[]> future = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                future.complete(executor.execute(Collections.nCopies(size, handler), fieldValues, true));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return future;
+    }
+
+    private static void awaitCallCount(PendingAsyncHandler handler, int callCount) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (handler.callCount.get() < callCount && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertEquals(callCount, handler.callCount.get());
+    }
+
+    private static void completePending(PendingAsyncHandler handler, int count) throws InterruptedException {
+        for (int i = 0; i < count; i++) {
+            CompletableFuture<Object> future = handler.pending.poll(5, TimeUnit.SECONDS);
+            assertNotNull(future);
+            future.complete("done");
+        }
+    }
+
+    @Test
+    void firstFailedHandlerThrowsItsOwnException() {
+        FailingAsyncHandler handler = new FailingAsyncHandler();
+        AsyncFieldExecutor executor = new AsyncFieldExecutor();
+        //在调用线程上执行，第一个调用失败后循环立即结束，剩余的调用不会发起
+        executor.setExecutor(Runnable::run);
+        List<FieldAccessValue> fieldValues = Arrays.asList(
+                new FieldAccessValue("first", "fail", null, Collections.emptyList()),
+                new FieldAccessValue("second", "v", null, Collections.emptyList()),
+                new FieldAccessValue("third", "v", null, Collections.emptyList()));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> executor.execute(Collections.nCopies(3, handler), fieldValues, true));
+        assertEquals("can not modify first", e.getMessage());
+        assertEquals(1, handler.callCount.get());
+    }
+
+    @Test
+    void allHandlersCompleteInOrder() throws Exception {
+        FailingAsyncHandler handler = new FailingAsyncHandler();
+        AsyncFieldExecutor executor = new AsyncFieldExecutor();
+        List<FieldAccessValue> fieldValues = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            fieldValues.add(new FieldAccessValue("f" + i, String.valueOf(i), null, Collections.emptyList()));
+        }
+        Object[] expected = new Object[100];
+        for (int i = 0; i < 100; i++) {
+            expected[i] = "async:" + i;
+        }
+        assertArrayEquals(expected, executor.execute(Collections.nCopies(100, handler), fieldValues, false));
+    }
+}
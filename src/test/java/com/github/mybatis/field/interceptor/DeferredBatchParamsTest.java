@@ -0,0 +1,174 @@
+package com.github.mybatis.field.interceptor;
+
+import com.github.mybatis.field.interceptor.entity.User;
+import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+import com.github.mybatis.field.interceptor.support.PrefixHandler;
+import com.github.mybatis.field.interceptor.support.TestDatabase;
+import com.github.mybatis.field.interceptor.support.UserMapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * BatchExecutor延迟处理参数：跨多个语句的批次、查询前flush、rollback、动态SQL、存储过程和其它ParameterHandler插件
+ * Created on 2026-10-18
+ */
+class DeferredBatchParamsTest {
+
+    interface BatchMapper {
+
+        @Update("update users set password = #{password} where name = #{name}")
+        int updatePassword(User user);
+
+        @Update("{call UPPER(#{phone, mode=INOUT, jdbcType=VARCHAR})}")
+        @Options(statementType = StatementType.CALLABLE)
+        void upperPhone(User user);
+    }
+
+    /**
+     * 绑定JDBC参数时记录参数对象上的password
+     */
+    @Intercepts(@Signature(type = ParameterHandler.class, method = "setParameters", args = PreparedStatement.class))
+    static class RecordingParameterPlugin implements Interceptor {
+
+        final List<String> boundPasswords = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            Object parameter = ((ParameterHandler) invocation.getTarget()).getParameterObject();
+            if (parameter instanceof User) {
+                boundPasswords.add(((User) parameter).getPassword());
+            }
+            return invocation.proceed();
+        }
+    }
+
+    private final PrefixHandler handler = new PrefixHandler();
+    private final RecordingParameterPlugin recordingPlugin = new RecordingParameterPlugin();
+    private SqlSessionFactory factory;
+    private SqlSession session;
+
+    private SqlSession open() {
+        Map<Class<? extends IFieldAccessHandler>, IFieldAccessHandler> handlerMap = new HashMap<>();
+        handlerMap.put(PrefixHandler.class, handler);
+        FieldAccessInterceptor interceptor =
+                new FieldAccessInterceptor("com.github.mybatis.field.interceptor.entity", handlerMap);
+        interceptor.setDeferBatchParams(true);
+        //其它插件在外层
+        factory = TestDatabase.create(interceptor, recordingPlugin);
+        factory.getConfiguration().addMapper(BatchMapper.class);
+        session = factory.openSession(ExecutorType.BATCH, false);
+        return session;
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.close();
+    }
+
+    private String rawPassword(String name) {
+        try (SqlSession reader = factory.openSession(true)) {
+            return reader.getMapper(UserMapper.class).selectRawPassword(name);
+        }
+    }
+
+    @Test
+    void batchAcrossTwoStatementsIsModifiedOnFlush() {
+        open();
+        UserMapper mapper = session.getMapper(UserMapper.class);
+        BatchMapper batchMapper = session.getMapper(BatchMapper.class);
+        mapper.insert(new User("a", "pa", "ta"));
+        User update = new User("a", "pa2", null);
+        batchMapper.updatePassword(update);
+        mapper.insert(new User("b", "pb", "tb"));
+        //flush之前参数对象和JDBC都还没有处理
+        assertEquals(Collections.emptyList(), handler.paramFields);
+        assertEquals(Collections.emptyList(), recordingPlugin.boundPasswords);
+        assertEquals("pa2", update.getPassword());
+
+        session.commit();
+        assertEquals("enc:pa2", rawPassword("a"));
+        assertEquals("enc:pb", rawPassword("b"));
+        //外层的ParameterHandler插件在flush时按update的顺序看到处理后的值，每行一次
+        assertEquals(Arrays.asList("enc:pa", "enc:pa2", "enc:pb"), recordingPlugin.boundPasswords);
+    }
+
+    @Test
+    void selectFlushesPendingParams() {
+        open();
+        UserMapper mapper = session.getMapper(UserMapper.class);
+        mapper.insert(new User("a", "pa", "ta"));
+        mapper.insert(new User("b", "pb", "tb"));
+
+        List<User> users = mapper.selectAll();
+        assertEquals(2, users.size());
+        assertEquals("pa", users.get(0).getPassword());
+        assertEquals("tb", users.get(1).getPhone());
+        session.commit();
+        assertEquals("enc:pa", rawPassword("a"));
+        //查询之后的commit不会再执行一次
+        assertEquals(Arrays.asList("password", "phone", "password", "phone"), handler.paramFields);
+    }
+
+    @Test
+    void rollbackDiscardsPendingParams() {
+        open();
+        UserMapper mapper = session.getMapper(UserMapper.class);
+        User user = new User("a", "pa", "ta");
+        mapper.insert(user);
+        session.rollback(true);
+        assertEquals("pa", user.getPassword());
+        assertEquals(Collections.emptyList(), handler.paramFields);
+
+        mapper.insert(new User("b", "pb", "tb"));
+        session.commit();
+        assertEquals(null, rawPassword("a"));
+        assertEquals("enc:pb", rawPassword("b"));
+        assertEquals(Arrays.asList("password", "phone"), handler.paramFields);
+    }
+
+    @Test
+    void dynamicSqlIsModifiedAtUpdate() {
+        open();
+        UserMapper mapper = session.getMapper(UserMapper.class);
+        //foreach生成的SQL和additionalParameters在update时就已经确定，不能延迟
+        mapper.insertList(Arrays.asList(new User("a", "pa", "ta"), new User("b", "pb", "tb")));
+        assertEquals(Arrays.asList("password", "phone", "password", "phone"), handler.paramFields);
+        session.commit();
+        assertEquals("enc:pa", rawPassword("a"));
+        assertEquals("enc:pb", rawPassword("b"));
+    }
+
+    @Test
+    void callableStatementIsModifiedAtUpdate() {
+        open();
+        BatchMapper batchMapper = session.getMapper(BatchMapper.class);
+        User user = new User("a", "pa", "ta");
+        //存储过程会注册OUT参数，不延迟处理，update时就用处理后的值绑定INOUT参数
+        batchMapper.upperPhone(user);
+        assertEquals(Arrays.asList("password", "phone"), handler.paramFields);
+        assertEquals("enc:ta", user.getPhone());
+        assertEquals(Collections.singletonList("enc:pa"), recordingPlugin.boundPasswords);
+        //H2不支持在JDBC批处理中执行有返回值的CALL，这里不flush，close时丢弃
+    }
+}
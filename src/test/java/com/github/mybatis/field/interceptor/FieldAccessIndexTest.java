@@ -0,0 +1,134 @@
+package com.github.mybatis.field.interceptor;
+
+import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+import com.github.mybatis.field.interceptor.support.FieldNameHandler;
+import com.github.mybatis.field.interceptor.support.ModuleCompiler;
+import com.github.mybatis.field.interceptor.support.TestDatabase;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 有索引和没有索引的模块混合时都能被拦截，增量编译时索引保留没有重新编译的类
+ * Created on 2026-10-18
+ */
+class FieldAccessIndexTest {
+
+    private static final String PACKAGE = "com.github.mybatis.field.interceptor.entity";
+
+    @Test
+    void testClassesHaveGeneratedIndex() throws Exception {
+        URL index = getClass().getClassLoader().getResource(FieldAccessIndexEntry.INDEX_RESOURCE);
+        List<String> lines = readIndex(Files.readAllBytes(Paths.get(index.toURI())));
+        assertTrue(lines.contains(PACKAGE + ".User,password,getPassword,setPassword"));
+        assertTrue(lines.contains(PACKAGE + ".CachedRecord,region,getRegion,setRegion"));
+    }
+
+    @Test
+    void indexedAndUnindexedModulesInSamePackageAreBothIntercepted(@TempDir Path tempDir) throws Exception {
+        Path sourceDir = tempDir.resolve("src");
+        String indexedClass = PACKAGE + ".JarIndexedRecord";
+        String unindexedClass = PACKAGE + ".DirUnindexedRecord";
+        ModuleCompiler.writeSource(sourceDir, indexedClass, ModuleCompiler.entitySource(PACKAGE, "JarIndexedRecord"));
+        ModuleCompiler.writeSource(sourceDir, unindexedClass,
+                ModuleCompiler.entitySource(PACKAGE, "DirUnindexedRecord"));
+        //开启注解处理并打成jar
+        Path indexedClasses = tempDir.resolve("indexed");
+        ModuleCompiler.compile(sourceDir, indexedClasses, true, indexedClass);
+        assertTrue(Files.exists(indexedClasses.resolve(FieldAccessIndexEntry.INDEX_RESOURCE)));
+        Path indexedJar = ModuleCompiler.jar(indexedClasses, tempDir.resolve("indexed.jar"));
+        //没有开启注解处理的目录
+        Path unindexedClasses = tempDir.resolve("unindexed");
+        ModuleCompiler.compile(sourceDir, unindexedClasses, false, unindexedClass);
+        assertFalse(Files.exists(unindexedClasses.resolve(FieldAccessIndexEntry.INDEX_RESOURCE)));
+
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(
+                new URL[]{indexedJar.toUri().toURL(), unindexedClasses.toUri().toURL()}, original)) {
+            thread.setContextClassLoader(classLoader);
+            Map<Class<? extends IFieldAccessHandler>, IFieldAccessHandler> handlerMap = new HashMap<>();
+            handlerMap.put(FieldNameHandler.class, new FieldNameHandler());
+            FieldAccessInterceptor interceptor = new FieldAccessInterceptor(PACKAGE, handlerMap);
+            SqlSessionFactory factory = TestDatabase.create(interceptor);
+
+            assertEquals("code:v", selectCode(factory, classLoader.loadClass(indexedClass)));
+            assertEquals("code:v", selectCode(factory, classLoader.loadClass(unindexedClass)));
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+
+    @Test
+    void incrementalCompileMergesPreviousIndex(@TempDir Path tempDir) throws IOException {
+        Path sourceDir = tempDir.resolve("src");
+        Path classes = tempDir.resolve("classes");
+        String firstClass = PACKAGE + ".FirstRecord";
+        String secondClass = PACKAGE + ".SecondRecord";
+        ModuleCompiler.writeSource(sourceDir, firstClass, ModuleCompiler.entitySource(PACKAGE, "FirstRecord"));
+        ModuleCompiler.writeSource(sourceDir, secondClass, ModuleCompiler.entitySource(PACKAGE, "SecondRecord"));
+        ModuleCompiler.compile(sourceDir, classes, true, firstClass, secondClass);
+
+        //只重新编译FirstRecord，SecondRecord的索引仍然保留
+        ModuleCompiler.compile(sourceDir, classes, true, firstClass);
+        List<String> lines = readIndex(Files.readAllBytes(classes.resolve(FieldAccessIndexEntry.INDEX_RESOURCE)));
+        assertTrue(lines.contains(firstClass + ",code,getCode,setCode"));
+        assertTrue(lines.contains(secondClass + ",code,getCode,setCode"));
+
+        //SecondRecord去掉注解后重新编译，从索引中删除
+        ModuleCompiler.writeSource(sourceDir, secondClass, ModuleCompiler.entitySource(PACKAGE, "SecondRecord")
+                .replace("@com.github.mybatis.field.interceptor.annotation.EnableFieldAccessInterceptor\n", ""));
+        ModuleCompiler.compile(sourceDir, classes, true, secondClass);
+        lines = readIndex(Files.readAllBytes(classes.resolve(FieldAccessIndexEntry.INDEX_RESOURCE)));
+        assertTrue(lines.contains(firstClass + ",code,getCode,setCode"));
+        assertFalse(lines.contains(secondClass + ",code,getCode,setCode"));
+    }
+
+    private static String selectCode(SqlSessionFactory factory, Class<?> type) throws Exception {
+        Configuration configuration = factory.getConfiguration();
+        String id = type.getSimpleName() + ".select";
+        ResultMap resultMap = new ResultMap.Builder(configuration, id + "-Inline", type, new ArrayList<>(), true)
+                .build();
+        configuration.addMappedStatement(new MappedStatement.Builder(configuration, id,
+                new StaticSqlSource(configuration, "select 'v' as code"), SqlCommandType.SELECT)
+                .resultMaps(Collections.singletonList(resultMap))
+                .build());
+        try (SqlSession session = factory.openSession(true)) {
+            Object record = session.selectOne(id);
+            return (String) type.getMethod("getCode").invoke(record);
+        }
+    }
+
+    private static List<String> readIndex(byte[] content) {
+        List<String> lines = new ArrayList<>();
+        for (String line : new String(content, StandardCharsets.UTF_8).split("\n")) {
+            if (!line.startsWith("#")) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.mybatis.field.interceptor;
+
+import com.github.mybatis.field.interceptor.entity.User;
+import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+import com.github.mybatis.field.interceptor.metrics.FieldAccessMetricsRecord;
+import com.github.mybatis.field.interceptor.metrics.FieldAccessPhase;
+import com.github.mybatis.field.interceptor.metrics.LongAdderFieldAccessMetrics;
+import com.github.mybatis.field.interceptor.support.PrefixHandler;
+import com.github.mybatis.field.interceptor.support.TestDatabase;
+import com.github.mybatis.field.interceptor.support.UserMapper;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * LongAdderFieldAccessMetrics按阶段和MappedStatement统计处理的对象和字段个数，关闭统计后不再记录
+ * Created on 2026-10-18
+ */
+class FieldAccessMetricsTest {
+
+    private static final String INSERT_LIST = UserMapper.class.getName() + ".insertList";
+    private static final String SELECT_ALL = UserMapper.class.getName() + ".selectAll";
+
+    private final LongAdderFieldAccessMetrics metrics = new LongAdderFieldAccessMetrics();
+    private FieldAccessInterceptor interceptor;
+    private SqlSession session;
+
+    private UserMapper open(boolean typeHandlerMode) {
+        Map<Class<? extends IFieldAccessHandler>, IFieldAccessHandler> handlerMap = new HashMap<>();
+        handlerMap.put(PrefixHandler.class, new PrefixHandler());
+        interceptor = new FieldAccessInterceptor("com.github.mybatis.field.interceptor.entity", handlerMap);
+        interceptor.setTypeHandlerMode(typeHandlerMode);
+        interceptor.setMetrics(metrics);
+        session = TestDatabase.create(interceptor).openSession(true);
+        //建表时没有需要处理的参数
+        metrics.reset();
+        return session.getMapper(UserMapper.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.close();
+    }
+
+    @Test
+    void statementRecordsCountRowsAndFields() {
+        UserMapper mapper = open(false);
+        mapper.insertList(Arrays.asList(new User("a", "pa", "ta"), new User("b", "pb", "tb")));
+        List<User> users = mapper.selectAll();
+        assertEquals("pa", users.get(0).getPassword());
+
+        FieldAccessMetricsRecord insert = metrics.getStatementRecords(FieldAccessPhase.PARAM).get(INSERT_LIST);
+        assertEquals(1, insert.getInvocations());
+        assertEquals(2, insert.getRows());
+        assertEquals(4, insert.getFields());
+        assertEquals(4, insert.getAllowTime().getCount());
+
+        FieldAccessMetricsRecord select = metrics.getStatementRecords(FieldAccessPhase.RESULT).get(SELECT_ALL);
+        assertEquals(1, select.getInvocations());
+        assertEquals(2, select.getRows());
+        assertEquals(4, select.getFields());
+        assertEquals(4, select.getModifyTime().getCount());
+        //返回值阶段没有按insertList统计，入参阶段没有按selectAll统计
+        assertNull(metrics.getStatementRecords(FieldAccessPhase.RESULT).get(INSERT_LIST));
+        assertNull(metrics.getStatementRecords(FieldAccessPhase.PARAM).get(SELECT_ALL));
+
+        assertEquals(4, metrics.getEntityRecords(FieldAccessPhase.RESULT).get(User.class.getName()).getFields());
+        assertEquals(4, metrics.getHandlerRecords(FieldAccessPhase.RESULT).get(PrefixHandler.class.getName())
+                .getFields());
+    }
+
+    @Test
+    void typeHandlerModeCountsFieldsOfStatement() {
+        UserMapper mapper = open(true);
+        mapper.insertList(Arrays.asList(new User("a", "pa", "ta"), new User("b", "pb", "tb")));
+        assertEquals("tb", mapper.selectAll().get(1).getPhone());
+
+        //映射时转换的字段按正在执行的statement和ResultMap的类型统计
+        FieldAccessMetricsRecord select = metrics.getStatementRecords(FieldAccessPhase.RESULT).get(SELECT_ALL);
+        assertEquals(4, select.getFields());
+        assertEquals(4, metrics.getEntityRecords(FieldAccessPhase.RESULT).get(User.class.getName()).getFields());
+        assertEquals(4, metrics.getStatementRecords(FieldAccessPhase.PARAM).get(INSERT_LIST).getFields());
+    }
+
+    @Test
+    void disabledMetricsRecordNothing() {
+        UserMapper mapper = open(false);
+        interceptor.setMetrics(null);
+        mapper.insertList(Arrays.asList(new User("a", "pa", "ta"), new User("b", "pb", "tb")));
+        assertEquals("pb", mapper.selectAll().get(1).getPassword());
+
+        for (FieldAccessPhase phase : FieldAccessPhase.values()) {
+            assertTrue(metrics.getStatementRecords(phase).isEmpty());
+            assertTrue(metrics.getEntityRecords(phase).isEmpty());
+            assertTrue(metrics.getHandlerRecords(phase).isEmpty());
+        }
+    }
+}
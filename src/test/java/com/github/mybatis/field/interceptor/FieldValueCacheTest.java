@@ -0,0 +1,55 @@
+package com.github.mybatis.field.interceptor;
+
+import com.github.mybatis.field.interceptor.entity.CachedRecord;
+import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+import com.github.mybatis.field.interceptor.support.FieldNameHandler;
+import com.github.mybatis.field.interceptor.support.TestDatabase;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 开启缓存的字段按字段分别缓存
+ * Created on 2026-10-18
+ */
+class FieldValueCacheTest {
+
+    interface CachedRecordMapper {
+
+        @Select("select 'v' as code, 'v' as region")
+        List<CachedRecord> select();
+    }
+
+    @Test
+    void fieldsSharingHandlerDoNotShareCachedValues() {
+        FieldNameHandler handler = new FieldNameHandler();
+        Map<Class<? extends IFieldAccessHandler>, IFieldAccessHandler> handlerMap = new HashMap<>();
+        handlerMap.put(FieldNameHandler.class, handler);
+        FieldAccessInterceptor interceptor =
+                new FieldAccessInterceptor("com.github.mybatis.field.interceptor.entity", handlerMap);
+        SqlSessionFactory factory = TestDatabase.create(interceptor);
+        factory.getConfiguration().addMapper(CachedRecordMapper.class);
+        try (SqlSession session = factory.openSession(true)) {
+            CachedRecordMapper mapper = session.getMapper(CachedRecordMapper.class);
+            CachedRecord record = mapper.select().get(0);
+            assertEquals("code:v", record.getCode());
+            assertEquals("region:v", record.getRegion());
+            assertEquals(2, handler.modifyCount.get());
+
+            session.clearCache();
+            record = mapper.select().get(0);
+            assertEquals("code:v", record.getCode());
+            assertEquals("region:v", record.getRegion());
+            //第二次查询两个字段都命中缓存
+            assertEquals(2, handler.modifyCount.get());
+            assertEquals(2, interceptor.getHandlerCacheStats().size());
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.github.mybatis.field.interceptor;
+
+import com.github.mybatis.field.interceptor.entity.User;
+import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+import com.github.mybatis.field.interceptor.support.PrefixHandler;
+import com.github.mybatis.field.interceptor.support.TestDatabase;
+import com.github.mybatis.field.interceptor.support.UserMapper;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 懒加载模式下MyBatis通过LazyResultObjectFactory直接创建代理对象，字段在第一次读取时才处理
+ * Created on 2026-10-18
+ */
+class LazyResultTest {
+
+    /**
+     * failure不为null时读取字段抛出该异常，否则交给PrefixHandler
+     */
+    static class FailingHandler implements IFieldAccessHandler {
+
+        private final PrefixHandler delegate;
+        volatile Exception failure;
+
+        FailingHandler(PrefixHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean allowModifyResult(String fieldName, Object fieldValue, Object resultObj,
+                                         List<String> handleParams) {
+            return delegate.allowModifyResult(fieldName, fieldValue, resultObj, handleParams);
+        }
+
+        @Override
+        public Object modifyResult(String fieldName, Object fieldValue, Object result, List<String> handleParams)
+                throws Exception {
+            if (failure != null) {
+                throw failure;
+            }
+            return delegate.modifyResult(fieldName, fieldValue, result, handleParams);
+        }
+
+        @Override
+        public boolean allowModifyParam(String fieldName, Object fieldValue, Object paramObj,
+                                        List<String> handleParams) {
+            return delegate.allowModifyParam(fieldName, fieldValue, paramObj, handleParams);
+        }
+
+        @Override
+        public Object modifyParam(String fieldName, Object fieldValue, Object paramObj, List<String> handleParams) {
+            return delegate.modifyParam(fieldName, fieldValue, paramObj, handleParams);
+        }
+    }
+
+    private final PrefixHandler handler = new PrefixHandler();
+    private final FailingHandler failingHandler = new FailingHandler(handler);
+    private SqlSession session;
+
+    private UserMapper open(boolean registerObjectFactory) {
+        Map<Class<? extends IFieldAccessHandler>, IFieldAccessHandler> handlerMap = new HashMap<>();
+        handlerMap.put(PrefixHandler.class, failingHandler);
+        FieldAccessInterceptor interceptor =
+                new FieldAccessInterceptor("com.github.mybatis.field.interceptor.entity", handlerMap);
+        interceptor.setLazyResult(true);
+        SqlSessionFactory factory = TestDatabase.create(interceptor);
+        if (registerObjectFactory) {
+            factory.getConfiguration().setObjectFactory(new LazyResultObjectFactory(interceptor));
+        }
+        session = factory.openSession(true);
+        UserMapper mapper = session.getMapper(UserMapper.class);
+        mapper.insertList(Arrays.asList(new User("a", "pa", "ta"), new User("b", "pb", "tb")));
+        session.clearCache();
+        handler.reset();
+        return mapper;
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.close();
+    }
+
+    @Test
+    void fieldsAreModifiedOnFirstRead() {
+        UserMapper mapper = open(true);
+        List<User> users = mapper.selectAll();
+        assertTrue(users.get(0) instanceof ILazyFieldAccessObject);
+        assertSame(User.class, users.get(0).getClass().getSuperclass());
+        assertEquals(Collections.emptyList(), handler.resultFields);
+
+        assertEquals("pb", users.get(1).getPassword());
+        assertEquals("pb", users.get(1).getPassword());
+        assertEquals(Collections.singletonList("password"), handler.resultFields);
+        //没有经过handler的字段仍然是数据库中的值，直接读取字段的toString等方法会看到它
+        assertTrue(users.get(1).toString().contains(PrefixHandler.PREFIX + "tb"));
+
+        ((ILazyFieldAccessObject) users.get(1)).resolveLazyFields();
+        assertEquals(Arrays.asList("password", "phone"), handler.resultFields);
+        assertEquals("tb", users.get(1).getPhone());
+    }
+
+    @Test
+    void setterDiscardsPendingValue() {
+        UserMapper mapper = open(true);
+        User user = mapper.selectAll().get(0);
+        user.setPhone("new");
+        assertEquals("new", user.getPhone());
+        assertEquals(Collections.emptyList(), handler.resultFields);
+    }
+
+    @Test
+    void serializedProxyIsPlainModifiedObject() throws Exception {
+        UserMapper mapper = open(true);
+        User user = mapper.selectAll().get(0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(user);
+        }
+        Object copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = in.readObject();
+        }
+        assertSame(User.class, copy.getClass());
+        assertEquals("pa", ((User) copy).getPassword());
+        assertEquals("ta", ((User) copy).getPhone());
+    }
+
+    @Test
+    void checkedHandlerExceptionFailsSerializationWithCause() {
+        UserMapper mapper = open(true);
+        User user = mapper.selectAll().get(0);
+        GeneralSecurityException failure = new GeneralSecurityException("key store unavailable");
+        failingHandler.failure = failure;
+        InvalidObjectException e = assertThrows(InvalidObjectException.class,
+                () -> ((ILazyFieldAccessObject) user).writeReplace());
+        assertSame(failure, e.getCause());
+        e = assertThrows(InvalidObjectException.class,
+                () -> new ObjectOutputStream(new ByteArrayOutputStream()).writeObject(user));
+        assertSame(failure, e.getCause());
+    }
+
+    @Test
+    void resultHandlerRowsAreLazy() {
+        UserMapper mapper = open(true);
+        List<User> users = new ArrayList<>();
+        mapper.streamAll(context -> users.add(context.getResultObject()));
+        assertEquals(2, users.size());
+        assertTrue(users.get(0) instanceof ILazyFieldAccessObject);
+        assertEquals(Collections.emptyList(), handler.resultFields);
+        assertEquals("ta", users.get(0).getPhone());
+        assertEquals(Collections.singletonList("phone"), handler.resultFields);
+    }
+
+    @Test
+    void withoutObjectFactoryResultsAreModifiedImmediately() {
+        UserMapper mapper = open(false);
+        List<User> users = mapper.selectAll();
+        assertFalse(users.get(0) instanceof ILazyFieldAccessObject);
+        assertEquals(4, handler.resultFields.size());
+        assertEquals("pa", users.get(0).getPassword());
+    }
+
+    @Test
+    void objectsCreatedOutsideQueriesAreNotProxies() {
+        UserMapper mapper = open(true);
+        mapper.selectAll();
+        Object user = session.getConfiguration().getObjectFactory().create(User.class);
+        assertSame(User.class, user.getClass());
+    }
+}
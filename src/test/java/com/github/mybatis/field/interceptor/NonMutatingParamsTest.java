@@ -0,0 +1,210 @@
+package com.github.mybatis.field.interceptor;
+
+import com.github.mybatis.field.interceptor.entity.User;
+import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+import com.github.mybatis.field.interceptor.support.PrefixHandler;
+import com.github.mybatis.field.interceptor.support.TestDatabase;
+import com.github.mybatis.field.interceptor.support.UserMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Lang;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 不修改参数对象模式下，参数对象保持原值，数据库中是handler处理后的值
+ * Created on 2026-10-18
+ */
+class NonMutatingParamsTest {
+
+    /**
+     * 自定义LanguageDriver创建的ParameterHandler，绑定参数时记录参数对象上的password
+     */
+    public static class RecordingLanguageDriver extends XMLLanguageDriver {
+
+        static final List<String> BOUND_PASSWORDS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public ParameterHandler createParameterHandler(MappedStatement mappedStatement, Object parameterObject,
+                                                       BoundSql boundSql) {
+            ParameterHandler delegate = new DefaultParameterHandler(mappedStatement, parameterObject, boundSql);
+            return new ParameterHandler() {
+                @Override
+                public Object getParameterObject() {
+                    return delegate.getParameterObject();
+                }
+
+                @Override
+                public void setParameters(PreparedStatement ps) throws SQLException {
+                    BOUND_PASSWORDS.add(((User) parameterObject).getPassword());
+                    delegate.setParameters(ps);
+                }
+            };
+        }
+    }
+
+    /**
+     * 在本拦截器内层拦截setParameters的插件，记录每次绑定时参数对象上的password
+     */
+    @Intercepts(@Signature(type = ParameterHandler.class, method = "setParameters", args = {PreparedStatement.class}))
+    static class InnerParameterPlugin implements Interceptor {
+
+        final List<String> boundPasswords = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            Object parameter = ((ParameterHandler) invocation.getTarget()).getParameterObject();
+            if (parameter instanceof User) {
+                boundPasswords.add(((User) parameter).getPassword());
+            }
+            return invocation.proceed();
+        }
+    }
+
+    interface CustomLangMapper {
+
+        @Insert("insert into users(name, password, phone) values(#{name}, #{password}, #{phone})")
+        @Lang(RecordingLanguageDriver.class)
+        int insert(User user);
+    }
+
+    private final PrefixHandler handler = new PrefixHandler();
+    private SqlSessionFactory factory;
+    private SqlSession session;
+
+    private SqlSession open(ExecutorType executorType, boolean deferBatchParams, Interceptor... innerPlugins) {
+        Map<Class<? extends IFieldAccessHandler>, IFieldAccessHandler> handlerMap = new HashMap<>();
+        handlerMap.put(PrefixHandler.class, handler);
+        FieldAccessInterceptor interceptor =
+                new FieldAccessInterceptor("com.github.mybatis.field.interceptor.entity", handlerMap);
+        interceptor.setNonMutatingParams(true);
+        interceptor.setDeferBatchParams(deferBatchParams);
+        Interceptor[] plugins = Arrays.copyOf(innerPlugins, innerPlugins.length + 1);
+        plugins[innerPlugins.length] = interceptor;
+        factory = TestDatabase.create(plugins);
+        factory.getConfiguration().addMapper(CustomLangMapper.class);
+        session = factory.openSession(executorType, false);
+        return session;
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.close();
+        RecordingLanguageDriver.BOUND_PASSWORDS.clear();
+    }
+
+    private String rawPassword(String name) {
+        try (SqlSession reader = factory.openSession(true)) {
+            return reader.getMapper(UserMapper.class).selectRawPassword(name);
+        }
+    }
+
+    private String rawPhone(String name) {
+        try (SqlSession reader = factory.openSession(true)) {
+            return reader.getMapper(UserMapper.class).selectRawPhone(name);
+        }
+    }
+
+    @Test
+    void insertKeepsEntityPlaintext() {
+        UserMapper mapper = open(ExecutorType.SIMPLE, false).getMapper(UserMapper.class);
+        User user = new User("a", "pa", "ta");
+        mapper.insert(user);
+        session.commit();
+        assertEquals("pa", user.getPassword());
+        assertEquals("ta", user.getPhone());
+        assertEquals("enc:pa", rawPassword("a"));
+        assertEquals("enc:ta", rawPhone("a"));
+
+        //参数对象没有被修改，再次写入也只处理一次
+        user.setName("b");
+        mapper.insert(user);
+        session.commit();
+        assertEquals("enc:pa", rawPassword("b"));
+    }
+
+    @Test
+    void foreachParamsKeepEntitiesPlaintext() {
+        UserMapper mapper = open(ExecutorType.SIMPLE, false).getMapper(UserMapper.class);
+        List<User> users = Arrays.asList(new User("a", "pa", "ta"), new User("b", "pb", "tb"));
+        mapper.insertList(users);
+        session.commit();
+        assertEquals("pa", users.get(0).getPassword());
+        assertEquals("tb", users.get(1).getPhone());
+        assertEquals("enc:pa", rawPassword("a"));
+        assertEquals("enc:tb", rawPhone("b"));
+    }
+
+    @Test
+    void customParameterHandlerSeesNewValueOnlyWhileBinding() {
+        CustomLangMapper mapper = open(ExecutorType.SIMPLE, false).getMapper(CustomLangMapper.class);
+        User user = new User("a", "pa", "ta");
+        mapper.insert(user);
+        session.commit();
+        //新值只在绑定参数期间临时写到参数对象上
+        assertEquals(Collections.singletonList("enc:pa"), RecordingLanguageDriver.BOUND_PASSWORDS);
+        assertEquals("pa", user.getPassword());
+        assertEquals("enc:pa", rawPassword("a"));
+    }
+
+    @Test
+    void deferredBatchKeepsEntitiesPlaintext() {
+        UserMapper mapper = open(ExecutorType.BATCH, true).getMapper(UserMapper.class);
+        User a = new User("a", "pa", "ta");
+        User b = new User("b", "pb", "tb");
+        mapper.insert(a);
+        mapper.insert(b);
+        session.commit();
+        assertEquals("pa", a.getPassword());
+        assertEquals("tb", b.getPhone());
+        assertEquals("enc:pa", rawPassword("a"));
+        assertEquals("enc:tb", rawPhone("b"));
+    }
+
+    @Test
+    void innerParameterPluginStillRuns() {
+        InnerParameterPlugin innerPlugin = new InnerParameterPlugin();
+        UserMapper mapper = open(ExecutorType.SIMPLE, false, innerPlugin).getMapper(UserMapper.class);
+        User user = new User("a", "pa", "ta");
+        mapper.insert(user);
+        session.commit();
+        //内层插件照常执行，参数对象上仍然是原值，新值只在MyBatis读取参数时使用
+        assertEquals(Collections.singletonList("pa"), innerPlugin.boundPasswords);
+        assertEquals("pa", user.getPassword());
+        assertEquals("enc:pa", rawPassword("a"));
+        assertEquals("enc:ta", rawPhone("a"));
+    }
+
+    @Test
+    void innerParameterPluginRunsForDeferredBatch() {
+        InnerParameterPlugin innerPlugin = new InnerParameterPlugin();
+        UserMapper mapper = open(ExecutorType.BATCH, true, innerPlugin).getMapper(UserMapper.class);
+        mapper.insert(new User("a", "pa", "ta"));
+        mapper.insert(new User("b", "pb", "tb"));
+        session.commit();
+        assertEquals(Arrays.asList("pa", "pb"), innerPlugin.boundPasswords);
+        assertEquals("enc:pb", rawPassword("b"));
+    }
+}
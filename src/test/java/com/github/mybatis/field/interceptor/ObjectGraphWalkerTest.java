@@ -0,0 +1,116 @@
+package com.github.mybatis.field.interceptor;
+
+import com.github.mybatis.field.interceptor.entity.User;
+import com.github.mybatis.field.interceptor.entity.UserGroup;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 循环引用只遍历一次，值相等的不同对象分别访问
+ * Created on 2026-10-18
+ */
+class ObjectGraphWalkerTest {
+
+    /**
+     * 按值比较的对象，例如Lombok @Data生成的equals/hashCode
+     */
+    static class Row {
+
+        private final String value;
+
+        Row(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Row && ((Row) obj).value.equals(value);
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+    }
+
+    private final IdentityObjectSet visited = IdentityObjectSet.acquire();
+    private final List<Object> visitedObjs = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        visited.release();
+    }
+
+    private int walk(Object root, ResultTraversal traversal) throws Exception {
+        return ObjectGraphWalker.walk(root, visited, traversal, visitedObjs::add);
+    }
+
+    @Test
+    void cyclicContainersAreWalkedOnce() throws Exception {
+        Row a = new Row("a");
+        Row b = new Row("b");
+        List<Object> list = new ArrayList<>();
+        Map<String, Object> map = new HashMap<>();
+        Object[] array = {list, map, b};
+        list.add(a);
+        list.add(list);
+        list.add(map);
+        list.add(array);
+        map.put("self", map);
+        map.put("list", list);
+        map.put("array", array);
+        map.put("row", a);
+
+        assertEquals(2, walk(map, null));
+        assertEquals(Arrays.asList(a, b), visitedObjs);
+    }
+
+    @Test
+    void valueEqualRowsAreVisitedSeparately() throws Exception {
+        Row a = new Row("a");
+        Row b = new Row("a");
+        //同一个对象出现多次只访问一次，equals相等的不同对象都要访问
+        List<Object> rows = Arrays.asList(a, b, a, Collections.singletonList(b), new Row[]{a, new Row("a")});
+
+        assertEquals(3, walk(rows, null));
+        assertEquals(3, visitedObjs.size());
+        assertSame(a, visitedObjs.get(0));
+        assertSame(b, visitedObjs.get(1));
+    }
+
+    @Test
+    void sharedNestedCollectionIsWalkedOnce() throws Exception {
+        Configuration configuration = new Configuration();
+        configuration.addMapper(TypeHandlerModeTest.GroupMapper.class);
+        ResultTraversal traversal = ResultTraversal.build(configuration,
+                configuration.getMappedStatement(TypeHandlerModeTest.GroupMapper.class.getName() + ".selectGroups")
+                        .getResultMaps(),
+                Collections.singleton(User.class));
+        assertNotNull(traversal);
+
+        User a = new User("a", "pa", "ta");
+        User b = new User("a", "pa", "ta");
+        List<User> users = Arrays.asList(a, b, a);
+        UserGroup first = new UserGroup();
+        first.setUsers(users);
+        UserGroup second = new UserGroup();
+        second.setUsers(users);
+        //多个结果集：列表的列表，两个分组共用同一个users列表
+        List<Object> resultSets = Arrays.asList(Arrays.asList(first, second), Collections.singletonList(first));
+
+        assertEquals(4, walk(resultSets, traversal));
+        assertEquals(Arrays.asList(first, a, b, second), visitedObjs);
+    }
+}
@@ -0,0 +1,142 @@
+package com.github.mybatis.field.interceptor;
+
+import com.github.mybatis.field.interceptor.entity.User;
+import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+import com.github.mybatis.field.interceptor.support.PrefixHandler;
+import com.github.mybatis.field.interceptor.support.TestDatabase;
+import com.github.mybatis.field.interceptor.support.UserMapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 查询参数按返回值类型上同名字段的handler处理后再绑定
+ * Created on 2026-10-18
+ */
+class QueryParamsTest {
+
+    interface QueryMapper {
+
+        @Select("select * from users where phone = #{param1}")
+        List<User> selectByGenericName(@Param("phone") String phone);
+
+        @Select("select * from users where phone = #{phone} and name = #{param2}")
+        List<User> selectByPhoneAndName(@Param("phone") String phone, @Param("name") String name);
+
+        @Select("select * from users where phone = #{phone}")
+        List<User> selectByExample(User example);
+
+        @Select("select * from users where phone = #{arg0} or phone = #{arg1}")
+        List<User> selectByEitherPhone(String phone, String otherPhone);
+    }
+
+    /**
+     * 按所属对象的类型处理参数的handler，例如从实体上读取租户id，参数Map会被当成实体强转
+     */
+    static class EntityAwareHandler extends PrefixHandler {
+
+        final List<Object> paramObjs = new ArrayList<>();
+
+        @Override
+        public Object modifyParam(String fieldName, Object fieldValue, Object paramObj, List<String> handleParams) {
+            if (paramObj != null && !(paramObj instanceof User)) {
+                throw new IllegalArgumentException("unexpected paramObj " + paramObj.getClass().getName());
+            }
+            paramObjs.add(paramObj);
+            return super.modifyParam(fieldName, fieldValue, paramObj, handleParams);
+        }
+    }
+
+    private final EntityAwareHandler handler = new EntityAwareHandler();
+    private SqlSession session;
+
+    private SqlSession open(boolean typeHandlerMode) {
+        Map<Class<? extends IFieldAccessHandler>, IFieldAccessHandler> handlerMap = new HashMap<>();
+        handlerMap.put(PrefixHandler.class, handler);
+        FieldAccessInterceptor interceptor =
+                new FieldAccessInterceptor("com.github.mybatis.field.interceptor.entity", handlerMap);
+        interceptor.setInterceptQueryParams(true);
+        interceptor.setTypeHandlerMode(typeHandlerMode);
+        SqlSessionFactory factory = TestDatabase.create(interceptor);
+        factory.getConfiguration().addMapper(QueryMapper.class);
+        session = factory.openSession(true);
+        session.getMapper(UserMapper.class)
+                .insertList(Arrays.asList(new User("a", "pa", "ta"), new User("b", "pb", "tb")));
+        handler.reset();
+        handler.paramObjs.clear();
+        return session;
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.close();
+    }
+
+    @Test
+    void namedParamIsModified() {
+        List<User> users = open(false).getMapper(UserMapper.class).selectByPhone("tb");
+        assertEquals(1, users.size());
+        assertEquals("b", users.get(0).getName());
+        assertEquals(Collections.singletonList("phone"), handler.paramFields);
+    }
+
+    @Test
+    void genericParamNameUsesNewValue() {
+        QueryMapper mapper = open(false).getMapper(QueryMapper.class);
+        assertEquals(1, mapper.selectByGenericName("ta").size());
+        //name不是被注解的字段，param2按原值绑定
+        assertEquals(1, mapper.selectByPhoneAndName("tb", "b").size());
+        assertEquals(Arrays.asList("phone", "phone"), handler.paramFields);
+    }
+
+    @Test
+    void genericParamNameUsesNewValueAtBindTime() {
+        QueryMapper mapper = open(true).getMapper(QueryMapper.class);
+        assertEquals(1, mapper.selectByGenericName("ta").size());
+        assertEquals(1, mapper.selectByPhoneAndName("tb", "b").size());
+        assertEquals(Arrays.asList("phone", "phone"), handler.paramFields);
+    }
+
+    @Test
+    void exampleObjectIsNotModified() {
+        QueryMapper mapper = open(false).getMapper(QueryMapper.class);
+        User example = new User(null, null, "ta");
+        List<User> users = mapper.selectByExample(example);
+        assertEquals(1, users.size());
+        assertEquals("ta", example.getPhone());
+        assertEquals("ta", users.get(0).getPhone());
+    }
+
+    @Test
+    void paramsWithoutNamesAreNotModified() {
+        QueryMapper mapper = open(false).getMapper(QueryMapper.class);
+        //没有@Param也没有用-parameters编译时参数名是arg0、arg1，和字段名对不上
+        assertEquals(Collections.emptyList(), mapper.selectByEitherPhone("ta", "tb"));
+        assertEquals(Collections.emptyList(), handler.paramFields);
+    }
+
+    @Test
+    void namedParamHasNoParamObj() {
+        for (boolean typeHandlerMode : new boolean[]{false, true}) {
+            QueryMapper mapper = open(typeHandlerMode).getMapper(QueryMapper.class);
+            assertEquals(1, mapper.selectByPhoneAndName("tb", "b").size());
+            User example = new User(null, null, "ta");
+            assertEquals(1, mapper.selectByExample(example).size());
+            //@Param参数没有所属的对象，参数对象中的字段收到参数对象本身
+            assertEquals(Arrays.asList(null, example), handler.paramObjs);
+            session.close();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.mybatis.field.interceptor;
+
+import com.github.mybatis.field.interceptor.entity.User;
+import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+import com.github.mybatis.field.interceptor.support.PrefixHandler;
+import com.github.mybatis.field.interceptor.support.TestDatabase;
+import com.github.mybatis.field.interceptor.support.UserMapper;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 运行时register/unregister/replaceHandlerParams之后，下一次执行的语句（包括已经生成过拦截计划的语句）使用新的注册信息
+ * Created on 2026-10-18
+ */
+class RegistryTest {
+
+    /**
+     * 读取时在去掉前缀的值后面加上handlerParams
+     */
+    static class ParamsHandler extends PrefixHandler {
+
+        @Override
+        public Object modifyResult(String fieldName, Object fieldValue, Object result, List<String> handleParams) {
+            return super.modifyResult(fieldName, fieldValue, result, handleParams) + String.join("", handleParams);
+        }
+    }
+
+    private FieldAccessInterceptor interceptor;
+    private SqlSession session;
+
+    private UserMapper open(String scanPath, boolean typeHandlerMode) {
+        Map<Class<? extends IFieldAccessHandler>, IFieldAccessHandler> handlerMap = new HashMap<>();
+        handlerMap.put(PrefixHandler.class, new ParamsHandler());
+        interceptor = new FieldAccessInterceptor(scanPath, handlerMap);
+        interceptor.setTypeHandlerMode(typeHandlerMode);
+        session = TestDatabase.create(interceptor).openSession(true);
+        return session.getMapper(UserMapper.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.close();
+    }
+
+    @Test
+    void registeredClassIsIntercepted() {
+        for (boolean typeHandlerMode : new boolean[]{false, true}) {
+            //启动时扫描的包下没有被注解的类
+            UserMapper mapper = open("com.github.mybatis.field.interceptor.support", typeHandlerMode);
+            mapper.insert(new User("a", "pa", "ta"));
+            assertEquals("pa", mapper.selectRawPassword("a"));
+            assertEquals("pa", mapper.selectByName("a").getPassword());
+
+            interceptor.register(User.class);
+            mapper.insert(new User("b", "pb", "tb"));
+            assertEquals(PrefixHandler.PREFIX + "pb", mapper.selectRawPassword("b"));
+            assertEquals("pb", mapper.selectByName("b").getPassword());
+            assertEquals("tb", mapper.selectByName("b").getPhone());
+            session.close();
+        }
+    }
+
+    @Test
+    void replacedHandlerParamsApplyToNextQuery() {
+        for (boolean typeHandlerMode : new boolean[]{false, true}) {
+            UserMapper mapper = open("com.github.mybatis.field.interceptor.entity", typeHandlerMode);
+            mapper.insert(new User("a", "pa", "ta"));
+            assertEquals("pa", mapper.selectAll().get(0).getPassword());
+
+            interceptor.replaceHandlerParams(User.class, "password", Collections.singletonList("#v2"));
+            //一级缓存中的对象是替换前处理的
+            session.clearCache();
+            User user = mapper.selectAll().get(0);
+            assertEquals("pa#v2", user.getPassword());
+            assertEquals("ta", user.getPhone());
+            session.close();
+        }
+    }
+
+    @Test
+    void unregisteredClassIsNotIntercepted() {
+        for (boolean typeHandlerMode : new boolean[]{false, true}) {
+            UserMapper mapper = open("com.github.mybatis.field.interceptor.entity", typeHandlerMode);
+            mapper.insertList(Arrays.asList(new User("a", "pa", "ta"), new User("b", "pb", "tb")));
+            //insertList和selectAll都已经生成了拦截计划
+            assertEquals("pa", mapper.selectAll().get(0).getPassword());
+
+            interceptor.unregister(User.class);
+            mapper.insertList(Collections.singletonList(new User("c", "pc", "tc")));
+            assertEquals("pc", mapper.selectRawPassword("c"));
+            List<User> users = mapper.selectAll();
+            assertEquals(PrefixHandler.PREFIX + "pa", users.get(0).getPassword());
+            assertEquals(PrefixHandler.PREFIX + "tb", users.get(1).getPhone());
+            assertEquals("pc", users.get(2).getPassword());
+            session.close();
+        }
+    }
+}
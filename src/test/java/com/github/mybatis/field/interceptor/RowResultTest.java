@@ -0,0 +1,106 @@
+package com.github.mybatis.field.interceptor;
+
+import com.github.mybatis.field.interceptor.entity.User;
+import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+import com.github.mybatis.field.interceptor.support.PrefixHandler;
+import com.github.mybatis.field.interceptor.support.TestDatabase;
+import com.github.mybatis.field.interceptor.support.UserMapper;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 游标、ResultHandler逐行返回的对象和只查询部分列的结果
+ * Created on 2026-10-18
+ */
+class RowResultTest {
+
+    private final PrefixHandler handler = new PrefixHandler();
+    private SqlSession session;
+    private UserMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        Map<Class<? extends IFieldAccessHandler>, IFieldAccessHandler> handlerMap = new HashMap<>();
+        handlerMap.put(PrefixHandler.class, handler);
+        SqlSessionFactory factory = TestDatabase.create(
+                new FieldAccessInterceptor("com.github.mybatis.field.interceptor.entity", handlerMap));
+        session = factory.openSession(true);
+        mapper = session.getMapper(UserMapper.class);
+        mapper.insertList(Arrays.asList(new User("a", "pa", "ta"), new User("b", "pb", "tb")));
+        session.clearCache();
+        handler.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.close();
+    }
+
+    @Test
+    void cursorRowsAreModifiedOneByOne() throws Exception {
+        List<User> users = new ArrayList<>();
+        try (Cursor<User> cursor = mapper.cursorAll()) {
+            for (User user : cursor) {
+                //取出下一行之前这一行已经处理完
+                assertEquals(2 * (users.size() + 1), handler.resultFields.size());
+                users.add(user);
+            }
+        }
+        assertEquals("pa", users.get(0).getPassword());
+        assertEquals("tb", users.get(1).getPhone());
+    }
+
+    @Test
+    void resultHandlerRowsAreModified() {
+        List<User> users = new ArrayList<>();
+        mapper.streamAll(context -> users.add(context.getResultObject()));
+        assertEquals(2, users.size());
+        assertEquals("pb", users.get(1).getPassword());
+        assertEquals("ta", users.get(0).getPhone());
+    }
+
+    @Test
+    void unmappedColumnSkipsHandler() {
+        List<User> users = mapper.selectWithoutPhone();
+        assertEquals("pa", users.get(0).getPassword());
+        assertNull(users.get(0).getPhone());
+        assertFalse(handler.allowResultFields.contains("phone"));
+        assertEquals(Collections.nCopies(2, "password"), handler.resultFields);
+    }
+
+    @Test
+    void mappedColumnsStillModified() {
+        List<User> users = mapper.selectAll();
+        assertEquals("pb", users.get(1).getPassword());
+        assertEquals("tb", users.get(1).getPhone());
+        assertTrue(handler.resultFields.contains("phone"));
+    }
+
+    @Test
+    void rowsWithEqualValuesAreEachModified() {
+        mapper.insertList(Arrays.asList(new User("a", "pa", "ta"), new User("a", "pa", "ta")));
+        session.clearCache();
+        handler.reset();
+        List<User> users = mapper.selectAll();
+        assertEquals(4, users.size());
+        assertEquals("pa", users.get(2).getPassword());
+        assertEquals("ta", users.get(3).getPhone());
+        assertEquals(8, handler.resultFields.size());
+    }
+}
@@ -0,0 +1,259 @@
+package com.github.mybatis.field.interceptor;
+
+import com.github.mybatis.field.interceptor.entity.User;
+import com.github.mybatis.field.interceptor.entity.UserGroup;
+import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+import com.github.mybatis.field.interceptor.support.PrefixHandler;
+import com.github.mybatis.field.interceptor.support.TestDatabase;
+import com.github.mybatis.field.interceptor.support.UserMapper;
+import org.apache.ibatis.annotations.Arg;
+import org.apache.ibatis.annotations.ConstructorArgs;
+import org.apache.ibatis.annotations.Many;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TypeHandler模式下显式映射、嵌套ResultMap、自动映射和构造方法映射的字段都只处理一次
+ * Created on 2026-10-18
+ */
+class TypeHandlerModeTest {
+
+    interface GroupMapper {
+
+        String USER_MAP = "com.github.mybatis.field.interceptor.TypeHandlerModeTest$GroupMapper.userByPhone";
+
+        @Select("select id, name, password, phone from users where id = #{id}")
+        @Results(id = "userByPhone", value = {
+                @Result(id = true, column = "phone", property = "phone"),
+                @Result(column = "id", property = "id"),
+                @Result(column = "name", property = "name"),
+                @Result(column = "password", property = "password")})
+        User selectById(long id);
+
+        @Select("select 'all' as group_name, id, name, password, phone from users order by id")
+        @Results(id = "groupMap", value = {
+                @Result(id = true, column = "group_name", property = "name"),
+                @Result(property = "users", javaType = List.class, many = @Many(resultMap = USER_MAP))})
+        List<UserGroup> selectGroups();
+    }
+
+    /**
+     * 使用&lt;constructor&gt;映射后User的所有被注解字段都在映射完成后处理，只在需要时注册
+     */
+    interface ConstructorMapper {
+
+        @Select("select name, password, phone from users order by id")
+        @ConstructorArgs({
+                @Arg(id = true, column = "name", javaType = String.class),
+                @Arg(column = "password", javaType = String.class),
+                @Arg(column = "phone", javaType = String.class)})
+        List<User> selectByConstructor();
+    }
+
+    /**
+     * 在本拦截器内层拦截setParameters的插件，记录执行次数
+     */
+    @Intercepts(@Signature(type = ParameterHandler.class, method = "setParameters", args = {PreparedStatement.class}))
+    static class InnerParameterPlugin implements Interceptor {
+
+        final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            count.incrementAndGet();
+            return invocation.proceed();
+        }
+    }
+
+    private final PrefixHandler handler = new PrefixHandler();
+    private FieldAccessInterceptor interceptor;
+    private SqlSession session;
+
+    private SqlSession open(Class<?> mapper, Interceptor... innerPlugins) {
+        Map<Class<? extends IFieldAccessHandler>, IFieldAccessHandler> handlerMap = new HashMap<>();
+        handlerMap.put(PrefixHandler.class, handler);
+        interceptor = new FieldAccessInterceptor("com.github.mybatis.field.interceptor.entity", handlerMap);
+        interceptor.setTypeHandlerMode(true);
+        Interceptor[] plugins = Arrays.copyOf(innerPlugins, innerPlugins.length + 1);
+        plugins[innerPlugins.length] = interceptor;
+        SqlSessionFactory factory = TestDatabase.create(plugins);
+        factory.getConfiguration().addMapper(mapper);
+        session = factory.openSession(true);
+        session.getMapper(UserMapper.class)
+                .insertList(Arrays.asList(new User("a", "pa", "ta"), new User("b", "pb", "tb")));
+        handler.reset();
+        return session;
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.close();
+    }
+
+    private static long count(List<String> fieldNames, String fieldName) {
+        return fieldNames.stream().filter(fieldName::equals).count();
+    }
+
+    /**
+     * 模拟热加载Mapper：按完整id移除后重新添加，短名称变成MyBatis的Ambiguity对象，ResultMap数量不变
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> void replace(Configuration configuration, String fieldName, String id, T value,
+                                    Consumer<T> adder) throws Exception {
+        Field field = Configuration.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        ((Map<String, T>) field.get(configuration)).remove(id);
+        adder.accept(value);
+    }
+
+    @Test
+    void nestedResultMapIdIsModifiedOnce() {
+        List<UserGroup> groups = open(GroupMapper.class).getMapper(GroupMapper.class).selectGroups();
+        assertEquals(1, groups.size());
+        List<User> users = groups.get(0).getUsers();
+        assertEquals(2, users.size());
+        assertEquals("pa", users.get(0).getPassword());
+        assertEquals("tb", users.get(1).getPhone());
+        //<id>映射的phone在计算行的key时也会被读取，不在映射时处理，映射完成后每个对象只处理一次
+        assertEquals(2, count(handler.resultFields, "phone"));
+        assertEquals(2, count(handler.resultFields, "password"));
+        //password在映射时处理，phone在映射完成后处理
+        assertEquals(Arrays.asList("password", "password", "phone", "phone"), handler.resultFields);
+    }
+
+    @Test
+    void autoMappingIsModifiedOnce() {
+        List<User> users = open(GroupMapper.class).getMapper(UserMapper.class).selectAll();
+        assertEquals("pa", users.get(0).getPassword());
+        assertEquals("tb", users.get(1).getPhone());
+        assertEquals(2, count(handler.resultFields, "phone"));
+        assertEquals(2, count(handler.resultFields, "password"));
+    }
+
+    @Test
+    void constructorMappingIsModifiedAfterMapping() {
+        List<User> users = open(ConstructorMapper.class).getMapper(ConstructorMapper.class).selectByConstructor();
+        assertEquals("a", users.get(0).getName());
+        assertEquals("pa", users.get(0).getPassword());
+        assertEquals("tb", users.get(1).getPhone());
+        assertEquals(2, count(handler.resultFields, "phone"));
+        assertEquals(2, count(handler.resultFields, "password"));
+    }
+
+    @Test
+    void switchingOffRestoresTypeHandlers() {
+        open(GroupMapper.class).getMapper(GroupMapper.class).selectById(1L);
+        List<ResultMapping> resultMappings =
+                session.getConfiguration().getResultMap(GroupMapper.USER_MAP).getResultMappings();
+        assertTrue(resultMappings.stream().anyMatch(m -> m.getTypeHandler() instanceof FieldAccessTypeHandler));
+
+        interceptor.setTypeHandlerMode(false);
+        assertFalse(resultMappings.stream().anyMatch(m -> m.getTypeHandler() instanceof FieldAccessTypeHandler));
+        handler.reset();
+        session.clearCache();
+        User user = session.getMapper(GroupMapper.class).selectById(1L);
+        assertEquals("pa", user.getPassword());
+        assertEquals(Arrays.asList("password", "phone"), handler.resultFields);
+        interceptor.setTypeHandlerMode(true);
+        session.clearCache();
+        assertEquals("tb", session.getMapper(GroupMapper.class).selectById(2L).getPhone());
+        assertTrue(resultMappings.stream().anyMatch(m -> m.getTypeHandler() instanceof FieldAccessTypeHandler));
+    }
+
+    @Test
+    void innerParameterPluginStillRuns() {
+        InnerParameterPlugin innerPlugin = new InnerParameterPlugin();
+        UserMapper mapper = open(GroupMapper.class, innerPlugin).getMapper(UserMapper.class);
+        int count = innerPlugin.count.get();
+        User user = new User("c", "pc", "tc");
+        mapper.insert(user);
+        assertEquals(count + 1, innerPlugin.count.get());
+        //参数对象不修改，数据库中是新值
+        assertEquals("pc", user.getPassword());
+        assertEquals(Arrays.asList("password", "phone"), handler.paramFields);
+        assertEquals("enc:pc", mapper.selectRawPassword("c"));
+    }
+
+    @Test
+    void replacedResultMapIsRecomputed() throws Exception {
+        GroupMapper mapper = open(GroupMapper.class).getMapper(GroupMapper.class);
+        assertEquals("pa", mapper.selectById(1L).getPassword());
+        Configuration configuration = session.getConfiguration();
+        ResultMap oldResultMap = configuration.getResultMap(GroupMapper.USER_MAP);
+        int resultMapCount = configuration.getResultMaps().size();
+
+        //替换后password是<id>，phone在映射时处理
+        List<ResultMapping> resultMappings = new ArrayList<>();
+        for (ResultMapping resultMapping : oldResultMap.getResultMappings()) {
+            resultMappings.add(new ResultMapping.Builder(configuration, resultMapping.getProperty(),
+                    resultMapping.getColumn(), resultMapping.getJavaType())
+                    .flags("password".equals(resultMapping.getProperty())
+                            ? Collections.singletonList(ResultFlag.ID) : new ArrayList<>())
+                    .build());
+        }
+        ResultMap newResultMap = new ResultMap.Builder(configuration, GroupMapper.USER_MAP, User.class,
+                resultMappings).build();
+        replace(configuration, "resultMaps", GroupMapper.USER_MAP, newResultMap, configuration::addResultMap);
+        assertEquals(resultMapCount, configuration.getResultMaps().size());
+        MappedStatement oldMs = configuration.getMappedStatement(GroupMapper.class.getName() + ".selectById");
+        MappedStatement newMs = new MappedStatement.Builder(configuration, oldMs.getId(), oldMs.getSqlSource(),
+                oldMs.getSqlCommandType()).resultMaps(Collections.singletonList(newResultMap)).build();
+        replace(configuration, "mappedStatements", oldMs.getId(), newMs, configuration::addMappedStatement);
+
+        handler.reset();
+        session.clearCache();
+        User user = mapper.selectById(1L);
+        assertEquals("pa", user.getPassword());
+        assertEquals("ta", user.getPhone());
+        //phone在映射时处理，password在映射完成后处理
+        assertEquals(Arrays.asList("phone", "password"), handler.resultFields);
+        //不再使用的ResultMap还原
+        assertFalse(oldResultMap.getResultMappings().stream()
+                .anyMatch(m -> m.getTypeHandler() instanceof FieldAccessTypeHandler));
+    }
+
+    @Test
+    void secondTypeHandlerInterceptorIsRejected() {
+        Map<Class<? extends IFieldAccessHandler>, IFieldAccessHandler> handlerMap = new HashMap<>();
+        handlerMap.put(PrefixHandler.class, new PrefixHandler());
+        FieldAccessInterceptor other =
+                new FieldAccessInterceptor("com.github.mybatis.field.interceptor.entity", handlerMap);
+        other.setTypeHandlerMode(true);
+        GroupMapper mapper = open(GroupMapper.class, other).getMapper(GroupMapper.class);
+        PersistenceException e = assertThrows(PersistenceException.class, () -> mapper.selectById(1L));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+}
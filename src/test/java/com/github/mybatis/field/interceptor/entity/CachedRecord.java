@@ -0,0 +1,35 @@
+package com.github.mybatis.field.interceptor.entity;
+
+import com.github.mybatis.field.interceptor.annotation.EnableFieldAccessInterceptor;
+import com.github.mybatis.field.interceptor.annotation.FieldAccess;
+import com.github.mybatis.field.interceptor.support.FieldNameHandler;
+
+/**
+ * 两个字段使用同一个开启缓存的handler
+ * Created on 2026-10-18
+ */
+@EnableFieldAccessInterceptor
+public class CachedRecord {
+
+    @FieldAccess(handler = FieldNameHandler.class, cacheable = true)
+    private String code;
+
+    @FieldAccess(handler = FieldNameHandler.class, cacheable = true)
+    private String region;
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+}
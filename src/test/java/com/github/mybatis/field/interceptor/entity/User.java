@@ -0,0 +1,75 @@
+package com.github.mybatis.field.interceptor.entity;
+
+import com.github.mybatis.field.interceptor.annotation.EnableFieldAccessInterceptor;
+import com.github.mybatis.field.interceptor.annotation.FieldAccess;
+import com.github.mybatis.field.interceptor.support.PrefixHandler;
+
+import java.io.Serializable;
+
+/**
+ * Created on 2026-10-18
+ */
+@EnableFieldAccessInterceptor
+public class User implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String name;
+
+    @FieldAccess(handler = PrefixHandler.class)
+    private String password;
+
+    @FieldAccess(handler = PrefixHandler.class)
+    private String phone;
+
+    public User() {
+    }
+
+    public User(String name, String password, String phone) {
+        this.name = name;
+        this.password = password;
+        this.phone = phone;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public void setPhone(String phone) {
+        this.phone = phone;
+    }
+
+    /**
+     * 和IDE生成的一样直接读取字段
+     */
+    @Override
+    public String toString() {
+        return "User(" + id + "," + name + "," + password + "," + phone + ")";
+    }
+}
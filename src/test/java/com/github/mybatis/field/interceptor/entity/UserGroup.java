@@ -0,0 +1,30 @@
+package com.github.mybatis.field.interceptor.entity;
+
+import java.util.List;
+
+/**
+ * 嵌套ResultMap的外层对象，本身没有被注解的字段
+ * Created on 2026-10-18
+ */
+public class UserGroup {
+
+    private String name;
+
+    private List<User> users;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<User> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<User> users) {
+        this.users = users;
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.mybatis.field.interceptor.support;
+
+import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试用handler，新值是"字段名:旧值"，结果依赖fieldName
+ * Created on 2026-10-18
+ */
+public class FieldNameHandler implements IFieldAccessHandler {
+
+    public final AtomicInteger modifyCount = new AtomicInteger();
+
+    @Override
+    public boolean allowModifyResult(String fieldName, Object fieldValue, Object resultObj,
+                                     List<String> handleParams) {
+        return fieldValue != null;
+    }
+
+    @Override
+    public Object modifyResult(String fieldName, Object fieldValue, Object result, List<String> handleParams) {
+        modifyCount.incrementAndGet();
+        return fieldName + ":" + fieldValue;
+    }
+
+    @Override
+    public boolean allowModifyParam(String fieldName, Object fieldValue, Object paramObj, List<String> handleParams) {
+        return fieldValue != null;
+    }
+
+    @Override
+    public Object modifyParam(String fieldName, Object fieldValue, Object paramObj, List<String> handleParams) {
+        modifyCount.incrementAndGet();
+        return fieldName + ":" + fieldValue;
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.mybatis.field.interceptor.support;
+
+import com.github.mybatis.field.interceptor.annotation.FieldAccess;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 测试时编译一个独立的模块，模拟使用方开启或没有开启FieldAccessProcessor的jar和目录
+ * Created on 2026-10-18
+ */
+public final class ModuleCompiler {
+
+    private ModuleCompiler() {
+    }
+
+    /**
+     * 生成一个被@EnableFieldAccessInterceptor标记的实体类源码，code字段使用FieldNameHandler
+     */
+    public static String entitySource(String packageName, String simpleName) {
+        return "package " + packageName + ";\n"
+                + "@com.github.mybatis.field.interceptor.annotation.EnableFieldAccessInterceptor\n"
+                + "public class " + simpleName + " {\n"
+                + "    @com.github.mybatis.field.interceptor.annotation.FieldAccess(\n"
+                + "            handler = com.github.mybatis.field.interceptor.support.FieldNameHandler.class)\n"
+                + "    private String code;\n"
+                + "    public String getCode() { return code; }\n"
+                + "    public void setCode(String code) { this.code = code; }\n"
+                + "}\n";
+    }
+
+    /**
+     * 把源码编译到outputDir，processor为false时不执行注解处理，编译classpath包括本项目和测试代码
+     */
+    public static void compile(Path sourceDir, Path outputDir, boolean processor, String... classNames)
+            throws IOException {
+        Files.createDirectories(outputDir);
+        List<String> args = new ArrayList<>();
+        args.add("-d");
+        args.add(outputDir.toString());
+        args.add("-classpath");
+        args.add(locationOf(FieldAccess.class) + File.pathSeparator + locationOf(FieldNameHandler.class)
+                + File.pathSeparator + outputDir);
+        args.add("-encoding");
+        args.add("UTF-8");
+        if (!processor) {
+            args.add("-proc:none");
+        }
+        for (String className : classNames) {
+            args.add(sourceDir.resolve(className.replace('.', '/') + ".java").toString());
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler.run(null, null, null, args.toArray(new String[0])) != 0) {
+            throw new IllegalStateException("compile failed: " + args);
+        }
+    }
+
+    /**
+     * 写入一个类的源码
+     */
+    public static void writeSource(Path sourceDir, String className, String source) throws IOException {
+        Path file = sourceDir.resolve(className.replace('.', '/') + ".java");
+        Files.createDirectories(file.getParent());
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 把编译输出目录打成jar
+     */
+    public static Path jar(Path classesDir, Path jarFile) throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(classesDir)) {
+            files = stream.filter(file -> !file.equals(classesDir)).sorted().collect(Collectors.toList());
+        }
+        try (OutputStream out = Files.newOutputStream(jarFile); JarOutputStream jar = new JarOutputStream(out)) {
+            for (Path file : files) {
+                String name = classesDir.relativize(file).toString().replace(File.separatorChar, '/');
+                //和打包工具一样写入目录，ClassLoader#getResources才能按package找到这个jar
+                if (Files.isDirectory(file)) {
+                    jar.putNextEntry(new JarEntry(name + "/"));
+                } else {
+                    jar.putNextEntry(new JarEntry(name));
+                    jar.write(Files.readAllBytes(file));
+                }
+                jar.closeEntry();
+            }
+        }
+        return jarFile;
+    }
+
+    private static String locationOf(Class<?> clz) {
+        try {
+            return new File(clz.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
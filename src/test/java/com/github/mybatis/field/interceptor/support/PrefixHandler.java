@@ -0,0 +1,50 @@
+package com.github.mybatis.field.interceptor.support;
+
+import com.github.mybatis.field.interceptor.handler.IFieldAccessHandler;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 测试用handler，写入时加上"enc:"前缀，读取时去掉前缀，记录每次调用的字段名
+ * Created on 2026-10-18
+ */
+public class PrefixHandler implements IFieldAccessHandler {
+
+    public static final String PREFIX = "enc:";
+
+    public final List<String> allowResultFields = new CopyOnWriteArrayList<>();
+    public final List<String> resultFields = new CopyOnWriteArrayList<>();
+    public final List<String> paramFields = new CopyOnWriteArrayList<>();
+
+    @Override
+    public boolean allowModifyResult(String fieldName, Object fieldValue, Object resultObj,
+                                     List<String> handleParams) {
+        allowResultFields.add(fieldName);
+        return fieldValue != null;
+    }
+
+    @Override
+    public Object modifyResult(String fieldName, Object fieldValue, Object result, List<String> handleParams) {
+        resultFields.add(fieldName);
+        String value = (String) fieldValue;
+        return value.startsWith(PREFIX) ? value.substring(PREFIX.length()) : value;
+    }
+
+    @Override
+    public boolean allowModifyParam(String fieldName, Object fieldValue, Object paramObj, List<String> handleParams) {
+        return fieldValue != null;
+    }
+
+    @Override
+    public Object modifyParam(String fieldName, Object fieldValue, Object paramObj, List<String> handleParams) {
+        paramFields.add(fieldName);
+        return PREFIX + fieldValue;
+    }
+
+    public void reset() {
+        allowResultFields.clear();
+        resultFields.clear();
+        paramFields.clear();
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.mybatis.field.interceptor.support;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 创建连接H2内存库的SqlSessionFactory，每次使用新的库，已经建好users表
+ * Created on 2026-10-18
+ */
+public final class TestDatabase {
+
+    private static final AtomicInteger DB_COUNT = new AtomicInteger();
+
+    private TestDatabase() {
+    }
+
+    /**
+     * 按顺序添加插件，后添加的插件在外层
+     */
+    public static SqlSessionFactory create(Interceptor... interceptors) {
+        SqlSessionFactory factory = new SqlSessionFactoryBuilder().build(newConfiguration(interceptors));
+        try (SqlSession session = factory.openSession(true)) {
+            session.getMapper(UserMapper.class).createTable();
+        }
+        return factory;
+    }
+
+    private static Configuration newConfiguration(Interceptor... interceptors) {
+        String url = "jdbc:h2:mem:test" + DB_COUNT.incrementAndGet() + ";DB_CLOSE_DELAY=-1";
+        Environment environment = new Environment("test", new JdbcTransactionFactory(),
+                new PooledDataSource("org.h2.Driver", url, "sa", ""));
+        Configuration configuration = new Configuration(environment);
+        for (Interceptor interceptor : interceptors) {
+            configuration.addInterceptor(interceptor);
+        }
+        configuration.addMapper(UserMapper.class);
+        return configuration;
+    }
+}
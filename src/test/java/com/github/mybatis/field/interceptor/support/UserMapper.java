@@ -0,0 +1,60 @@
+package com.github.mybatis.field.interceptor.support;
+
+import com.github.mybatis.field.interceptor.entity.User;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.List;
+
+/**
+ * Created on 2026-10-18
+ */
+public interface UserMapper {
+
+    @Update("create table if not exists users(id bigint auto_increment primary key, name varchar(64),"
+            + " password varchar(128), phone varchar(128))")
+    void createTable();
+
+    @Insert("insert into users(name, password, phone) values(#{name}, #{password}, #{phone})")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    int insert(User user);
+
+    @Insert("<script>insert into users(name, password, phone) values <foreach collection='list' item='u' separator=','>"
+            + "(#{u.name}, #{u.password}, #{u.phone})</foreach></script>")
+    int insertList(@Param("list") List<User> users);
+
+    @Select("select * from users order by id")
+    List<User> selectAll();
+
+    @Select("select id, name, password from users order by id")
+    List<User> selectWithoutPhone();
+
+    @Select("select * from users order by id")
+    Cursor<User> cursorAll();
+
+    @Select("select * from users order by id")
+    @ResultType(User.class)
+    void streamAll(ResultHandler<User> resultHandler);
+
+    @Select("select * from users where phone = #{phone}")
+    List<User> selectByPhone(@Param("phone") String phone);
+
+    @Select("select * from users where name = #{name}")
+    User selectByName(String name);
+
+    @Select("select password from users where name = #{name}")
+    String selectRawPassword(String name);
+
+    @Select("select phone from users where name = #{name}")
+    String selectRawPhone(String name);
+
+    @Delete("delete from users")
+    int deleteAll();
+}